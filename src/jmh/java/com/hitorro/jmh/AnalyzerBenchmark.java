@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2006-2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.hitorro.jmh;
+
+import com.hitorro.language.Iso639Table;
+import com.hitorro.obj.core.GenericAnalyzer;
+import com.hitorro.util.io.ResetableStringReader;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of GenericAnalyzer filter chains over one document, the analyzer and reader are reused as in the
+ * inverter.
+ */
+@BenchmarkMode(org.openjdk.jmh.annotations.Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class AnalyzerBenchmark {
+    @Param({"STANDARD,CASE,PORTERSTEM", "STANDARD,CASE,DOUBLEMETAPHONE", "STANDARD,CASE,SOUNDEX"})
+    public String chain;
+
+    @Param({"1000"})
+    public int words;
+
+    private GenericAnalyzer analyzer;
+    private ResetableStringReader reader;
+    private String text;
+
+    @Setup
+    public void setup() {
+        text = new BenchmarkCorpus(20000).document(words);
+        analyzer = new GenericAnalyzer(chain, Iso639Table.english, GenericAnalyzer.Mode.Index);
+        reader = new ResetableStringReader(null);
+    }
+
+    @Benchmark
+    public int analyze(Blackhole bh) throws IOException {
+        reader.set(text);
+        TokenStream ts = analyzer.tokenStream("body", reader);
+        CharTermAttribute term = ts.getAttribute(CharTermAttribute.class);
+        int count = 0;
+        ts.reset();
+        while (ts.incrementToken()) {
+            bh.consume(term.length());
+            count++;
+        }
+        ts.end();
+        ts.close();
+        return count;
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2006-2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.hitorro.jmh;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Deterministic synthetic text for the benchmarks.  A vocabulary is built from syllables and words are drawn from it
+ * with a Zipf distribution, so term frequencies look like natural text while every run sees the same corpus.
+ */
+public class BenchmarkCorpus {
+    public static final long Seed = 0x5eed2024L;
+    private static final String Syllables[] = {"ka", "ro", "ti", "mun", "sel", "vor", "ing", "ed", "an", "the",
+            "str", "qu", "ph", "ly", "tion", "er", "es", "pre", "con", "al", "ba", "nu", "dex", "om"};
+    private static final double ZipfExponent = 1.07;
+
+    private final String vocabulary[];
+    private final double cumulative[];
+    private final Random random;
+
+    public BenchmarkCorpus(int vocabularySize) {
+        this(vocabularySize, Seed);
+    }
+
+    public BenchmarkCorpus(int vocabularySize, long seed) {
+        random = new Random(seed);
+        Set<String> seen = new HashSet<String>();
+        vocabulary = new String[vocabularySize];
+        int fill = 0;
+        while (fill < vocabularySize) {
+            int parts = 1 + random.nextInt(4);
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < parts; i++) {
+                sb.append(Syllables[random.nextInt(Syllables.length)]);
+            }
+            String w = sb.toString();
+            if (seen.add(w)) {
+                vocabulary[fill++] = w;
+            }
+        }
+        cumulative = new double[vocabularySize];
+        double total = 0;
+        for (int i = 0; i < vocabularySize; i++) {
+            total += 1.0 / Math.pow(i + 1, ZipfExponent);
+            cumulative[i] = total;
+        }
+        for (int i = 0; i < vocabularySize; i++) {
+            cumulative[i] /= total;
+        }
+    }
+
+    public String[] getVocabulary() {
+        return vocabulary;
+    }
+
+    public String word() {
+        int i = Arrays.binarySearch(cumulative, random.nextDouble());
+        if (i < 0) {
+            i = -i - 1;
+        }
+        return vocabulary[Math.min(i, vocabulary.length - 1)];
+    }
+
+    /**
+     * A document of sentences with capitalised starts, the odd number and punctuation.
+     *
+     * @param words
+     * @return
+     */
+    public String document(int words) {
+        StringBuilder sb = new StringBuilder(words * 8);
+        boolean sentenceStart = true;
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                sb.append(' ');
+            }
+            if (random.nextInt(40) == 0) {
+                sb.append(random.nextInt(10000));
+            } else {
+                String w = word();
+                if (sentenceStart) {
+                    sb.append(Character.toUpperCase(w.charAt(0))).append(w, 1, w.length());
+                } else {
+                    sb.append(w);
+                }
+            }
+            sentenceStart = random.nextInt(12) == 0;
+            if (sentenceStart) {
+                sb.append('.');
+            } else if (random.nextInt(20) == 0) {
+                sb.append(',');
+            }
+        }
+        return sb.toString();
+    }
+
+    public String[] documents(int count, int words) {
+        String docs[] = new String[count];
+        for (int i = 0; i < count; i++) {
+            docs[i] = document(words);
+        }
+        return docs;
+    }
+}
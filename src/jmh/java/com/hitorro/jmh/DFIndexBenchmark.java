@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2006-2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.hitorro.jmh;
+
+import com.hitorro.basetext.dfindex.DFIndex;
+import com.hitorro.basetext.dfindex.MappedDFIndex;
+import com.hitorro.util.core.hash.FPHash64;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DFIndex.getValue probes, half hits and half misses, against the heap index and its mapped form.
+ */
+@BenchmarkMode(org.openjdk.jmh.annotations.Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DFIndexBenchmark {
+    private static final int Probes = 4096;
+
+    @Param({"100000", "1000000"})
+    public int terms;
+
+    private DFIndex heap;
+    private MappedDFIndex mapped;
+    private File mappedFile;
+    private long probes[];
+
+    @Setup
+    public void setup() throws IOException {
+        Random r = new Random(BenchmarkCorpus.Seed);
+        heap = new DFIndex(0);
+        long hashes[] = new long[terms];
+        for (int i = 0; i < terms; i++) {
+            hashes[i] = FPHash64.getFP("term" + i);
+            int df = 1 + r.nextInt(100);
+            for (int j = 0; j < df; j++) {
+                heap.incrementFrequency(hashes[i]);
+            }
+            heap.incrementDocFrequency();
+        }
+        probes = new long[Probes];
+        for (int i = 0; i < Probes; i++) {
+            probes[i] = (i & 1) == 0 ? hashes[r.nextInt(terms)] : r.nextLong();
+        }
+        mappedFile = File.createTempFile("dfindex", ".mdf");
+        MappedDFIndex.write(heap, mappedFile);
+        mapped = MappedDFIndex.open(mappedFile, true);
+    }
+
+    @TearDown
+    public void tearDown() {
+        mappedFile.delete();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Probes)
+    public long heapGetValue() {
+        long sum = 0;
+        for (long p : probes) {
+            sum += heap.getValue(p, 0);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Probes)
+    public long mappedGetValue() {
+        long sum = 0;
+        for (long p : probes) {
+            sum += mapped.getValue(p, 0);
+        }
+        return sum;
+    }
+}
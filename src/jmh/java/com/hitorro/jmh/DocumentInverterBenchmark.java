@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2006-2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.hitorro.jmh;
+
+import com.hitorro.basetext.inverter.ColumnarTermTupleSet;
+import com.hitorro.basetext.inverter.DocumentInverter;
+import com.hitorro.basetext.inverter.TermTupleSet;
+import com.hitorro.language.Iso639Table;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Inverting a document into a term set, tuple and columnar forms.
+ */
+@BenchmarkMode(org.openjdk.jmh.annotations.Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class DocumentInverterBenchmark {
+    @Param({"200", "2000"})
+    public int words;
+
+    private DocumentInverter inverter;
+    private String docs[];
+    private int next = 0;
+
+    @Setup
+    public void setup() {
+        docs = new BenchmarkCorpus(20000).documents(64, words);
+        inverter = new DocumentInverter("body", "STANDARD,CASE,PORTERSTEM", null, null);
+    }
+
+    private String nextDoc() {
+        String d = docs[next];
+        next = (next + 1) & 63;
+        return d;
+    }
+
+    @Benchmark
+    public TermTupleSet invert() throws IOException {
+        return inverter.setText("body", nextDoc(), Iso639Table.english);
+    }
+
+    @Benchmark
+    public ColumnarTermTupleSet invertColumnar() throws IOException {
+        return inverter.setTextColumnar("body", nextDoc(), Iso639Table.english);
+    }
+}
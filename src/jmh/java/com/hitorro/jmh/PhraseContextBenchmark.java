@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2006-2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.hitorro.jmh;
+
+import com.hitorro.basetext.dfindex.DFIndex;
+import com.hitorro.basetext.phrase.FPPhraseContext;
+import com.hitorro.util.core.hash.FPHash64;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sliding window phrase spotting with FPPhraseContext over a pre-tokenized document, the dictionary holds 2 to 4
+ * word phrases drawn from the same corpus.
+ */
+@BenchmarkMode(org.openjdk.jmh.annotations.Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class PhraseContextBenchmark {
+    @Param({"4", "6"})
+    public int maxDepth;
+
+    @Param({"false", "true"})
+    public boolean recordStrings;
+
+    private char tokens[][];
+    private CountingContext context;
+
+    /**
+     * Probes a df index directly and counts the matches rather than printing them.
+     */
+    static final class CountingContext extends FPPhraseContext {
+        private final DFIndex dict;
+        int matches = 0;
+
+        CountingContext(int maxDepth, DFIndex dict, boolean recordStrings) {
+            super(maxDepth, null, recordStrings);
+            this.dict = dict;
+        }
+
+        void token(char buf[]) {
+            add(buf, buf.length, 0, 0);
+        }
+
+        @Override
+        public void phraseEmit(long fingerPrint, int startPosition, int size, String txt, int charStartOffset,
+                               int charEndOffset) {
+            if (dict.hasPhrase(fingerPrint) != -1) {
+                matches++;
+            }
+        }
+    }
+
+    @Setup
+    public void setup() {
+        BenchmarkCorpus corpus = new BenchmarkCorpus(5000);
+        String words[] = corpus.document(2000).toLowerCase().replaceAll("[.,]", "").split(" ");
+        tokens = new char[words.length][];
+        for (int i = 0; i < words.length; i++) {
+            tokens[i] = words[i].toCharArray();
+        }
+        DFIndex dict = new DFIndex(0);
+        for (int i = 0; i < 20000; i++) {
+            int len = 2 + (i % 3);
+            long fp = FPHash64.getFP(corpus.word());
+            for (int j = 1; j < len; j++) {
+                fp = FPHash64.combineFingerPrints(fp, FPHash64.getFP(corpus.word()));
+            }
+            dict.incrementFrequency(fp);
+        }
+        context = new CountingContext(maxDepth, dict, recordStrings);
+    }
+
+    @Benchmark
+    public int spotPhrases() {
+        context.reset();
+        context.matches = 0;
+        for (char t[] : tokens) {
+            context.token(t);
+        }
+        context.end();
+        return context.matches;
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2006-2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.hitorro.jmh;
+
+import com.hitorro.basetext.inverter.ColumnarTermTupleSet;
+import com.hitorro.basetext.inverter.ColumnarTermTupleSetVisitor;
+import com.hitorro.basetext.inverter.DocumentInverter;
+import com.hitorro.basetext.inverter.TermTuple;
+import com.hitorro.basetext.inverter.TermTupleSet;
+import com.hitorro.basetext.inverter.TermTupleSetVisitor;
+import com.hitorro.language.Iso639Table;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Merge and match of two documents' term sets, in the tuple and columnar forms.  The sets are sorted by hash in the
+ * first invocation and stay sorted, so this measures the walk itself.
+ */
+@BenchmarkMode(org.openjdk.jmh.annotations.Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class TermTupleSetBenchmark {
+    @Param({"500", "5000"})
+    public int words;
+
+    private TermTupleSet a;
+    private TermTupleSet b;
+    private ColumnarTermTupleSet ca;
+    private ColumnarTermTupleSet cb;
+    private int matched;
+
+    private final TermTupleSetVisitor visitor = new TermTupleSetVisitor() {
+        public boolean visit(TermTuple t, TermTuple otherT, Mode mode) {
+            matched += t.tf + otherT.tf;
+            return true;
+        }
+    };
+
+    private final ColumnarTermTupleSetVisitor columnarVisitor = new ColumnarTermTupleSetVisitor() {
+        public boolean visit(ColumnarTermTupleSet set, int row, ColumnarTermTupleSet otherSet, int otherRow,
+                             TermTupleSetVisitor.Mode mode) {
+            matched += set.getTF(row) + otherSet.getTF(otherRow);
+            return true;
+        }
+    };
+
+    @Setup
+    public void setup() throws IOException {
+        BenchmarkCorpus corpus = new BenchmarkCorpus(20000);
+        DocumentInverter inverter = new DocumentInverter("body", null, null, null);
+        String d1 = corpus.document(words);
+        String d2 = corpus.document(words);
+        a = inverter.setText("a", d1, Iso639Table.english);
+        b = inverter.setText("b", d2, Iso639Table.english);
+        ca = inverter.setTextColumnar("a", d1, Iso639Table.english);
+        cb = inverter.setTextColumnar("b", d2, Iso639Table.english);
+    }
+
+    @Benchmark
+    public TermTupleSet mergeSet() {
+        return a.mergeSet(b, "all");
+    }
+
+    @Benchmark
+    public int matchByHash() {
+        matched = 0;
+        a.matchByHash(visitor, b);
+        return matched;
+    }
+
+    @Benchmark
+    public ColumnarTermTupleSet columnarMergeSet() {
+        return ca.mergeSet(cb, "all");
+    }
+
+    @Benchmark
+    public int columnarMatchByHash() {
+        matched = 0;
+        ca.matchByHash(columnarVisitor, cb);
+        return matched;
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2006-2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.hitorro.jmh;
+
+import com.hitorro.basetext.winnow.Hash;
+import com.hitorro.basetext.winnow.HashWriter;
+import com.hitorro.basetext.winnow.WinnowingHashWriter;
+import com.hitorro.basetext.winnow.streaming.RollingHashWinnower;
+import com.hitorro.basetext.winnow.streaming.ShingleUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.CharBuffer;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Winnowing a document, the buffered writer against the streaming rolling hash, and shingle set similarity.
+ */
+@BenchmarkMode(org.openjdk.jmh.annotations.Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class WinnowBenchmark {
+    @Param({"17"})
+    public int kgram;
+
+    @Param({"11", "50"})
+    public int window;
+
+    private char text[];
+    private int fingerprintsA[];
+    private int fingerprintsB[];
+    private final CountingWriter sink = new CountingWriter();
+
+    static final class CountingWriter implements HashWriter {
+        int count;
+        int fill;
+        int hashes[] = new int[1024];
+
+        public boolean write(int hash, int position) {
+            if (fill == hashes.length) {
+                hashes = Arrays.copyOf(hashes, fill << 1);
+            }
+            hashes[fill++] = hash;
+            count++;
+            return true;
+        }
+
+        public boolean close() {
+            return true;
+        }
+
+        int[] sorted() {
+            int a[] = Arrays.copyOf(hashes, fill);
+            Arrays.sort(a);
+            return a;
+        }
+    }
+
+    @Setup
+    public void setup() {
+        BenchmarkCorpus corpus = new BenchmarkCorpus(20000);
+        text = corpus.document(5000).toCharArray();
+        CountingWriter w = new CountingWriter();
+        new RollingHashWinnower(kgram, window, w).winnow(CharBuffer.wrap(text));
+        fingerprintsA = w.sorted();
+        w = new CountingWriter();
+        new RollingHashWinnower(kgram, window, w).winnow(CharBuffer.wrap(corpus.document(5000)));
+        fingerprintsB = w.sorted();
+    }
+
+    @Benchmark
+    public int bufferedWinnow() {
+        sink.count = 0;
+        sink.fill = 0;
+        int n = text.length - kgram + 1;
+        WinnowingHashWriter writer = new WinnowingHashWriter(sink, n, window);
+        for (int i = 0; i < n; i++) {
+            writer.write(Hash.hashSubstring(text, i, kgram), i);
+        }
+        writer.close();
+        return sink.count;
+    }
+
+    @Benchmark
+    public int rollingWinnow() {
+        sink.count = 0;
+        sink.fill = 0;
+        new RollingHashWinnower(kgram, window, sink).winnow(CharBuffer.wrap(text));
+        return sink.count;
+    }
+
+    @Benchmark
+    public int computeSimilarity() {
+        return ShingleUtil.computeSimilarity(fingerprintsA, fingerprintsB);
+    }
+}
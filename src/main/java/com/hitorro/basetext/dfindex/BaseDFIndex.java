@@ -27,6 +27,7 @@ import gnu.trove.map.hash.TLongIntHashMap;
 
 public class BaseDFIndex implements BaseDFIndexInterface {
     protected TLongIntHashMap m_map = new TLongIntHashMap();
+    protected SplitBlockBloomFilter m_filter;
     protected int layer;
 
     public BaseDFIndex(int layer) {
@@ -34,6 +35,9 @@ public class BaseDFIndex implements BaseDFIndexInterface {
     }
 
     public int hasPhrase(long fp) {
+        if (m_filter != null && !m_filter.mightContain(fp)) {
+            return -1;
+        }
         if (m_map.contains(fp)) {
             return layer;
         }
@@ -44,4 +48,41 @@ public class BaseDFIndex implements BaseDFIndexInterface {
     public long getValue(final long fp, final int layer) {
         return m_map.get(fp);
     }
+
+    /**
+     * Rebuild the membership filter from the current keys, consulted by hasPhrase before the map.
+     */
+    public void buildFilter() {
+        m_filter = SplitBlockBloomFilter.fromKeys(m_map);
+    }
+
+    public SplitBlockBloomFilter getFilter() {
+        return m_filter;
+    }
+
+    /**
+     * Use a filter built elsewhere, e.g. read from disk.  It is dropped and rebuilt if its key count or key
+     * checksum does not match the keys.
+     *
+     * @param filter
+     */
+    public void setFilter(SplitBlockBloomFilter filter) {
+        if (filter != null && filter.getKeyCount() == m_map.size()
+                && filter.getKeyChecksum() == SplitBlockBloomFilter.checksum(m_map)) {
+            m_filter = filter;
+        } else {
+            buildFilter();
+        }
+    }
+
+    /**
+     * Keep the filter in step with a key added to the map.
+     *
+     * @param fp
+     */
+    protected void keyAdded(long fp) {
+        if (m_filter != null) {
+            m_filter.add(fp);
+        }
+    }
 }
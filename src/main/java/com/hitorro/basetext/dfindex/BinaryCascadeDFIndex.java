@@ -28,14 +28,27 @@ public class BinaryCascadeDFIndex implements BaseDFIndexInterface {
     private BaseDFIndexInterface arr[];
     private int size;
     private BaseDFIndexInterface second;
+    private SplitBlockBloomFilter filter;
 
     public BinaryCascadeDFIndex(BaseDFIndexInterface elems[]) {
+        this(elems, null);
+    }
+
+    /**
+     * @param elems
+     * @param filter built over the keys of every layer, a miss skips the whole cascade.  May be null.
+     */
+    public BinaryCascadeDFIndex(BaseDFIndexInterface elems[], SplitBlockBloomFilter filter) {
         arr = elems;
         size = elems.length;
+        this.filter = filter;
     }
 
     @Override
     public int hasPhrase(final long fp) {
+        if (filter != null && !filter.mightContain(fp)) {
+            return -1;
+        }
         if (arr[0].hasPhrase(fp) != -1) {
             return 0;
         }
@@ -0,0 +1,223 @@
+/*
+ * Copyright (c) 2006-2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.hitorro.basetext.dfindex;
+
+import com.hitorro.basetext.inverter.ColumnarTermTupleSet;
+import com.hitorro.basetext.inverter.TermTuple;
+import com.hitorro.basetext.inverter.TermTupleSet;
+import com.hitorro.util.basefile.fs.BaseFile;
+import gnu.trove.iterator.TLongIntIterator;
+import gnu.trove.map.hash.TLongIntHashMap;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Multi threaded version of {@link DFIndexBuilder}.  Any number of threads may call addDocument, each document is
+ * de-duplicated in a per thread scratch map and its hashes are then applied to hash striped shards, each shard
+ * guarded by its own lock, so threads only contend when they touch the same stripe at the same moment.
+ * <p/>
+ * {@link #finish()} folds the shards into a single {@link DFIndex} carrying exact doc frequency and accumulated
+ * document length totals.  Shards start small and grow with the vocabulary.
+ */
+public class ConcurrentDFIndexBuilder {
+    private final Shard shards[];
+    private final int stripeShift;
+    private final AtomicInteger docFrequency = new AtomicInteger();
+    private final LongAdder accumDocLength = new LongAdder();
+    private final ThreadLocal<Scratch> scratch = new ThreadLocal<Scratch>();
+    private String description;
+    private String query;
+
+    public ConcurrentDFIndexBuilder() {
+        this(Runtime.getRuntime().availableProcessors() * 4);
+    }
+
+    /**
+     * @param stripes rounded up to a power of two
+     */
+    public ConcurrentDFIndexBuilder(int stripes) {
+        int bits = 32 - Integer.numberOfLeadingZeros(Math.max(stripes, 1) - 1);
+        int count = 1 << bits;
+        stripeShift = 64 - bits;
+        shards = new Shard[count];
+        for (int i = 0; i < count; i++) {
+            shards[i] = new Shard();
+        }
+    }
+
+    public void setDescription(String desc, String query) {
+        this.description = desc;
+        this.query = query;
+    }
+
+    private int stripe(long hash) {
+        // fingerprints are well mixed, use the top bits so the stripe is independent of the shard's own hashing
+        return shards.length == 1 ? 0 : (int) (hash >>> stripeShift);
+    }
+
+    private Scratch getScratch() {
+        Scratch s = scratch.get();
+        if (s == null) {
+            s = new Scratch(shards.length);
+            scratch.set(s);
+        }
+        return s;
+    }
+
+    /**
+     * Add a document made of one or more sections, a term counts once per document however many sections hold it.
+     *
+     * @param sets
+     */
+    public void addDocument(TermTupleSet... sets) {
+        Scratch s = getScratch();
+        s.seen.clear();
+        int wordCount = 0;
+        for (TermTupleSet set : sets) {
+            List<TermTuple> l = set.getTuplesList();
+            for (int i = 0, len = l.size(); i < len; i++) {
+                s.add(l.get(i).m_hash);
+            }
+            wordCount += set.getWordCount();
+        }
+        apply(s, wordCount);
+    }
+
+    /**
+     * Add a document made of one or more columnar sections.
+     *
+     * @param sets
+     */
+    public void addDocument(ColumnarTermTupleSet... sets) {
+        Scratch s = getScratch();
+        s.seen.clear();
+        int wordCount = 0;
+        for (ColumnarTermTupleSet set : sets) {
+            long hashes[] = set.getHashColumn();
+            for (int i = 0, len = set.size(); i < len; i++) {
+                s.add(hashes[i]);
+            }
+            wordCount += set.getWordCount();
+        }
+        apply(s, wordCount);
+    }
+
+    private void apply(Scratch s, int wordCount) {
+        for (int stripe = 0; stripe < shards.length; stripe++) {
+            int fill = s.fill[stripe];
+            if (fill == 0) {
+                continue;
+            }
+            long bucket[] = s.buckets[stripe];
+            Shard shard = shards[stripe];
+            synchronized (shard) {
+                TLongIntHashMap map = shard.map;
+                for (int i = 0; i < fill; i++) {
+                    map.adjustOrPutValue(bucket[i], 1, 1);
+                }
+            }
+            s.fill[stripe] = 0;
+        }
+        accumDocLength.add(wordCount);
+        docFrequency.incrementAndGet();
+    }
+
+    public int getDocFrequency() {
+        return docFrequency.get();
+    }
+
+    /**
+     * Merge the shards into a df index, call once all feeding threads are done.
+     *
+     * @return
+     */
+    public DFIndex finish() {
+        int total = 0;
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                total += shard.map.size();
+            }
+        }
+        DFIndex index = new DFIndex(0);
+        index.setDetails(description, query);
+        TLongIntHashMap merged = new TLongIntHashMap(Math.max(total, 16));
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                // stripes are disjoint so this is a straight copy
+                for (TLongIntIterator it = shard.map.iterator(); it.hasNext(); ) {
+                    it.advance();
+                    merged.put(it.key(), it.value());
+                }
+            }
+        }
+        index.m_map = merged;
+        index.setDocFrequency(docFrequency.get());
+        index.setAccumulativeDocLength(accumDocLength.sum());
+        return index;
+    }
+
+    public boolean save(File f) throws IOException {
+        return finish().save(f);
+    }
+
+    public boolean save(BaseFile f) throws IOException {
+        return finish().save(f);
+    }
+
+    private static final class Shard {
+        TLongIntHashMap map = new TLongIntHashMap();
+    }
+
+    /**
+     * Per thread state, the document's distinct hashes bucketed by stripe.
+     */
+    private final class Scratch {
+        final TLongIntHashMap seen = new TLongIntHashMap();
+        final long buckets[][];
+        final int fill[];
+
+        Scratch(int stripes) {
+            buckets = new long[stripes][16];
+            fill = new int[stripes];
+        }
+
+        void add(long hash) {
+            if (seen.putIfAbsent(hash, 1) != seen.getNoEntryValue()) {
+                return;
+            }
+            int stripe = stripe(hash);
+            int f = fill[stripe];
+            long bucket[] = buckets[stripe];
+            if (f == bucket.length) {
+                bucket = Arrays.copyOf(bucket, f << 1);
+                buckets[stripe] = bucket;
+            }
+            bucket[f] = hash;
+            fill[stripe] = f + 1;
+        }
+    }
+}
@@ -87,6 +87,14 @@ public class DFIndex extends BaseDFIndex {
         accumDocLength += length;
     }
 
+    public long getAccumulativeDocLength() {
+        return accumDocLength;
+    }
+
+    public void setAccumulativeDocLength(long length) {
+        accumDocLength = length;
+    }
+
     public int getFrequencyMaxAbsolute() {
         return freqMax;
     }
@@ -140,6 +148,7 @@ public class DFIndex extends BaseDFIndex {
         int f = m_map.get(hash);
         if (f == 0) {
             m_map.put(hash, 1);
+            keyAdded(hash);
         } else {
             m_map.increment(hash);
         }
@@ -259,6 +268,8 @@ public class DFIndex extends BaseDFIndex {
         this.m_creationDate = dis.readUTF();
 
         int size = dis.readInt();
+        // a filter over the old keys would give false negatives
+        m_filter = null;
         m_map = new TLongIntHashMap(size);
         long hash;
         int freq;
@@ -267,6 +278,7 @@ public class DFIndex extends BaseDFIndex {
             freq = dis.readInt();
             m_map.put(hash, freq);
         }
+        buildFilter();
         return false;
     }
 
@@ -32,7 +32,7 @@ import java.io.IOException;
  */
 public class DFIndexBuilder {
     private DFIndex m_index = new DFIndex(0);
-    private TLongIntHashMap m_currentSet = new TLongIntHashMap(10000000);
+    private TLongIntHashMap m_currentSet = new TLongIntHashMap();
     private ApplyHashProcedure m_proc = new ApplyHashProcedure();
 
     public void setDescription(String desc, String query) {
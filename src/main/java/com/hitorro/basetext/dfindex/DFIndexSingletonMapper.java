@@ -57,8 +57,27 @@ public class DFIndexSingletonMapper extends BaseMapper<Object, DFIndex> {
         return singleton;
     }
 
+    /**
+     * Loads the index, the mapped copy of the configured file ({@link MappedDFIndex#mappedFileFor(File)}) is preferred
+     * as it opens without parsing the whole index onto the heap.  A mapped copy older than the configured file is
+     * stale and ignored.  The mapped copy was checksummed when it was written, it is not verified again here as that
+     * would fault in every page on every load and reload.
+     *
+     * @param object
+     * @return
+     */
     public DFIndex apply(Object object) {
         File f = PropKey.apply();
+        File mapped = MappedDFIndex.mappedFileFor(f);
+        if (mapped.exists() && mapped.lastModified() >= f.lastModified()) {
+            try {
+                DFIndex dfi = MappedDFIndex.open(mapped, false);
+                dfi.setFrequencyMaxByPercentage(30.0);
+                return dfi;
+            } catch (IOException e) {
+                Log.util.error("Unable to map index file %s, falling back %s %e", mapped.getAbsolutePath(), e, e);
+            }
+        }
         DFIndex dfi = new DFIndex(0);
         try {
             dfi.read(f);
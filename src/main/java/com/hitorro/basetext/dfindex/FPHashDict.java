@@ -29,14 +29,28 @@ import com.hitorro.util.core.map.FPHashBaseMapInterface;
 public class FPHashDict implements BaseDFIndexInterface {
     private FPHashBaseMapInterface map;
     private int layer;
+    private SplitBlockBloomFilter filter;
 
     public FPHashDict(FPHashBaseMapInterface map, int layer) {
+        this(map, layer, null);
+    }
+
+    /**
+     * @param map
+     * @param layer
+     * @param filter built over the map's keys and checked before it, may be null
+     */
+    public FPHashDict(FPHashBaseMapInterface map, int layer, SplitBlockBloomFilter filter) {
         this.map = map;
         this.layer = layer;
+        this.filter = filter;
     }
 
     @Override
     public int hasPhrase(final long fp) {
+        if (filter != null && !filter.mightContain(fp)) {
+            return -1;
+        }
         int layerLocal = map.contains(fp);
         if (layer != -1) {
             return layerLocal;
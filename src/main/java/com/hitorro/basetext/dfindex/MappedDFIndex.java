@@ -0,0 +1,355 @@
+/*
+ * Copyright (c) 2006-2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.hitorro.basetext.dfindex;
+
+import com.hitorro.util.core.Log;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * A {@link DFIndex} served straight from a memory mapped file rather than a heap hash map.  Opening one costs a
+ * header read and an mmap, the pages are shared through the OS page cache by every JVM on the host.
+ * <p/>
+ * File layout, big endian:
+ * <pre>
+ *   int   magic
+ *   int   version
+ *   int   doc frequency
+ *   int   entry count
+ *   long  accumulated document length
+ *   long  crc32 of the body
+ *   int   body offset
+ *   utf   description, creation query, creation date
+ *   pad   to 8 bytes
+ *   long  hash[count]    ascending
+ *   int   freq[count]
+ * </pre>
+ * Lookups are an interpolation search over the sorted hash column (fingerprints are uniform) alternating with
+ * bisection steps so the worst case stays logarithmic.  The body is limited to 2GB, about 178M entries.
+ * <p/>
+ * The index is read only, {@link #incrementFrequency(long)} throws.
+ */
+public class MappedDFIndex extends DFIndex {
+    public static final String Extension = ".mdf";
+    public static final int Magic = 0x48444649;
+    public static final int MappedVersion = 1;
+    private static final int ChecksumOffset = 24;
+
+    private LongBuffer keys;
+    private IntBuffer values;
+    private int count;
+
+    public MappedDFIndex(int layer) {
+        super(layer);
+    }
+
+    /**
+     * Open a mapped index.
+     *
+     * @param f
+     * @param verify check the body checksum, this touches every page of the file
+     * @return
+     * @throws IOException if the file is not a mapped df index or fails the checksum
+     */
+    public static MappedDFIndex open(File f, boolean verify) throws IOException {
+        MappedDFIndex index = new MappedDFIndex(0);
+        index.map(f, verify);
+        return index;
+    }
+
+    /**
+     * @param source a df index in the stream format
+     * @return the mapped copy that belongs to the source, it sits next to it as {@code <name>.mdf}
+     */
+    public static File mappedFileFor(File source) {
+        return new File(source.getParentFile(), source.getName() + Extension);
+    }
+
+    private void map(File f, boolean verify) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(f, "r");
+        try {
+            if (raf.readInt() != Magic) {
+                throw new IOException("Not a mapped df index " + f.getAbsolutePath());
+            }
+            int ver = raf.readInt();
+            if (ver != MappedVersion) {
+                throw new IOException("Unsupported mapped df index version " + ver + " in " + f.getAbsolutePath());
+            }
+            setDocFrequency(raf.readInt());
+            count = raf.readInt();
+            setAccumulativeDocLength(raf.readLong());
+            long checksum = raf.readLong();
+            int bodyOffset = raf.readInt();
+            String desc = raf.readUTF();
+            String query = raf.readUTF();
+            raf.readUTF();
+            setDetails(desc, query);
+
+            long bodyLength = (long) count * 12;
+            FileChannel ch = raf.getChannel();
+            if (bodyOffset + bodyLength > ch.size()) {
+                throw new IOException("Truncated mapped df index " + f.getAbsolutePath());
+            }
+            MappedByteBuffer body = ch.map(FileChannel.MapMode.READ_ONLY, bodyOffset, bodyLength);
+            if (verify) {
+                CRC32 crc = new CRC32();
+                crc.update(body.duplicate());
+                if (crc.getValue() != checksum) {
+                    throw new IOException("Checksum mismatch in mapped df index " + f.getAbsolutePath());
+                }
+            }
+            body.position(0).limit(count * 8);
+            keys = body.slice().asLongBuffer();
+            body.position(count * 8).limit(count * 12);
+            values = body.slice().asIntBuffer();
+        } finally {
+            // the mapping outlives the channel
+            raf.close();
+        }
+    }
+
+    /**
+     * @param hash
+     * @return the row holding the hash or -1
+     */
+    private int find(long hash) {
+        int lo = 0;
+        int hi = count - 1;
+        boolean bisect = false;
+        while (lo <= hi) {
+            long kl = keys.get(lo);
+            long kh = keys.get(hi);
+            if (hash < kl || hash > kh) {
+                return -1;
+            }
+            int mid;
+            if (bisect || kh == kl) {
+                mid = (lo + hi) >>> 1;
+            } else {
+                mid = lo + (int) (((double) hash - (double) kl) / ((double) kh - (double) kl) * (hi - lo));
+                if (mid < lo || mid > hi) {
+                    mid = (lo + hi) >>> 1;
+                }
+            }
+            bisect = !bisect;
+            long km = keys.get(mid);
+            if (km == hash) {
+                return mid;
+            }
+            if (km < hash) {
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return -1;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    @Override
+    public int hasPhrase(long fp) {
+        return find(fp) >= 0 ? layer : -1;
+    }
+
+    @Override
+    public long getValue(final long fp, final int layer) {
+        return getFrequencyRaw(fp);
+    }
+
+    @Override
+    public int getFrequency(long hash) {
+        int f = getFrequencyRaw(hash);
+        if (f > getFrequencyMaxAbsolute()) {
+            return -1;
+        }
+        return f;
+    }
+
+    @Override
+    public int getFrequencyRaw(long hash) {
+        int row = find(hash);
+        return row < 0 ? 0 : values.get(row);
+    }
+
+    @Override
+    public void incrementFrequency(long hash) {
+        throw new UnsupportedOperationException("Mapped df index is read only");
+    }
+
+    /**
+     * A mapped index is only ever populated by {@link #open(File, boolean)}, reading a stream format file would fill
+     * a map the lookups never consult.
+     */
+    @Override
+    public boolean read(File f) throws IOException {
+        throw new UnsupportedOperationException("Mapped df index is opened with MappedDFIndex.open");
+    }
+
+    @Override
+    public long[] getHashArray(int minDF, int countKnown, boolean sort) {
+        long arr[] = new long[count];
+        int fill = 0;
+        for (int i = 0; i < count; i++) {
+            if (values.get(i) >= minDF) {
+                arr[fill++] = keys.get(i);
+            }
+        }
+        // already ascending
+        return fill == count ? arr : Arrays.copyOf(arr, fill);
+    }
+
+    /**
+     * Writes the legacy stream format so a mapped index can still be shipped to older readers.
+     *
+     * @param dos
+     * @throws IOException
+     */
+    @Override
+    public void save(DataOutputStream dos) throws IOException {
+        dos.writeShort(Version);
+        dos.writeInt(getDocFrequency());
+        dos.writeUTF(nonNull(getDescription()));
+        dos.writeUTF(nonNull(getQueryString()));
+        dos.writeUTF(nonNull(getCreationDate()));
+        dos.writeInt(count);
+        for (int i = 0; i < count; i++) {
+            dos.writeLong(keys.get(i));
+            dos.writeInt(values.get(i));
+        }
+        dos.flush();
+    }
+
+    private static String nonNull(String s) {
+        return s == null ? "" : s;
+    }
+
+    /**
+     * Write any df index in the mapped format, the file is read back and checksummed once written.
+     *
+     * @param index
+     * @param f
+     * @throws IOException if the written file fails the checksum
+     */
+    public static void write(DFIndex index, File f) throws IOException {
+        long hashes[];
+        int freqs[];
+        if (index instanceof MappedDFIndex) {
+            MappedDFIndex m = (MappedDFIndex) index;
+            hashes = m.getHashArray(Integer.MIN_VALUE, -1, false);
+            freqs = new int[hashes.length];
+            m.values.duplicate().get(freqs);
+        } else {
+            hashes = index.m_map.keys();
+            Arrays.sort(hashes);
+            freqs = new int[hashes.length];
+            for (int i = 0; i < hashes.length; i++) {
+                freqs[i] = index.m_map.get(hashes[i]);
+            }
+        }
+        FileOutputStream fos = new FileOutputStream(f);
+        CRC32 crc = new CRC32();
+        try {
+            DataOutputStream header = new DataOutputStream(new BufferedOutputStream(fos));
+            header.writeInt(Magic);
+            header.writeInt(MappedVersion);
+            header.writeInt(index.getDocFrequency());
+            header.writeInt(hashes.length);
+            header.writeLong(index.getAccumulativeDocLength());
+            header.writeLong(0); // checksum, patched below
+            // offset, plus three utf strings
+            String desc = nonNull(index.getDescription());
+            String query = nonNull(index.getQueryString());
+            String date = nonNull(index.getCreationDate());
+            int utfBytes = utfLength(desc) + utfLength(query) + utfLength(date);
+            int bodyOffset = ChecksumOffset + 8 + 4 + utfBytes;
+            int pad = (8 - (bodyOffset & 7)) & 7;
+            bodyOffset += pad;
+            header.writeInt(bodyOffset);
+            header.writeUTF(desc);
+            header.writeUTF(query);
+            header.writeUTF(date);
+            for (int i = 0; i < pad; i++) {
+                header.writeByte(0);
+            }
+            header.flush();
+
+            DataOutputStream body = new DataOutputStream(new BufferedOutputStream(new CheckedOutputStream(fos, crc), 1 << 16));
+            for (long h : hashes) {
+                body.writeLong(h);
+            }
+            for (int v : freqs) {
+                body.writeInt(v);
+            }
+            body.flush();
+        } finally {
+            fos.close();
+        }
+        RandomAccessFile raf = new RandomAccessFile(f, "rw");
+        try {
+            raf.seek(ChecksumOffset);
+            raf.writeLong(crc.getValue());
+        } finally {
+            raf.close();
+        }
+        // the one time the body is checksummed, loads open without verifying so they touch no more pages than needed
+        open(f, true);
+    }
+
+    private static int utfLength(String s) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(s.length() + 2);
+        new DataOutputStream(bos).writeUTF(s);
+        return bos.size();
+    }
+
+    /**
+     * Convert an index in the original stream format into the mapped format.
+     *
+     * @param legacy
+     * @param mapped
+     * @return false if the legacy file could not be read
+     * @throws IOException
+     */
+    public static boolean convert(File legacy, File mapped) throws IOException {
+        DFIndex index = new DFIndex(0);
+        if (!index.read(legacy)) {
+            Log.util.error("Unable to read df index %s for conversion", legacy.getAbsolutePath());
+            return false;
+        }
+        write(index, mapped);
+        return true;
+    }
+}
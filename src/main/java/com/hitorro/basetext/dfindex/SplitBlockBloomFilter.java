@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) 2006-2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.hitorro.basetext.dfindex;
+
+import gnu.trove.iterator.TLongIntIterator;
+import gnu.trove.map.hash.TLongIntHashMap;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Split block bloom filter over 64 bit fingerprints, used to turn away the common case of a fingerprint that is not
+ * in a df/phrase index before probing its hash map.
+ * <p/>
+ * Each key maps to one 256 bit block (8 ints, a cache line on most hardware) and sets one bit in each of the 8 words,
+ * so a lookup touches a single line.  At the default 10 bits per key the false positive rate is a little over 1%.
+ */
+public final class SplitBlockBloomFilter {
+    public static final int DefaultBitsPerKey = 10;
+    private static final short Version = 2;
+    private static final int WordsPerBlock = 8;
+    private static final int Salt[] = {
+            0x47b6137b, 0x44974d91, 0x8824ad5b, 0xa2b7289d,
+            0x705495c7, 0x2df1424b, 0x9efc4947, 0x5c6bfb31
+    };
+
+    private final int words[];
+    private final int blockCount;
+    private int keyCount;
+    private long keyChecksum;
+
+    public SplitBlockBloomFilter(int expectedKeys) {
+        this(expectedKeys, DefaultBitsPerKey);
+    }
+
+    public SplitBlockBloomFilter(int expectedKeys, int bitsPerKey) {
+        long bits = Math.max(1, (long) expectedKeys) * Math.max(1, bitsPerKey);
+        long blocks = (bits + 255) >>> 8;
+        blockCount = (int) Math.min(blocks, Integer.MAX_VALUE / WordsPerBlock);
+        words = new int[blockCount * WordsPerBlock];
+    }
+
+    private SplitBlockBloomFilter(int words[], int keyCount, long keyChecksum) {
+        this.words = words;
+        this.blockCount = words.length / WordsPerBlock;
+        this.keyCount = keyCount;
+        this.keyChecksum = keyChecksum;
+    }
+
+    /**
+     * Build a filter holding every key of the map.
+     *
+     * @param map
+     * @return
+     */
+    public static SplitBlockBloomFilter fromKeys(TLongIntHashMap map) {
+        SplitBlockBloomFilter f = new SplitBlockBloomFilter(map.size());
+        for (TLongIntIterator it = map.iterator(); it.hasNext(); ) {
+            it.advance();
+            f.add(it.key());
+        }
+        return f;
+    }
+
+    /**
+     * Order independent checksum of a key set, the same value {@link #getKeyChecksum()} reaches when each of the keys
+     * is added once.
+     *
+     * @param map
+     * @return
+     */
+    public static long checksum(TLongIntHashMap map) {
+        long sum = 0;
+        for (TLongIntIterator it = map.iterator(); it.hasNext(); ) {
+            it.advance();
+            sum += checksumOf(it.key());
+        }
+        return sum;
+    }
+
+    private static long checksumOf(long fp) {
+        long h = (fp ^ (fp >>> 31)) * 0x9e3779b97f4a7c15L;
+        return h ^ (h >>> 29);
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * Add a key, each key is expected to be added once so the checksum stays a function of the key set.
+     *
+     * @param fp
+     */
+    public void add(long fp) {
+        long h = mix(fp);
+        int base = block(h);
+        int key = (int) h;
+        for (int i = 0; i < WordsPerBlock; i++) {
+            words[base + i] |= 1 << ((key * Salt[i]) >>> 27);
+        }
+        keyCount++;
+        keyChecksum += checksumOf(fp);
+    }
+
+    /**
+     * @param fp
+     * @return false if the key was definitely never added
+     */
+    public boolean mightContain(long fp) {
+        long h = mix(fp);
+        int base = block(h);
+        int key = (int) h;
+        for (int i = 0; i < WordsPerBlock; i++) {
+            if ((words[base + i] & (1 << ((key * Salt[i]) >>> 27))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int block(long h) {
+        return (int) (((h >>> 32) * blockCount) >>> 32) * WordsPerBlock;
+    }
+
+    /**
+     * @return number of add calls, used to check a persisted filter still matches its index
+     */
+    public int getKeyCount() {
+        return keyCount;
+    }
+
+    /**
+     * @return sum of the key checksums, compared with {@link #checksum(TLongIntHashMap)} of an index's keys to tell if
+     * a persisted filter was built from them
+     */
+    public long getKeyChecksum() {
+        return keyChecksum;
+    }
+
+    public int getBlockCount() {
+        return blockCount;
+    }
+
+    public long sizeInBytes() {
+        return (long) words.length * 4;
+    }
+
+    public void write(DataOutputStream dos) throws IOException {
+        dos.writeShort(Version);
+        dos.writeInt(keyCount);
+        dos.writeLong(keyChecksum);
+        dos.writeInt(words.length);
+        for (int w : words) {
+            dos.writeInt(w);
+        }
+        dos.flush();
+    }
+
+    /**
+     * @param dis
+     * @return the filter, or null if the stream holds some other version
+     * @throws IOException
+     */
+    public static SplitBlockBloomFilter read(DataInputStream dis) throws IOException {
+        if (dis.readShort() != Version) {
+            return null;
+        }
+        int keys = dis.readInt();
+        long checksum = dis.readLong();
+        int len = dis.readInt();
+        int words[] = new int[len];
+        for (int i = 0; i < len; i++) {
+            words[i] = dis.readInt();
+        }
+        return new SplitBlockBloomFilter(words, keys, checksum);
+    }
+}
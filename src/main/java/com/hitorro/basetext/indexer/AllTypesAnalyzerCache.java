@@ -22,12 +22,14 @@
 package com.hitorro.basetext.indexer;
 
 import com.hitorro.language.IsoLanguage;
+import com.hitorro.obj.core.TypeAnalyzerRegistry;
 import com.hitorro.util.core.events.cache.HashCache;
 import com.hitorro.util.core.iterator.mappers.BaseMapper;
 import com.hitorro.util.core.opers.AlwaysTrueOperator;
 import com.hitorro.util.typesystem.Type;
 import com.hitorro.util.typesystem.TypeField;
 import com.hitorro.util.typesystem.TypeFieldIntf;
+import com.hitorro.util.typesystem.TypeIntf;
 import com.hitorro.util.typesystem.TypeManager;
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.miscellaneous.PerFieldAnalyzerWrapper;
@@ -38,13 +40,16 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 
 /**
+ * Per language analyzer over the full text fields of every type, the caches' lookups are served by the lock free
+ * {@link TypeAnalyzerRegistry#getAllTypes(IsoLanguage, boolean)}.
  */
 public class AllTypesAnalyzerCache extends BaseMapper<IsoLanguage, Analyzer> {
     public static final String EventName = "AllTypesAnalyzerCache";
-    private static final HashCache<IsoLanguage, Analyzer> s_cache = new HashCache<>(EventName, new AllTypesAnalyzerCache(true));
-    private static final HashCache<IsoLanguage, Analyzer> s_indexcache = new HashCache<>(EventName, new AllTypesAnalyzerCache(false));
+    private static final HashCache<IsoLanguage, Analyzer> s_cache = registryCache(true);
+    private static final HashCache<IsoLanguage, Analyzer> s_indexcache = registryCache(false);
     protected static PerFieldAnalyzerWrapper flyweight = new PerFieldAnalyzerWrapper(new StandardAnalyzer());
     protected boolean search = true;
 
@@ -52,6 +57,17 @@ public class AllTypesAnalyzerCache extends BaseMapper<IsoLanguage, Analyzer> {
         this.search = search;
     }
 
+    private static HashCache<IsoLanguage, Analyzer> registryCache(final boolean search) {
+        return new HashCache<IsoLanguage, Analyzer>(EventName, new AllTypesAnalyzerCache(search)) {
+            public Analyzer get(IsoLanguage key) {
+                if (key == null) {
+                    return super.get(key);
+                }
+                return TypeAnalyzerRegistry.getRegistry().getAllTypes(key, search);
+            }
+        };
+    }
+
     public static final HashCache<IsoLanguage, Analyzer> getCache(boolean search) {
         if (search) {
             return s_cache;
@@ -65,11 +81,20 @@ public class AllTypesAnalyzerCache extends BaseMapper<IsoLanguage, Analyzer> {
     }
 
     public Analyzer apply(IsoLanguage language) {
+        return apply(language, t -> TypeFieldsCache.getCache().get(t));
+    }
+
+    /**
+     * @param language
+     * @param typeFields source of the full text fields of a type
+     * @return
+     */
+    public Analyzer apply(IsoLanguage language, Function<TypeIntf, List<TypeFieldIntf>> typeFields) {
         List<Type> types = TypeManager.getTypeManager().getTypesMatchingConstraint(new AlwaysTrueOperator());
 
         Set<TypeFieldIntf> set = new HashSet();
         for (Type t : types) {
-            List<TypeFieldIntf> list = TypeFieldsCache.getCache().get(t);
+            List<TypeFieldIntf> list = typeFields.apply(t);
             if (list != null) {
                 for (TypeFieldIntf tf : list) {
                     set.add(tf);
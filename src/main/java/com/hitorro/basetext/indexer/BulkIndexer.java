@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2006-2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.hitorro.basetext.indexer;
+
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexableField;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Feed a shared IndexWriter from several threads.  IndexWriter is thread safe and inverts documents on the calling
+ * thread, so n workers pulling from one source gives roughly n times the single threaded feed.  Each worker builds
+ * its documents through its own {@link ReusableFields} and document list, both reused for every document.
+ */
+public class BulkIndexer<T> {
+    /**
+     * Turns a source item into the fields of one document.
+     */
+    public interface DocumentBuilder<T> {
+        /**
+         * @param item   the source item
+         * @param fields the worker's reusable fields, already reset for this document
+         * @param doc    the (cleared) field list to add to
+         * @return false to skip the item
+         */
+        boolean build(T item, ReusableFields fields, List<IndexableField> doc) throws IOException;
+    }
+
+    private final IndexWriter writer;
+    private final DocumentBuilder<T> builder;
+    private final int threads;
+    private final LongAdder indexed = new LongAdder();
+
+    public BulkIndexer(IndexWriter writer, DocumentBuilder<T> builder, int threads) {
+        this.writer = writer;
+        this.builder = builder;
+        this.threads = Math.max(1, threads);
+    }
+
+    public BulkIndexer(IndexWriter writer, DocumentBuilder<T> builder) {
+        this(writer, builder, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Index every item the iterator returns, blocking until done.  The iterator is only accessed under a lock.
+     *
+     * @param items
+     * @return number of documents added
+     * @throws IOException the first failure seen, remaining workers stop
+     */
+    public long index(final Iterator<T> items) throws IOException {
+        long start = indexed.sum();
+        final AtomicBoolean failed = new AtomicBoolean();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<CompletableFuture<Void>> futures = new ArrayList<CompletableFuture<Void>>(threads);
+            for (int i = 0; i < threads; i++) {
+                futures.add(CompletableFuture.runAsync(() -> work(items, failed), executor));
+            }
+            try {
+                for (CompletableFuture<Void> f : futures) {
+                    f.join();
+                }
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof UncheckedIOException) {
+                    throw ((UncheckedIOException) e.getCause()).getCause();
+                }
+                throw e;
+            }
+        } finally {
+            executor.shutdown();
+        }
+        return indexed.sum() - start;
+    }
+
+    private void work(Iterator<T> items, AtomicBoolean failed) {
+        ReusableFields fields = new ReusableFields();
+        List<IndexableField> doc = new ArrayList<IndexableField>();
+        try {
+            while (!failed.get()) {
+                T item;
+                synchronized (items) {
+                    if (!items.hasNext()) {
+                        return;
+                    }
+                    item = items.next();
+                }
+                fields.reset();
+                doc.clear();
+                if (builder.build(item, fields, doc)) {
+                    writer.addDocument(doc);
+                    indexed.increment();
+                }
+            }
+        } catch (IOException e) {
+            failed.set(true);
+            Log.indexer.error("Bulk indexing failed %s %e", e, e);
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            failed.set(true);
+            throw e;
+        }
+    }
+
+    public long getIndexedCount() {
+        return indexed.sum();
+    }
+}
@@ -21,27 +21,47 @@
  */
 package com.hitorro.basetext.indexer;
 
+import com.hitorro.basetext.indexer.collector.meta.Ids;
 import com.hitorro.language.IsoLanguage;
 import org.apache.lucene.document.DateTools;
 import org.apache.lucene.document.Field;
+import org.apache.lucene.document.FieldType;
+import org.apache.lucene.document.SortedNumericDocValuesField;
 import org.apache.lucene.index.DocValuesType;
 import org.apache.lucene.index.IndexOptions;
 import org.apache.lucene.index.IndexableField;
-import org.apache.lucene.index.IndexableFieldType;
-import org.apache.lucene.index.VectorEncoding;
-import org.apache.lucene.index.VectorSimilarityFunction;
 
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 /**
  * <p/>
+ * Field types only depend on the indexed/stored/literal flags of the type field so the eight combinations are built
+ * and frozen once.  Callers indexing many documents on a thread can pass a {@link ReusableFields} (as
+ * {@link BulkIndexer} does) so Field instances are reused from document to document.
+ * <p/>
+ * Date fields and numeric id fields ({@link Ids}) also get SORTED_NUMERIC doc values so results can be read without
+ * stored fields, dates as hours since the epoch ({@link #IndexingDateResolution}).
  */
 public class IndexerFieldAdapter {
     public static final String DEFAULT_SEARCH_FIELD = "content";
     public static final DateTools.Resolution IndexingDateResolution = DateTools.Resolution.HOUR;
 
+    private static final FieldType s_fieldTypes[] = new FieldType[8];
+    private static final Set<String> s_idFields = new HashSet<String>();
+
+    static {
+        for (int i = 0; i < s_fieldTypes.length; i++) {
+            s_fieldTypes[i] = createFieldType((i & 1) != 0, (i & 2) != 0, (i & 4) != 0);
+        }
+        for (Ids id : Ids.values()) {
+            s_idFields.add(id.getLuceneFieldName());
+        }
+    }
+
     public static final Field.Store getStore(boolean stored) {
         if (stored) {
             return Field.Store.YES;
@@ -49,23 +69,51 @@ public class IndexerFieldAdapter {
         return Field.Store.NO;
     }
 
-    public static final IFT getIndexEnum(boolean indexed, boolean stored, boolean literal) {
-        IFT ift = new IFT();
-        if (!literal) {
-            ift.setTokenized();
-        }
-        if (stored) {
-            ift.setStored();
-        }
-        if (indexed) {
+    private static FieldType createFieldType(boolean indexed, boolean stored, boolean literal) {
+        FieldType ft = new FieldType();
+        ft.setStored(stored);
+        ft.setTokenized(!literal);
+        ft.setIndexOptions(indexed ? IndexOptions.DOCS_AND_FREQS_AND_POSITIONS_AND_OFFSETS : IndexOptions.NONE);
+        ft.setDocValuesType(DocValuesType.NONE);
+        ft.freeze();
+        return ft;
+    }
 
-            ift.setIndexDoc();
-        }
-        return ift;
+    /**
+     * Get the shared frozen field type for the flags.
+     *
+     * @param indexed
+     * @param stored
+     * @param literal not tokenized
+     * @return
+     */
+    public static final FieldType getFieldType(boolean indexed, boolean stored, boolean literal) {
+        return s_fieldTypes[(indexed ? 1 : 0) | (stored ? 2 : 0) | (literal ? 4 : 0)];
+    }
+
+    public static final FieldType getIndexEnum(boolean indexed, boolean stored, boolean literal) {
+        return getFieldType(indexed, stored, literal);
+    }
+
+    /**
+     * @param date
+     * @return the doc value a date is indexed with, hours since the epoch
+     */
+    public static long getDateDocValue(Date date) {
+        return TimeUnit.MILLISECONDS.toHours(date.getTime());
     }
 
     public void index(boolean isDate, Object valueRaw, boolean stored, boolean indexed, List<IndexableField> addMe,
                       String field, boolean literal, boolean addToDefaultField, IsoLanguage language) {
+        index(isDate, valueRaw, stored, indexed, addMe, field, literal, addToDefaultField, language, null);
+    }
+
+    /**
+     * @param reuse fields to reuse for this document, null to allocate new fields.
+     */
+    public void index(boolean isDate, Object valueRaw, boolean stored, boolean indexed, List<IndexableField> addMe,
+                      String field, boolean literal, boolean addToDefaultField, IsoLanguage language,
+                      ReusableFields reuse) {
         String value;
         if (isDate) {
             value = DateTools.dateToString((Date) valueRaw, IndexingDateResolution);
@@ -74,122 +122,32 @@ public class IndexerFieldAdapter {
         }
 
         if (stored || indexed) {
-            //TODO Update
-            addMe.add(new Field(field, value,
-                    getIndexEnum(indexed, stored, literal)));
+            addMe.add(getField(reuse, field, value, getFieldType(indexed, stored, literal)));
         }
 
         if (addToDefaultField) {
-
-            //TODO Update
-            addMe.add(new Field(DEFAULT_SEARCH_FIELD,
-                    value, getIndexEnum(true, false, false)));
+            addMe.add(getField(reuse, DEFAULT_SEARCH_FIELD, value, getFieldType(true, false, false)));
         }
-    }
-
-}
-
-class IFT implements IndexableFieldType {
-    private boolean stored;
-    private boolean tokenized;
-    private IndexOptions io = IndexOptions.NONE;
-
-    public void setStored() {
-        stored = true;
-    }
-
-    public void setTokenized() {
-        tokenized = true;
-    }
-
-    public void setIndexDoc() {
-        io = IndexOptions.DOCS_AND_FREQS_AND_POSITIONS_AND_OFFSETS;
-    }
-
-    @Override
-    public boolean stored() {
-        return stored;
-    }
-
-    @Override
-    public boolean tokenized() {
-        return false;
-    }
-
-    @Override
-    public boolean storeTermVectors() {
-        return false;
-    }
-
-    @Override
-    public boolean storeTermVectorOffsets() {
-        return false;
-    }
-
-    @Override
-    public boolean storeTermVectorPositions() {
-        return false;
-    }
-
-    @Override
-    public boolean storeTermVectorPayloads() {
-        return false;
-    }
-
-    @Override
-    public boolean omitNorms() {
-        return false;
-    }
-
-    @Override
-    public IndexOptions indexOptions() {
-        return io;
-    }
-
-    @Override
-    public DocValuesType docValuesType() {
-        return null;
-    }
-
-    @Override
-    public int pointDimensionCount() {
-        return 0;
-    }
-
-
-    public int pointDataDimensionCount() {
-        return 0;
-    }
-
-    @Override
-    public int pointIndexDimensionCount() {
-        return 0;
-    }
-
-
-    @Override
-    public int pointNumBytes() {
-        return 0;
-    }
-
-    @Override
-    public int vectorDimension() {
-        return 0;
-    }
 
-    @Override
-    public VectorEncoding vectorEncoding() {
-        return null;
+        if (isDate) {
+            addMe.add(getDocValuesField(reuse, field, getDateDocValue((Date) valueRaw)));
+        } else if (valueRaw instanceof Number && s_idFields.contains(field)) {
+            addMe.add(getDocValuesField(reuse, field, ((Number) valueRaw).longValue()));
+        }
     }
 
-    @Override
-    public VectorSimilarityFunction vectorSimilarityFunction() {
-        return null;
+    private static Field getField(ReusableFields reuse, String field, String value, FieldType ft) {
+        if (reuse == null) {
+            return new Field(field, value, ft);
+        }
+        return reuse.get(field, value, ft);
     }
 
-    @Override
-    public Map<String, String> getAttributes() {
-        return null;
+    private static Field getDocValuesField(ReusableFields reuse, String field, long value) {
+        if (reuse == null) {
+            return new SortedNumericDocValuesField(field, value);
+        }
+        return reuse.getDocValues(field, value);
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2006-2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.hitorro.basetext.indexer;
+
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.FieldType;
+import org.apache.lucene.document.SortedNumericDocValuesField;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Field instances reused across documents on one thread.  A document may hold the same field name several times so
+ * fields are kept per name in occurrence order; {@link #reset()} starts a new document and the n'th use of a name hands
+ * back the n'th field with its value replaced.
+ * <p/>
+ * The fields handed out belong to the current document only, the document must be fully consumed (IndexWriter
+ * addDocument returned) before reset is called.  Not thread safe.
+ */
+public class ReusableFields {
+    private final HashMap<String, Slot> m_slots = new HashMap<String, Slot>();
+    private final HashMap<String, Slot> m_docValueSlots = new HashMap<String, Slot>();
+    private final List<Slot> m_used = new ArrayList<Slot>();
+
+    /**
+     * Start a new document.
+     */
+    public void reset() {
+        for (int i = 0; i < m_used.size(); i++) {
+            m_used.get(i).used = 0;
+        }
+        m_used.clear();
+    }
+
+    public Field get(String name, String value, FieldType ft) {
+        Slot slot = getSlot(m_slots, name);
+        Field f;
+        if (slot.used < slot.fields.size()) {
+            f = slot.fields.get(slot.used);
+            if (f.fieldType() == ft) {
+                f.setStringValue(value);
+            } else {
+                f = new Field(name, value, ft);
+                slot.fields.set(slot.used, f);
+            }
+        } else {
+            f = new Field(name, value, ft);
+            slot.fields.add(f);
+        }
+        slot.used++;
+        return f;
+    }
+
+    /**
+     * Same as {@link #get(String, String, FieldType)} for a SORTED_NUMERIC doc values field, these are kept apart from
+     * the text fields of the same name.
+     */
+    public Field getDocValues(String name, long value) {
+        Slot slot = getSlot(m_docValueSlots, name);
+        Field f;
+        if (slot.used < slot.fields.size()) {
+            f = slot.fields.get(slot.used);
+            f.setLongValue(value);
+        } else {
+            f = new SortedNumericDocValuesField(name, value);
+            slot.fields.add(f);
+        }
+        slot.used++;
+        return f;
+    }
+
+    private Slot getSlot(HashMap<String, Slot> slots, String name) {
+        Slot slot = slots.get(name);
+        if (slot == null) {
+            slot = new Slot();
+            slots.put(name, slot);
+        }
+        if (slot.used == 0) {
+            m_used.add(slot);
+        }
+        return slot;
+    }
+
+    private static class Slot {
+        List<Field> fields = new ArrayList<Field>(1);
+        int used = 0;
+    }
+}
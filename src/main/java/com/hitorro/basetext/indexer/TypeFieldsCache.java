@@ -21,6 +21,7 @@
  */
 package com.hitorro.basetext.indexer;
 
+import com.hitorro.obj.core.TypeAnalyzerRegistry;
 import com.hitorro.util.core.events.cache.HashCache;
 import com.hitorro.util.core.iterator.mappers.BaseMapper;
 import com.hitorro.util.core.opers.HTPredicate;
@@ -32,11 +33,20 @@ import java.util.List;
 
 
 /**
+ * Lookups are served by the {@link TypeAnalyzerRegistry} snapshot so they are lock free and dropped by its
+ * invalidate, this mapper computes the entries.
  */
 public class TypeFieldsCache extends BaseMapper<TypeIntf, List<TypeFieldIntf>> {
     public static String EventName = "TypeFieldsCache";
 
-    private static final HashCache<TypeIntf, List<TypeFieldIntf>> s_cache = new HashCache<TypeIntf, List<TypeFieldIntf>>(EventName, new TypeFieldsCache());
+    private static final HashCache<TypeIntf, List<TypeFieldIntf>> s_cache = new HashCache<TypeIntf, List<TypeFieldIntf>>(EventName, new TypeFieldsCache()) {
+        public List<TypeFieldIntf> get(TypeIntf key) {
+            if (key == null) {
+                return super.get(key);
+            }
+            return TypeAnalyzerRegistry.getRegistry().getFields(key);
+        }
+    };
     public HTPredicate<TypeFieldIntf> indexConstraint = new IsFullTextable();
 
     public TypeFieldsCache() {
@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2006-2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.hitorro.basetext.indexer.collector.consuming;
+
+import com.hitorro.basetext.indexer.collector.Constants;
+import com.hitorro.basetext.indexer.collector.meta.ExtendedFieldDoc;
+import com.hitorro.basetext.indexer.collector.meta.Ids;
+import com.hitorro.basetext.indexer.collector.meta.ResultPayload;
+import org.apache.lucene.index.FieldInfo;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NumericDocValues;
+import org.apache.lucene.index.SortedDocValues;
+import org.apache.lucene.search.Scorable;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.SimpleCollector;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.SortedNumericSelector;
+import org.apache.lucene.util.BytesRef;
+
+import java.io.IOException;
+
+/**
+ * Collector that fills ResultPayloads (dates and Ids) straight from per segment doc values and hands them to a
+ * ResultConsumer in batches.  Stored fields are never touched.
+ * <p/>
+ * Dates are read from NUMERIC or SORTED_NUMERIC doc values (the smallest value of a document, IndexerFieldAdapter
+ * indexes dates as hours since the epoch), Ids from NUMERIC, SORTED_NUMERIC or from SORTED doc values holding the big
+ * endian bytes of the id.  Missing fields leave the value at 0.
+ * <p/>
+ * The ExtendedFieldDoc and ResultPayload slots are reused between batches, a consumer that keeps them must copy.
+ * The buffered results are flushed at the end of each segment (LeafCollector.finish) so a plain
+ * searcher.search(query, collector) delivers every hit; flush() may still be called and is then a no-op.  Not thread
+ * safe.
+ */
+public class DocValuesResultCollector extends SimpleCollector {
+    public static final int DefaultBatchSize = 256;
+
+    private final ResultConsumer consumer;
+    private final boolean needsScores;
+    private final ExtendedFieldDoc slots[];
+    private int fill = 0;
+    private long collected = 0;
+
+    private int docBase;
+    private Scorable scorer;
+    private NumericDocValues publishDate;
+    private NumericDocValues partitionDate;
+    private final Ids ids[] = Ids.values();
+    private final NumericDocValues numericIds[] = new NumericDocValues[ids.length];
+    private final SortedDocValues sortedIds[] = new SortedDocValues[ids.length];
+
+    public DocValuesResultCollector(ResultConsumer consumer) {
+        this(consumer, DefaultBatchSize, true);
+    }
+
+    public DocValuesResultCollector(ResultConsumer consumer, int batchSize, boolean needsScores) {
+        this.consumer = consumer;
+        this.needsScores = needsScores;
+        slots = new ExtendedFieldDoc[Math.max(1, batchSize)];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = new ExtendedFieldDoc(0, 0, new ResultPayload());
+        }
+    }
+
+    @Override
+    public ScoreMode scoreMode() {
+        return needsScores ? ScoreMode.COMPLETE : ScoreMode.COMPLETE_NO_SCORES;
+    }
+
+    @Override
+    public void setScorer(Scorable scorer) throws IOException {
+        this.scorer = scorer;
+    }
+
+    @Override
+    protected void doSetNextReader(LeafReaderContext context) throws IOException {
+        LeafReader reader = context.reader();
+        docBase = context.docBase;
+        publishDate = getNumeric(reader, Constants.PublishDate);
+        partitionDate = getNumeric(reader, Constants.PartitionDate);
+        for (int i = 0; i < ids.length; i++) {
+            String field = ids[i].getLuceneFieldName();
+            FieldInfo fi = reader.getFieldInfos().fieldInfo(field);
+            numericIds[i] = null;
+            sortedIds[i] = null;
+            if (fi == null) {
+                continue;
+            }
+            switch (fi.getDocValuesType()) {
+                case SORTED:
+                    sortedIds[i] = reader.getSortedDocValues(field);
+                    break;
+                default:
+                    numericIds[i] = getNumeric(reader, field);
+            }
+        }
+    }
+
+    private static NumericDocValues getNumeric(LeafReader reader, String field) throws IOException {
+        FieldInfo fi = reader.getFieldInfos().fieldInfo(field);
+        if (fi == null) {
+            return null;
+        }
+        switch (fi.getDocValuesType()) {
+            case NUMERIC:
+                return reader.getNumericDocValues(field);
+            case SORTED_NUMERIC:
+                return SortedNumericSelector.wrap(reader.getSortedNumericDocValues(field),
+                        SortedNumericSelector.Type.MIN, SortField.Type.LONG);
+            default:
+                return null;
+        }
+    }
+
+    private static long read(NumericDocValues dv, int doc) throws IOException {
+        if (dv != null && dv.advanceExact(doc)) {
+            return dv.longValue();
+        }
+        return 0;
+    }
+
+    private static long read(SortedDocValues dv, int doc, int width) throws IOException {
+        if (dv == null || !dv.advanceExact(doc)) {
+            return 0;
+        }
+        BytesRef br = dv.lookupOrd(dv.ordValue());
+        int len = Math.min(width, br.length);
+        long val = 0;
+        for (int i = 0; i < len; i++) {
+            val = (val << 8) | (br.bytes[br.offset + i] & 0xFF);
+        }
+        return val;
+    }
+
+    @Override
+    public void collect(int doc) throws IOException {
+        ExtendedFieldDoc fd = slots[fill];
+        ResultPayload payload = fd.payload;
+        payload.clear();
+        int globalDoc = docBase + doc;
+        float score = needsScores ? scorer.score() : 0;
+        fd.doc = globalDoc;
+        fd.score = score;
+        payload.docId = globalDoc;
+        payload.score = score;
+        payload.publicationDate = (int) read(publishDate, doc);
+        payload.partitionDate = (int) read(partitionDate, doc);
+        for (int i = 0; i < ids.length; i++) {
+            long val = sortedIds[i] != null ? read(sortedIds[i], doc, ids[i].getWidth()) : read(numericIds[i], doc);
+            payload.setId(ids[i], val);
+        }
+        collected++;
+        if (++fill == slots.length) {
+            flush();
+        }
+    }
+
+    /**
+     * End of the segment, deliver what is buffered.
+     */
+    @Override
+    public void finish() throws IOException {
+        flush();
+    }
+
+    /**
+     * Deliver any buffered results to the consumer.
+     */
+    public void flush() {
+        if (fill > 0) {
+            consumer.consume(slots, fill);
+            fill = 0;
+        }
+    }
+
+    public long getCollectedCount() {
+        return collected;
+    }
+}
@@ -33,10 +33,32 @@ public class ResultPayload {
     public int docId;
     long ids[];
 
-    ResultPayload() {
+    public ResultPayload() {
         ids = new long[Ids.values().length];
     }
 
+    public long getId(Ids id) {
+        return ids[id.ordinal()];
+    }
+
+    public void setId(Ids id, long val) {
+        ids[id.ordinal()] = val;
+    }
+
+    /**
+     * Reset so the payload can be reused for another hit.
+     */
+    public void clear() {
+        publicationDate = 0;
+        partitionDate = 0;
+        tfidf = 0;
+        score = 0;
+        docId = 0;
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = 0;
+        }
+    }
+
     public String toString() {
         StringBuilder sb = new StringBuilder();
         Console.bprint(sb, "partitiondate:%s tfidf: %s, docId: %s", partitionDate, tfidf, docId);
@@ -0,0 +1,779 @@
+/*
+ * Copyright (c) 2006-2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.hitorro.basetext.inverter;
+
+import com.hitorro.basetext.dfindex.DFIndex;
+import com.hitorro.basetext.inverter.vector.TermKernels;
+import com.hitorro.util.core.hash.FPHash64;
+import com.hitorro.util.core.math.SparseVector;
+import gnu.trove.map.hash.TLongIntHashMap;
+import org.apache.lucene.util.IntroSorter;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Struct of arrays form of a {@link TermTupleSet}.  Rather than a list of {@link TermTuple} objects the hash, tf,
+ * measure and df of every term live in parallel primitive arrays, and the term text lives in a single char arena
+ * that is only turned into Strings when a caller asks for one.
+ * <p/>
+ * Sorting permutes the columns in place with an introsort on the primitive keys, so there are no comparators, boxed
+ * tuples or pointer chasing on the merge, match and diff paths.  Terms that the measure function rejects are stored
+ * with a measure of {@link Double#NEGATIVE_INFINITY}.
+ */
+public class ColumnarTermTupleSet {
+    public static final int DefaultCapacity = 16;
+
+    public enum Order {
+        None, HashAscend, MeasureDescend
+    }
+
+    private long hash[];
+    private int tf[];
+    private double termMeasure[];
+    private int df[];
+    private int termStart[];
+    private int termLength[];
+    private char termChars[];
+    private int charFill = 0;
+    // materialized lazily, the arena is the source of truth.
+    private String terms[];
+    private int size = 0;
+
+    private int wordCount = 0;
+    private String sectionName;
+    private String id;
+    private Order order = Order.None;
+    private TermMeasureFunction previousFunc = null;
+    // measures may come from a function here or from the tuples a set was copied from
+    private boolean measured = false;
+
+    public ColumnarTermTupleSet() {
+        this(DefaultCapacity);
+    }
+
+    public ColumnarTermTupleSet(int capacity) {
+        if (capacity < 1) {
+            capacity = 1;
+        }
+        hash = new long[capacity];
+        tf = new int[capacity];
+        termMeasure = new double[capacity];
+        df = new int[capacity];
+        termStart = new int[capacity];
+        termLength = new int[capacity];
+        termChars = new char[capacity * 8];
+    }
+
+    /**
+     * Copy a tuple based set into columnar form.
+     *
+     * @param set
+     * @return
+     */
+    public static ColumnarTermTupleSet from(TermTupleSet<? extends TermTuple> set) {
+        List<? extends TermTuple> l = set.getTuplesList();
+        int len = l.size();
+        ColumnarTermTupleSet c = new ColumnarTermTupleSet(len);
+        c.setSectionName(set.getSectionName());
+        c.setId(set.getId());
+        c.setWordCount(set.getWordCount());
+        for (int i = 0; i < len; i++) {
+            TermTuple tt = l.get(i);
+            int row = c.add(tt.m_hash, tt.tf, tt.m_term);
+            if (tt.isTermMeasure) {
+                c.measured = true;
+                c.termMeasure[row] = tt.isGood() ? tt.termMeasure : Double.NEGATIVE_INFINITY;
+                c.df[row] = (int) tt.m_df;
+            }
+        }
+        return c;
+    }
+
+    /**
+     * Expand back into a tuple based set, the tuples keep the hashes held here so no term is rehashed.
+     *
+     * @return
+     */
+    public TermTupleSet<TermTuple> toTermTupleSet() {
+        TermTupleSet<TermTuple> set = new TermTupleSet<TermTuple>();
+        set.setSectionName(sectionName);
+        set.setId(id);
+        set.setWordCount(wordCount);
+        for (int i = 0; i < size; i++) {
+            TermTuple tt = new TermTuple();
+            tt.set(getTerm(i), hash[i], tf[i]);
+            tt.normalizeTF(wordCount);
+            if (measured) {
+                if (termMeasure[i] == Double.NEGATIVE_INFINITY) {
+                    tt.isGoodValue = false;
+                    tt.setTermMeasure(-Double.MAX_VALUE);
+                } else {
+                    tt.setTermMeasure(termMeasure[i]);
+                }
+                tt.setDF(df[i]);
+            }
+            set.add(tt);
+        }
+        return set;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getSectionName() {
+        return sectionName;
+    }
+
+    public void setSectionName(String name) {
+        sectionName = name;
+    }
+
+    /**
+     * Get the amount of words in this section of text.
+     *
+     * @return
+     */
+    public int getWordCount() {
+        return wordCount;
+    }
+
+    public void setWordCount(int wordCount) {
+        this.wordCount = wordCount;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public Order getOrder() {
+        return order;
+    }
+
+    /**
+     * Record that rows were added already in this order.
+     *
+     * @param o
+     */
+    void setOrder(Order o) {
+        order = o;
+    }
+
+    /**
+     * Add a term given as a String, the term is hashed.
+     *
+     * @param term
+     * @param tf
+     * @return the row the term was placed in
+     */
+    public int add(String term, int tf) {
+        return add(FPHash64.getFP(term), tf, term);
+    }
+
+    /**
+     * Add a term whose hash is already known.
+     *
+     * @param hash
+     * @param tf
+     * @param term may be null
+     * @return the row the term was placed in
+     */
+    public int add(long hash, int tf, String term) {
+        int row = addRow(hash, tf);
+        if (term != null) {
+            int len = term.length();
+            ensureChars(len);
+            term.getChars(0, len, termChars, charFill);
+            setTermSpan(row, len);
+            if (terms == null) {
+                terms = new String[this.hash.length];
+            }
+            terms[row] = term;
+        }
+        return row;
+    }
+
+    /**
+     * Add a term whose text is held in a char buffer, the chars are copied into the arena.
+     *
+     * @param hash
+     * @param tf
+     * @param buf
+     * @param offset
+     * @param length
+     * @return the row the term was placed in
+     */
+    public int add(long hash, int tf, char buf[], int offset, int length) {
+        int row = addRow(hash, tf);
+        ensureChars(length);
+        System.arraycopy(buf, offset, termChars, charFill, length);
+        setTermSpan(row, length);
+        return row;
+    }
+
+    private int addRow(long h, int f) {
+        if (size == hash.length) {
+            grow(size + 1);
+        }
+        int row = size++;
+        hash[row] = h;
+        tf[row] = f;
+        termMeasure[row] = 0;
+        df[row] = 0;
+        termStart[row] = charFill;
+        termLength[row] = 0;
+        order = Order.None;
+        return row;
+    }
+
+    private void setTermSpan(int row, int len) {
+        termStart[row] = charFill;
+        termLength[row] = len;
+        charFill += len;
+    }
+
+    /**
+     * Copy a row of another set into this one with the supplied tf, term text is copied from the other arena.
+     */
+    private int addFrom(ColumnarTermTupleSet other, int row, int f) {
+        int r;
+        if (other.terms != null && other.terms[row] != null) {
+            r = add(other.hash[row], f, other.terms[row]);
+        } else {
+            r = add(other.hash[row], f, other.termChars, other.termStart[row], other.termLength[row]);
+        }
+        return r;
+    }
+
+    private void grow(int minCapacity) {
+        int cap = Math.max(minCapacity, hash.length + (hash.length >> 1) + 1);
+        hash = Arrays.copyOf(hash, cap);
+        tf = Arrays.copyOf(tf, cap);
+        termMeasure = Arrays.copyOf(termMeasure, cap);
+        df = Arrays.copyOf(df, cap);
+        termStart = Arrays.copyOf(termStart, cap);
+        termLength = Arrays.copyOf(termLength, cap);
+        if (terms != null) {
+            terms = Arrays.copyOf(terms, cap);
+        }
+    }
+
+    private void ensureChars(int extra) {
+        int need = charFill + extra;
+        if (need > termChars.length) {
+            termChars = Arrays.copyOf(termChars, Math.max(need, termChars.length << 1));
+        }
+    }
+
+    public long getHash(int row) {
+        return hash[row];
+    }
+
+    public int getTF(int row) {
+        return tf[row];
+    }
+
+    public double getNormalizedTF(int row) {
+        return ((double) tf[row] / wordCount) * TermTuple.TFMultFactor;
+    }
+
+    public double getMeasure(int row) {
+        return termMeasure[row];
+    }
+
+    public void setMeasure(int row, double measure) {
+        measured = true;
+        termMeasure[row] = measure;
+        if (order == Order.MeasureDescend) {
+            order = Order.None;
+        }
+    }
+
+    public int getDF(int row) {
+        return df[row];
+    }
+
+    public void setDF(int row, int value) {
+        df[row] = value;
+    }
+
+    public boolean isGood(int row) {
+        return termMeasure[row] != Double.NEGATIVE_INFINITY;
+    }
+
+    /**
+     * Get the term text for a row, the String is created on first request and remembered.
+     *
+     * @param row
+     * @return
+     */
+    public String getTerm(int row) {
+        if (terms == null) {
+            terms = new String[hash.length];
+        }
+        String s = terms[row];
+        if (s == null) {
+            s = new String(termChars, termStart[row], termLength[row]);
+            terms[row] = s;
+        }
+        return s;
+    }
+
+    /**
+     * The term arena, use with {@link #getTermStart(int)} and {@link #getTermLength(int)} to read a term without
+     * creating a String.
+     *
+     * @return
+     */
+    public char[] getTermChars() {
+        return termChars;
+    }
+
+    public int getTermStart(int row) {
+        return termStart[row];
+    }
+
+    public int getTermLength(int row) {
+        return termLength[row];
+    }
+
+    /**
+     * The backing hash column, only the first {@link #size()} entries are valid.
+     *
+     * @return
+     */
+    public long[] getHashColumn() {
+        return hash;
+    }
+
+    /**
+     * The backing tf column, only the first {@link #size()} entries are valid.
+     *
+     * @return
+     */
+    public int[] getTFColumn() {
+        return tf;
+    }
+
+    /**
+     * The backing measure column, only the first {@link #size()} entries are valid.
+     *
+     * @return
+     */
+    public double[] getMeasureColumn() {
+        return termMeasure;
+    }
+
+    /**
+     * The backing df column, only the first {@link #size()} entries are valid.
+     *
+     * @return
+     */
+    public int[] getDFColumn() {
+        return df;
+    }
+
+    public void sortByHashAscend() {
+        sortIfNotAlreadySorted(Order.HashAscend);
+    }
+
+    public void sortByMeasureDescend() {
+        sortIfNotAlreadySorted(Order.MeasureDescend);
+    }
+
+    public boolean sortIfNotAlreadySorted(Order o) {
+        if (o == order || o == Order.None) {
+            return false;
+        }
+        new ColumnSorter(o == Order.HashAscend).sort(0, size);
+        order = o;
+        return true;
+    }
+
+    private void swapRows(int i, int j) {
+        long h = hash[i];
+        hash[i] = hash[j];
+        hash[j] = h;
+        int t = tf[i];
+        tf[i] = tf[j];
+        tf[j] = t;
+        double m = termMeasure[i];
+        termMeasure[i] = termMeasure[j];
+        termMeasure[j] = m;
+        t = df[i];
+        df[i] = df[j];
+        df[j] = t;
+        t = termStart[i];
+        termStart[i] = termStart[j];
+        termStart[j] = t;
+        t = termLength[i];
+        termLength[i] = termLength[j];
+        termLength[j] = t;
+        if (terms != null) {
+            String s = terms[i];
+            terms[i] = terms[j];
+            terms[j] = s;
+        }
+    }
+
+    private void moveRow(int from, int to) {
+        hash[to] = hash[from];
+        tf[to] = tf[from];
+        termMeasure[to] = termMeasure[from];
+        df[to] = df[from];
+        termStart[to] = termStart[from];
+        termLength[to] = termLength[from];
+        if (terms != null) {
+            terms[to] = terms[from];
+        }
+    }
+
+    /**
+     * Introsort over the columns keyed either on ascending hash or descending measure.
+     */
+    private final class ColumnSorter extends IntroSorter {
+        private final boolean byHash;
+        private long pivotHash;
+        private double pivotMeasure;
+
+        ColumnSorter(boolean byHash) {
+            this.byHash = byHash;
+        }
+
+        @Override
+        protected void swap(int i, int j) {
+            swapRows(i, j);
+        }
+
+        @Override
+        protected int compare(int i, int j) {
+            if (byHash) {
+                return Long.compare(hash[i], hash[j]);
+            }
+            return Double.compare(termMeasure[j], termMeasure[i]);
+        }
+
+        @Override
+        protected void setPivot(int i) {
+            pivotHash = hash[i];
+            pivotMeasure = termMeasure[i];
+        }
+
+        @Override
+        protected int comparePivot(int j) {
+            if (byHash) {
+                return Long.compare(pivotHash, hash[j]);
+            }
+            return Double.compare(termMeasure[j], pivotMeasure);
+        }
+    }
+
+    public boolean computeTermMeasureIfNotAlready(TermMeasureFunction func) {
+        if (func == previousFunc) {
+            return false;
+        }
+        computeTermMeasure(func);
+        return true;
+    }
+
+    /**
+     * Compute the measure of every row.  A single scratch tuple is reused for the calls into the function, the term
+     * text is only handed to the function when it has already been materialized.
+     *
+     * @param func
+     */
+    public void computeTermMeasure(TermMeasureFunction func) {
+        previousFunc = func;
+        measured = true;
+        if (func.getClass() == TFIDFTermMeasureFunction.class) {
+            computeTFIDF((TFIDFTermMeasureFunction) func);
+            return;
+        }
+        TermTuple scratch = new TermTuple();
+        for (int i = 0; i < size; i++) {
+            scratch.set(terms == null ? null : terms[i], hash[i], tf[i]);
+            scratch.normalizeTF(wordCount);
+            scratch.isGoodValue = true;
+            scratch.isTermMeasure = false;
+            scratch.termMeasure = 0;
+            scratch.m_df = 0;
+            scratch.normDf = 0;
+            func.compute(scratch, null);
+            termMeasure[i] = scratch.isGood() ? scratch.termMeasure : Double.NEGATIVE_INFINITY;
+            df[i] = (int) scratch.m_df;
+        }
+        if (order == Order.MeasureDescend) {
+            order = Order.None;
+        }
+    }
+
+    /**
+     * TFIDF over the columns in bulk, no scratch tuple or per row virtual call.
+     */
+    private void computeTFIDF(TFIDFTermMeasureFunction func) {
+        if (func.computeBulk(hash, tf, df, size, wordCount, termMeasure)) {
+            for (int i = 0; i < size; i++) {
+                if (termMeasure[i] == -Double.MAX_VALUE) {
+                    termMeasure[i] = Double.NEGATIVE_INFINITY;
+                }
+            }
+        } else {
+            Arrays.fill(termMeasure, 0, size, 0);
+            Arrays.fill(df, 0, size, 0);
+        }
+        if (order == Order.MeasureDescend) {
+            order = Order.None;
+        }
+    }
+
+    /**
+     * Prune the set to those terms that meet the min metric bar, the current order is kept.
+     *
+     * @param minMeasure
+     * @param maxTerms
+     */
+    public void prune(double minMeasure, int maxTerms) {
+        int fill = 0;
+        for (int i = 0; i < size; i++) {
+            if (termMeasure[i] != Double.NEGATIVE_INFINITY && termMeasure[i] >= minMeasure) {
+                if (fill != i) {
+                    moveRow(i, fill);
+                }
+                fill++;
+            }
+        }
+        if (fill > maxTerms) {
+            fill = maxTerms;
+        }
+        if (terms != null) {
+            Arrays.fill(terms, fill, size, null);
+        }
+        size = fill;
+    }
+
+    /**
+     * Merge two sets together making a new one, tfs of common terms are summed.  The result is in hash order.
+     *
+     * @param b
+     * @param sectionName
+     * @return
+     */
+    public ColumnarTermTupleSet mergeSet(ColumnarTermTupleSet b, String sectionName) {
+        sortByHashAscend();
+        b.sortByHashAscend();
+        ColumnarTermTupleSet set = new ColumnarTermTupleSet(size + b.size);
+        set.setSectionName(sectionName);
+        set.setWordCount(wordCount + b.wordCount);
+        int i = 0;
+        int j = 0;
+        while (i < size && j < b.size) {
+            long h = hash[i];
+            long oh = b.hash[j];
+            if (h == oh) {
+                set.addFrom(this, i, tf[i] + b.tf[j]);
+                i++;
+                j++;
+            } else if (h < oh) {
+                set.addFrom(this, i, tf[i]);
+                i++;
+            } else {
+                set.addFrom(b, j, b.tf[j]);
+                j++;
+            }
+        }
+        for (; i < size; i++) {
+            set.addFrom(this, i, tf[i]);
+        }
+        for (; j < b.size; j++) {
+            set.addFrom(b, j, b.tf[j]);
+        }
+        set.order = Order.HashAscend;
+        return set;
+    }
+
+    /**
+     * Walk this set and the peer set in hash order calling the visitor for the terms in common.
+     *
+     * @param visitor
+     * @param other
+     */
+    public void matchByHash(ColumnarTermTupleSetVisitor visitor, ColumnarTermTupleSet other) {
+        sortByHashAscend();
+        other.sortByHashAscend();
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            long h = hash[i];
+            long oh = other.hash[j];
+            if (h == oh) {
+                visitor.visit(this, i++, other, j++, TermTupleSetVisitor.Mode.BothAvailable);
+            } else if (h < oh) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+    }
+
+    /**
+     * Walk this set and the peer set in hash order calling the visitor for every term, noting which side(s) hold it.
+     *
+     * @param visitor
+     * @param other
+     */
+    public void diffByHash(ColumnarTermTupleSetVisitor visitor, ColumnarTermTupleSet other) {
+        sortByHashAscend();
+        other.sortByHashAscend();
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            long h = hash[i];
+            long oh = other.hash[j];
+            if (h == oh) {
+                visitor.visit(this, i++, other, j++, TermTupleSetVisitor.Mode.BothAvailable);
+            } else if (h < oh) {
+                visitor.visit(this, i++, other, -1, TermTupleSetVisitor.Mode.LeftAvailable);
+            } else {
+                visitor.visit(this, -1, other, j++, TermTupleSetVisitor.Mode.RightAvailable);
+            }
+        }
+        for (; i < size; i++) {
+            visitor.visit(this, i, other, -1, TermTupleSetVisitor.Mode.LeftAvailable);
+        }
+        for (; j < other.size; j++) {
+            visitor.visit(this, -1, other, j, TermTupleSetVisitor.Mode.RightAvailable);
+        }
+    }
+
+    /**
+     * Dot product of the term measures of the two sets over their common hashes, with the {@link TermKernels}
+     * merge join.  Prune first, rejected terms carry a measure of negative infinity.
+     *
+     * @param other
+     * @return
+     */
+    public double dot(ColumnarTermTupleSet other) {
+        sortByHashAscend();
+        other.sortByHashAscend();
+        return TermKernels.get().dot(hash, termMeasure, size, other.hash, other.termMeasure, other.size);
+    }
+
+    /**
+     * Cosine of the term measures of the two sets, 0 if either is empty or all zero.  See {@link #dot}.
+     *
+     * @param other
+     * @return
+     */
+    public double cosine(ColumnarTermTupleSet other) {
+        sortByHashAscend();
+        other.sortByHashAscend();
+        return TermKernels.get().cosine(hash, termMeasure, size, other.hash, other.termMeasure, other.size);
+    }
+
+    /**
+     * Return a sparse vector over the supplied ascending hash dictionary, the position is the index within the
+     * dictionary and the value is the term measure.
+     *
+     * @param dictionary ascending hashes
+     * @param termsOut   optional, filled with the term text at the matching dictionary index
+     * @return
+     */
+    public SparseVector<ColumnarTermTupleSet> getSparseVector(long dictionary[], String termsOut[]) {
+        sortByHashAscend();
+        int dictSize = dictionary.length;
+        int count = 0;
+        int ind = 0;
+        for (int i = 0; i < size && ind < dictSize; i++) {
+            long h = hash[i];
+            while (ind < dictSize && dictionary[ind] < h) {
+                ind++;
+            }
+            if (ind < dictSize && dictionary[ind] == h) {
+                count++;
+            }
+        }
+        SparseVector<ColumnarTermTupleSet> sv = new SparseVector<ColumnarTermTupleSet>(count, dictSize);
+        sv.setReferrer(this);
+        if (count == 0) {
+            return sv;
+        }
+        ind = 0;
+        for (int i = 0; i < size && ind < dictSize; i++) {
+            long h = hash[i];
+            while (ind < dictSize && dictionary[ind] < h) {
+                ind++;
+            }
+            if (ind < dictSize && dictionary[ind] == h) {
+                sv.setNextElement(ind, termMeasure[i]);
+                if (termsOut != null) {
+                    termsOut[ind] = getTerm(i);
+                }
+            }
+        }
+        return sv;
+    }
+
+    /**
+     * Return a sparse vector where the position is the hash and value is the measure.
+     *
+     * @return
+     */
+    public SparseVector<ColumnarTermTupleSet> getSparseVectorWithHash() {
+        SparseVector<ColumnarTermTupleSet> v = new SparseVector<ColumnarTermTupleSet>(size, -1);
+        v.setReferrer(this);
+        for (int i = 0; i < size; i++) {
+            v.setNextElement(hash[i], termMeasure[i]);
+        }
+        return v;
+    }
+
+    /**
+     * Add this set to a df index.
+     *
+     * @param index
+     */
+    public void addDocumentToDF(DFIndex index) {
+        for (int i = 0; i < size; i++) {
+            index.incrementFrequency(hash[i]);
+        }
+        index.incrementAccumulativeDocLength(wordCount);
+        index.incrementDocFrequency();
+    }
+
+    /**
+     * Fill in the set of hashes found in this section, see {@link TermTupleSet#fillHitMap(TLongIntHashMap)}.
+     *
+     * @param currentSet
+     */
+    public void fillHitMap(TLongIntHashMap currentSet) {
+        for (int i = 0; i < size; i++) {
+            if (!currentSet.contains(hash[i])) {
+                currentSet.put(hash[i], 1);
+            }
+        }
+    }
+}
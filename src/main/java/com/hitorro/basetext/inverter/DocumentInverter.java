@@ -25,6 +25,7 @@ import com.hitorro.basetext.dfindex.DFIndex;
 import com.hitorro.basetext.dfindex.DFIndexSingletonMapper;
 import com.hitorro.language.IsoLanguage;
 import com.hitorro.obj.core.GenericAnalyzer;
+import com.hitorro.obj.core.GenericAnalyzerRegistry;
 import com.hitorro.util.core.events.cache.SingletonCache;
 import com.hitorro.util.core.string.StringUtil;
 import com.hitorro.util.io.ResetableStringReader;
@@ -40,7 +41,10 @@ import java.util.Map;
 public class DocumentInverter {
     private SingletonCache<DFIndex> m_cache = DFIndexSingletonMapper.getSingleton();
     private ResetableStringReader m_reader = new ResetableStringReader(null);
-    private FrequencyTokenizerCollector m_col = new FrequencyTokenizerCollector();
+    private FingerprintTokenizerCollector m_col = new FingerprintTokenizerCollector();
+    private MultiSectionCollector m_multi;
+    private TopKTermSelector m_topK;
+    private double m_minMeasure = -Double.MAX_VALUE;
     private TermMeasureFunction m_func;
     private Map<IsoLanguage, GenericAnalyzer> analyzers = new HashMap();
     private String field;
@@ -59,6 +63,22 @@ public class DocumentInverter {
         m_sortFunction = sortFunc;
     }
 
+    /**
+     * Keep only the best k terms of each inverted section, measured with the term measure function as they are
+     * counted.  The sets come back sorted by measure descending.  k of 0 turns this off.
+     *
+     * @param k
+     * @param minMeasure terms measuring below this are dropped
+     */
+    public void setTopK(int k, double minMeasure) {
+        m_topK = k > 0 ? new TopKTermSelector(k) : null;
+        m_minMeasure = minMeasure;
+    }
+
+    public void setTopK(int k) {
+        setTopK(k, -Double.MAX_VALUE);
+    }
+
     /**
      * Invert content and potentially computeFromSubjectArea a term measure and sort using the defined criteria.
      *
@@ -75,6 +95,16 @@ public class DocumentInverter {
     private TermTupleSet setText(String section, IsoLanguage language) throws IOException {
         TokenStream ts = getAnalyzer(language).tokenStream(field, m_reader);
         int wordCount = m_col.collect(ts);
+        if (m_topK != null && m_func != null) {
+            TermTupleSet set = new TermTupleSet(m_topK.getK());
+            set.setWordCount(wordCount);
+            set.setSectionName(section);
+            if (m_func.getNeedsDFIndex() && m_func.m_dfIndex == null) {
+                m_func.setDFIndex(m_cache.get());
+            }
+            m_col.getTopTuples(set, wordCount, m_func, m_topK, m_minMeasure);
+            return set;
+        }
         TermTupleSet set = new TermTupleSet();
         m_col.getTuples(section, set, wordCount);
         set.setWordCount(wordCount);
@@ -82,13 +112,71 @@ public class DocumentInverter {
         return set;
     }
 
+    /**
+     * Invert content into the columnar form, the term text is never turned into Strings.
+     *
+     * @param section
+     * @param text
+     * @param language
+     * @return
+     * @throws IOException
+     */
+    public ColumnarTermTupleSet setTextColumnar(String section, String text, IsoLanguage language) throws IOException {
+        m_reader.set(text);
+        TokenStream ts = getAnalyzer(language).tokenStream(field, m_reader);
+        int wordCount = m_col.collect(ts);
+        ColumnarTermTupleSet set = new ColumnarTermTupleSet(m_col.size());
+        m_col.getTuples(set);
+        set.setWordCount(wordCount);
+        set.setSectionName(section);
+        return set;
+    }
+
+    /**
+     * Invert all the sections of a document in one pass over a shared count table.  The per section sets come back
+     * in the order of the names given, followed by the set for the whole document when combinedSection is not null.
+     *
+     * @param sections
+     * @param texts
+     * @param language
+     * @param combinedSection
+     * @return
+     * @throws IOException
+     */
+    public TermTupleSet[] setSections(String sections[], String texts[], IsoLanguage language, String combinedSection) throws IOException {
+        if (m_multi == null) {
+            m_multi = new MultiSectionCollector();
+        }
+        int n = sections.length;
+        m_multi.clear(n);
+        GenericAnalyzer ga = getAnalyzer(language);
+        for (int i = 0; i < n; i++) {
+            m_reader.set(texts[i] == null ? "" : texts[i]);
+            m_multi.collect(ga.tokenStream(field, m_reader), i);
+        }
+        TermTupleSet ret[] = new TermTupleSet[combinedSection == null ? n : n + 1];
+        for (int i = 0; i < n; i++) {
+            TermTupleSet set = new TermTupleSet(m_multi.size(i));
+            m_multi.getTuples(i, set);
+            set.setSectionName(sections[i]);
+            ret[i] = set;
+        }
+        if (combinedSection != null) {
+            TermTupleSet set = new TermTupleSet(m_multi.size());
+            m_multi.getTuples(set);
+            set.setSectionName(combinedSection);
+            ret[n] = set;
+        }
+        return ret;
+    }
+
     private GenericAnalyzer getAnalyzer(IsoLanguage language) {
         GenericAnalyzer ga = analyzers.get(language);
         if (ga == null) {
             if (StringUtil.nullOrEmptyString(filters)) {
-                ga = new GenericAnalyzer(GenericAnalyzer.Standard.apply(), language, GenericAnalyzer.Mode.Index);
+                ga = GenericAnalyzerRegistry.get(GenericAnalyzer.Standard.apply(), language, GenericAnalyzer.Mode.Index);
             } else {
-                ga = new GenericAnalyzer(filters, language, GenericAnalyzer.Mode.Index);
+                ga = GenericAnalyzerRegistry.get(filters, language, GenericAnalyzer.Mode.Index);
             }
             analyzers.put(language, ga);
         }
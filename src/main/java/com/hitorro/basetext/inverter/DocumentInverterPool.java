@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2006-2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.hitorro.basetext.inverter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+/**
+ * Thread confined {@link DocumentInverter}s for a given field and filter chain.  A {@link DocumentInverter} holds a
+ * reader, a collector and its analyzers so it can not be shared, but it can be reused, so each thread gets its own
+ * and keeps it.
+ * <p/>
+ * Pools are shared process wide through {@link #getPool(String, String)}.  Batch inversion runs on a supplied
+ * executor, use a fixed set of platform threads (the default is the common ForkJoinPool) since the analyzers are
+ * kept per thread; virtual threads would each build their own.
+ */
+public class DocumentInverterPool {
+    private static final ConcurrentHashMap<String, DocumentInverterPool> s_pools = new ConcurrentHashMap<String, DocumentInverterPool>();
+
+    private final String field;
+    private final String filters;
+    private final ThreadLocal<DocumentInverter> inverters = new ThreadLocal<DocumentInverter>();
+
+    public DocumentInverterPool(String field, String filters) {
+        this.field = field;
+        this.filters = filters;
+    }
+
+    /**
+     * Get the shared pool for a field and filter chain.
+     *
+     * @param field
+     * @param filters may be null for the standard chain
+     * @return
+     */
+    public static DocumentInverterPool getPool(String field, String filters) {
+        String key = field + '|' + (filters == null ? "" : filters);
+        DocumentInverterPool pool = s_pools.get(key);
+        if (pool == null) {
+            pool = s_pools.computeIfAbsent(key, k -> new DocumentInverterPool(field, filters));
+        }
+        return pool;
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    public String getFilters() {
+        return filters;
+    }
+
+    /**
+     * Get the inverter owned by the calling thread.
+     *
+     * @return
+     */
+    public DocumentInverter get() {
+        DocumentInverter inverter = inverters.get();
+        if (inverter == null) {
+            inverter = new DocumentInverter(field, filters, null, null);
+            inverters.set(inverter);
+        }
+        return inverter;
+    }
+
+    /**
+     * Invert a batch of documents in parallel on the common ForkJoinPool.
+     *
+     * @param docs
+     * @param sortFunction
+     * @param func         supplies a measure function per document as they hold per document state
+     * @return groups in the same order as the documents
+     * @throws IOException
+     */
+    public List<TermTupleSetGroup> invertAll(List<InverterDocument> docs,
+                                             Comparator<TermTuple> sortFunction,
+                                             Supplier<TermMeasureFunction> func) throws IOException {
+        return invertAll(docs, sortFunction, func, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Invert a batch of documents in parallel, each document is inverted on one thread using that thread's inverter.
+     *
+     * @param docs
+     * @param sortFunction
+     * @param func         supplies a measure function per document, may be null
+     * @param executor
+     * @return groups in the same order as the documents
+     * @throws IOException the first failure seen
+     */
+    public List<TermTupleSetGroup> invertAll(List<InverterDocument> docs,
+                                             final Comparator<TermTuple> sortFunction,
+                                             final Supplier<TermMeasureFunction> func,
+                                             Executor executor) throws IOException {
+        List<CompletableFuture<TermTupleSetGroup>> futures = new ArrayList<CompletableFuture<TermTupleSetGroup>>(docs.size());
+        for (final InverterDocument doc : docs) {
+            futures.add(CompletableFuture.supplyAsync(() -> invert(doc, sortFunction, func == null ? null : func.get()),
+                    executor));
+        }
+        List<TermTupleSetGroup> groups = new ArrayList<TermTupleSetGroup>(docs.size());
+        try {
+            for (CompletableFuture<TermTupleSetGroup> f : futures) {
+                groups.add(f.join());
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            throw e;
+        }
+        return groups;
+    }
+
+    private TermTupleSetGroup invert(InverterDocument doc, Comparator<TermTuple> sortFunction, TermMeasureFunction func) {
+        TermTupleSetGroup group = new TermTupleSetGroup(this, sortFunction, func);
+        try {
+            group.setGroup(doc.getTexts(), doc.getSectionNames(), doc.getLanguage());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        group.setId(doc.getId());
+        return group;
+    }
+}
@@ -0,0 +1,297 @@
+/*
+ * Copyright (c) 2006-2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.hitorro.basetext.inverter;
+
+import java.nio.charset.StandardCharsets;
+
+import static com.hitorro.basetext.inverter.TermTupleSetCodec.BlockSize;
+import static com.hitorro.basetext.inverter.TermTupleSetCodec.getInt;
+import static com.hitorro.basetext.inverter.TermTupleSetCodec.getLong;
+import static com.hitorro.basetext.inverter.TermTupleSetCodec.readVarLong;
+
+/**
+ * Read only view over a set encoded by {@link TermTupleSetCodec}.  Entries are walked with a {@link Cursor} or found
+ * by hash with a binary search over the block table and a scan of at most one block, term strings are only decoded
+ * when asked for.
+ */
+public class EncodedTermTupleSet {
+    private final byte bytes[];
+    private final int size;
+    private final int wordCount;
+    private final String sectionName;
+    private final boolean measures;
+    private final boolean terms;
+    private final boolean fixedHashes;
+    private final double min;
+    private final double scale;
+    private final int blockTable;
+    private final int blocks;
+    private final int dataStart;
+    private final int termOffsets;
+    private final int termText;
+
+    public EncodedTermTupleSet(byte bytes[]) {
+        this(bytes, 0, bytes.length);
+    }
+
+    public EncodedTermTupleSet(byte bytes[], int offset, int length) {
+        this.bytes = bytes;
+        int pos[] = {offset};
+        int version = bytes[pos[0]++];
+        // version 1 differs only in never having FixedHashes
+        if (version < 1 || version > TermTupleSetCodec.Version) {
+            throw new IllegalArgumentException("Unknown term set encoding version " + bytes[offset]);
+        }
+        int flags = bytes[pos[0]++];
+        measures = (flags & TermTupleSetCodec.HasMeasures) != 0;
+        terms = (flags & TermTupleSetCodec.HasTerms) != 0;
+        fixedHashes = (flags & TermTupleSetCodec.FixedHashes) != 0;
+        size = (int) readVarLong(bytes, pos);
+        wordCount = (int) readVarLong(bytes, pos);
+        int nameLen = (int) readVarLong(bytes, pos);
+        if (nameLen == 0) {
+            sectionName = null;
+        } else {
+            sectionName = new String(bytes, pos[0], nameLen - 1, StandardCharsets.UTF_8);
+            pos[0] += nameLen - 1;
+        }
+        if (measures) {
+            min = Double.longBitsToDouble(getLong(bytes, pos[0]));
+            double max = Double.longBitsToDouble(getLong(bytes, pos[0] + 8));
+            scale = (max - min) / TermTupleSetCodec.MaxQuantum;
+            pos[0] += 16;
+        } else {
+            min = 0;
+            scale = 0;
+        }
+        blockTable = pos[0];
+        blocks = (size + BlockSize - 1) / BlockSize;
+        int dataLength = getInt(bytes, blockTable + blocks * 12);
+        dataStart = blockTable + blocks * 12 + 4;
+        termOffsets = dataStart + dataLength;
+        termText = termOffsets + (size + 1) * 4;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getWordCount() {
+        return wordCount;
+    }
+
+    public String getSectionName() {
+        return sectionName;
+    }
+
+    public boolean hasMeasures() {
+        return measures;
+    }
+
+    public boolean hasTerms() {
+        return terms;
+    }
+
+    /**
+     * @return true if the hashes are stored whole rather than as deltas
+     */
+    public boolean hasFixedHashes() {
+        return fixedHashes;
+    }
+
+    /**
+     * @param index entry index in hash order
+     * @return the term or null if the terms were not kept
+     */
+    public String getTerm(int index) {
+        if (!terms) {
+            return null;
+        }
+        int start = getInt(bytes, termOffsets + index * 4);
+        int end = getInt(bytes, termOffsets + index * 4 + 4);
+        return new String(bytes, termText + start, end - start, StandardCharsets.UTF_8);
+    }
+
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    /**
+     * @param hash
+     * @return index of the entry with the hash or -1
+     */
+    public int find(long hash) {
+        Cursor c = seek(hash);
+        return c != null ? c.index : -1;
+    }
+
+    /**
+     * @param hash
+     * @return the tf of the hash, 0 if it is not in the set
+     */
+    public int getTF(long hash) {
+        Cursor c = seek(hash);
+        return c != null ? c.tf : 0;
+    }
+
+    /**
+     * @param hash
+     * @return the measure of the hash, NaN if it is not in the set or measures were not kept
+     */
+    public double getMeasure(long hash) {
+        Cursor c = seek(hash);
+        return c != null ? c.getMeasure() : Double.NaN;
+    }
+
+    /**
+     * @param hash
+     * @return a cursor positioned on the hash or null
+     */
+    public Cursor seek(long hash) {
+        int lo = 0;
+        int hi = blocks - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (getLong(bytes, blockTable + mid * 12) <= hash) {
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        if (hi < 0) {
+            return null;
+        }
+        Cursor c = new Cursor(hi);
+        int end = Math.min(size, (hi + 1) * BlockSize);
+        while (c.index + 1 < end && c.next()) {
+            if (c.hash == hash) {
+                return c;
+            }
+            if (c.hash > hash) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Inflate into a tuple based set in hash order.
+     *
+     * @return
+     */
+    public TermTupleSet<TermTuple> toTermTupleSet() {
+        TermTupleSet<TermTuple> set = new TermTupleSet<TermTuple>(size);
+        set.setSectionName(sectionName);
+        set.setWordCount(wordCount);
+        Cursor c = cursor();
+        while (c.next()) {
+            TermTuple tt = new TermTuple();
+            tt.set(getTerm(c.index), c.hash, c.tf);
+            tt.normalizeTF(wordCount);
+            if (measures) {
+                if (c.quantum == TermTupleSetCodec.NotGood) {
+                    tt.isGoodValue = false;
+                    tt.setTermMeasure(-Double.MAX_VALUE);
+                } else {
+                    tt.setTermMeasure(c.getMeasure());
+                }
+            }
+            set.add(tt);
+        }
+        set.setSortedBy(TermTupleSet.s_HashAscend);
+        return set;
+    }
+
+    /**
+     * Forward iteration over the entries, call {@link #next()} before reading the first.
+     */
+    public class Cursor {
+        private final int pos[] = new int[1];
+        private int index;
+        private long hash;
+        private int tf;
+        private int quantum;
+
+        Cursor() {
+            this.index = -1;
+            pos[0] = dataStart;
+        }
+
+        /**
+         * Position before the first entry of a block.
+         */
+        Cursor(int block) {
+            this.index = block * BlockSize - 1;
+            pos[0] = dataStart + getInt(bytes, blockTable + block * 12 + 8);
+        }
+
+        public boolean next() {
+            if (index + 1 >= size) {
+                return false;
+            }
+            index++;
+            if (index % BlockSize == 0) {
+                hash = getLong(bytes, blockTable + (index / BlockSize) * 12);
+            } else if (fixedHashes) {
+                hash = getLong(bytes, pos[0]);
+                pos[0] += 8;
+            } else {
+                hash += readVarLong(bytes, pos);
+            }
+            tf = (int) readVarLong(bytes, pos);
+            if (measures) {
+                quantum = ((bytes[pos[0]] & 0xFF) << 8) | (bytes[pos[0] + 1] & 0xFF);
+                pos[0] += 2;
+            }
+            return true;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public long getHash() {
+            return hash;
+        }
+
+        public int getTF() {
+            return tf;
+        }
+
+        /**
+         * @return the dequantized measure, NEGATIVE_INFINITY for terms that were not good, NaN if none were kept
+         */
+        public double getMeasure() {
+            if (!measures) {
+                return Double.NaN;
+            }
+            if (quantum == TermTupleSetCodec.NotGood) {
+                return Double.NEGATIVE_INFINITY;
+            }
+            return min + quantum * scale;
+        }
+
+        public String getTerm() {
+            return EncodedTermTupleSet.this.getTerm(index);
+        }
+    }
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright (c) 2006-2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.hitorro.basetext.inverter;
+
+import com.hitorro.obj.core.FingerprintAttribute;
+import com.hitorro.util.core.hash.FPHash64;
+import gnu.trove.map.hash.TLongIntHashMap;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Allocation free replacement for {@link FrequencyTokenizerCollector}.  Terms are fingerprinted straight from the
+ * {@link CharTermAttribute} buffer and counted against the fingerprint in a primitive map, the term text is copied
+ * into a char arena only the first time a term is seen.  No String is created until tuples are asked for.
+ * <p/>
+ * The fingerprint is the same {@link FPHash64#getFingerprint(char[], int)} value the phrase code uses, which matches
+ * {@link FPHash64#getFP(String)} so the hashes agree with the df index.
+ * <p/>
+ * Instances are reused between calls to {@link #collect(TokenStream)} and are not thread safe.
+ */
+public class FingerprintTokenizerCollector {
+    private static final int InitialSlots = 256;
+    private TLongIntHashMap m_slotMap = new TLongIntHashMap(InitialSlots, 0.5f, 0L, -1);
+    private long hashes[] = new long[InitialSlots];
+    private int counts[] = new int[InitialSlots];
+    private int termStart[] = new int[InitialSlots];
+    private int termLength[] = new int[InitialSlots];
+    private char arena[] = new char[InitialSlots * 8];
+    private int charFill = 0;
+    private int slots = 0;
+    // per slot results of the measure function, kept so the survivors need not be measured again
+    private double measures[] = new double[0];
+    private double dfs[] = new double[0];
+    private double normDfs[] = new double[0];
+
+    /**
+     * Read all of the stream, accumulating the frequencies of the terms found.
+     *
+     * @param ts
+     * @return number of words in document section
+     * @throws IOException
+     */
+    public int collect(TokenStream ts) throws IOException {
+        clear();
+        return accumulate(ts);
+    }
+
+    /**
+     * As {@link #collect(TokenStream)} but adding to the terms already collected.
+     *
+     * @param ts
+     * @return number of words read from the stream
+     * @throws IOException
+     */
+    public int accumulate(TokenStream ts) throws IOException {
+        int count = 0;
+        ts.reset();
+        CharTermAttribute termAttribute = ts.getAttribute(CharTermAttribute.class);
+        // computed once in the chain when the analyzer carries the FINGERPRINT filter
+        FingerprintAttribute fpAttribute = ts.getAttribute(FingerprintAttribute.class);
+        while (ts.incrementToken()) {
+            count++;
+            char buf[] = termAttribute.buffer();
+            int len = termAttribute.length();
+            long fp = fpAttribute != null ? fpAttribute.getFingerprint() : FPHash64.getFingerprint(buf, len);
+            add(fp, buf, len);
+        }
+        ts.end();
+        ts.close();
+        return count;
+    }
+
+    public void clear() {
+        m_slotMap.clear();
+        slots = 0;
+        charFill = 0;
+    }
+
+    /**
+     * Count one token, subclasses that keep more per term than the count extend this.
+     *
+     * @param fp
+     * @param buf
+     * @param len
+     * @return the slot of the term
+     */
+    protected int add(long fp, char buf[], int len) {
+        int slot = m_slotMap.get(fp);
+        if (slot >= 0) {
+            counts[slot]++;
+            return slot;
+        }
+        slot = slots++;
+        if (slot == hashes.length) {
+            int cap = slot << 1;
+            hashes = Arrays.copyOf(hashes, cap);
+            counts = Arrays.copyOf(counts, cap);
+            termStart = Arrays.copyOf(termStart, cap);
+            termLength = Arrays.copyOf(termLength, cap);
+        }
+        if (charFill + len > arena.length) {
+            arena = Arrays.copyOf(arena, Math.max(charFill + len, arena.length << 1));
+        }
+        System.arraycopy(buf, 0, arena, charFill, len);
+        hashes[slot] = fp;
+        counts[slot] = 1;
+        termStart[slot] = charFill;
+        termLength[slot] = len;
+        charFill += len;
+        m_slotMap.put(fp, slot);
+        return slot;
+    }
+
+    /**
+     * @return number of distinct terms collected
+     */
+    public int size() {
+        return slots;
+    }
+
+    public long getHash(int slot) {
+        return hashes[slot];
+    }
+
+    public int getCount(int slot) {
+        return counts[slot];
+    }
+
+    public String getTerm(int slot) {
+        return new String(arena, termStart[slot], termLength[slot]);
+    }
+
+    /**
+     * Fill a tuple set, the collected fingerprints are used as the tuple hashes.
+     *
+     * @param section
+     * @param set
+     * @param sectionSize
+     */
+    public void getTuples(String section, TermTupleSet set, int sectionSize) {
+        for (int i = 0; i < slots; i++) {
+            TermTuple tt = new TermTuple();
+            tt.set(getTerm(i), hashes[i], counts[i]);
+            tt.normalizeTF(sectionSize);
+            set.add(tt);
+        }
+    }
+
+    /**
+     * Fill a tuple set with only the K best terms by measure, best first.  Each term is measured as it comes off the
+     * table using one scratch tuple and only the survivors of the bounded heap are made into tuples, carrying the
+     * measure and df already computed.  Terms that are not good or measure below minMeasure are dropped, as
+     * {@link TermTupleSet#prune(double, int)} would.
+     *
+     * @param set
+     * @param sectionSize
+     * @param func
+     * @param selector
+     * @param minMeasure
+     */
+    public void getTopTuples(TermTupleSet set, int sectionSize, TermMeasureFunction func, TopKTermSelector selector,
+                             double minMeasure) {
+        selector.clear();
+        if (measures.length < slots) {
+            measures = new double[slots];
+            dfs = new double[slots];
+            normDfs = new double[slots];
+        }
+        TermTuple scratch = new TermTuple();
+        for (int i = 0; i < slots; i++) {
+            scratch.set(null, hashes[i], counts[i]);
+            scratch.normalizeTF(sectionSize);
+            scratch.isGoodValue = true;
+            scratch.isTermMeasure = false;
+            scratch.termMeasure = 0;
+            scratch.m_df = 0;
+            scratch.normDf = 0;
+            func.compute(scratch, set);
+            if (scratch.isGood() && scratch.termMeasure >= minMeasure) {
+                measures[i] = scratch.termMeasure;
+                dfs[i] = scratch.m_df;
+                normDfs[i] = scratch.normDf;
+                selector.offer(i, scratch.termMeasure);
+            }
+        }
+        selector.sortDescending();
+        int n = selector.size();
+        for (int i = 0; i < n; i++) {
+            int slot = selector.getSlot(i);
+            TermTuple tt = new TermTuple();
+            tt.set(getTerm(slot), hashes[slot], counts[slot]);
+            tt.normalizeTF(sectionSize);
+            tt.setTermMeasure(measures[slot]);
+            tt.m_df = dfs[slot];
+            tt.normDf = normDfs[slot];
+            set.add(tt);
+        }
+        set.setComputedBy(func);
+        set.setSortedBy(TermTupleSet.s_MeasureDescendComparitor);
+    }
+
+    /**
+     * Fill a columnar set, term text goes arena to arena without creating Strings.
+     *
+     * @param set
+     */
+    public void getTuples(ColumnarTermTupleSet set) {
+        for (int i = 0; i < slots; i++) {
+            set.add(hashes[i], counts[i], arena, termStart[i], termLength[i]);
+        }
+    }
+
+    public void debugValuesDump() {
+        for (int i = 0; i < slots; i++) {
+            System.out.println(getTerm(i) + " : " + counts[i]);
+        }
+    }
+}
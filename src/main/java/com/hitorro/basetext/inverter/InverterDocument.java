@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2006-2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.hitorro.basetext.inverter;
+
+import com.hitorro.language.IsoLanguage;
+
+/**
+ * A document handed to {@link DocumentInverterPool#invertAll}, a set of named sections in one language.
+ */
+public class InverterDocument {
+    private String id;
+    private String sectionNames[];
+    private String texts[];
+    private IsoLanguage language;
+
+    public InverterDocument(String id, String sectionNames[], String texts[], IsoLanguage language) {
+        this.id = id;
+        this.sectionNames = sectionNames;
+        this.texts = texts;
+        this.language = language;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String[] getSectionNames() {
+        return sectionNames;
+    }
+
+    public String[] getTexts() {
+        return texts;
+    }
+
+    public IsoLanguage getLanguage() {
+        return language;
+    }
+}
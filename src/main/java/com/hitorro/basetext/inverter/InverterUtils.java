@@ -50,7 +50,7 @@ public class InverterUtils {
     }
 
     public static TermTupleSetGroup getTupleSetWithFilter(String filter, boolean merge, String p1Section, String p1Text, String p2Section, String p2Text, String indexField, IsoLanguage language) throws IOException {
-        TermTupleSetGroup group = new TermTupleSetGroup(indexField, filter, TermTupleSet.s_MeasureDescendComparitor, new TFIDFTermMeasureFunction());
+        TermTupleSetGroup group = new TermTupleSetGroup(DocumentInverterPool.getPool(indexField, filter), TermTupleSet.s_MeasureDescendComparitor, new TFIDFTermMeasureFunction());
         group.add(p1Section, p1Text, language);
         group.add(p2Section, p2Text, language);
         if (merge) {
@@ -68,7 +68,7 @@ public class InverterUtils {
     }
 
     public static TermTupleSetGroup getTupleSetFromTextWithFilter(String filter, String section, String text, String indexField, IsoLanguage language) throws IOException {
-        TermTupleSetGroup group = new TermTupleSetGroup(indexField, filter, TermTupleSet.s_MeasureDescendComparitor, new TFIDFTermMeasureFunction());
+        TermTupleSetGroup group = new TermTupleSetGroup(DocumentInverterPool.getPool(indexField, filter), TermTupleSet.s_MeasureDescendComparitor, new TFIDFTermMeasureFunction());
         group.add(section, text, language);
         return group;
     }
@@ -78,7 +78,7 @@ public class InverterUtils {
     }
 
     public static TermTupleSetGroup getTupleSetFromTextWithFilterTF(String filter, String section, String text, String indexField, IsoLanguage language) throws IOException {
-        TermTupleSetGroup group = new TermTupleSetGroup(indexField, filter, TermTupleSet.s_MeasureDescendComparitor, new TermMeasureSetterFunction(10.0));
+        TermTupleSetGroup group = new TermTupleSetGroup(DocumentInverterPool.getPool(indexField, filter), TermTupleSet.s_MeasureDescendComparitor, new TermMeasureSetterFunction(10.0));
         group.add(section, text, language);
         return group;
     }
@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2006-2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.hitorro.basetext.inverter;
+
+import org.apache.lucene.analysis.TokenStream;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * {@link FingerprintTokenizerCollector} for all the sections of a document at once.  Every section is collected into
+ * the one fingerprint table, whose slots hold the combined count and, in a flat row of {@code sections} ints, the
+ * count in each section, so the per section sets and the whole document set come out of a single pass with no merge.
+ * <p/>
+ * Sections are identified by their index, 0 to sections-1, in the current document.  Instances are reused between
+ * documents via {@link #clear(int)} and are not thread safe.
+ */
+public class MultiSectionCollector extends FingerprintTokenizerCollector {
+    private int sectionCounts[] = new int[256 * 4];
+    private int wordCounts[] = new int[4];
+    private int distinct[] = new int[4];
+    private int sections = 1;
+    private int m_section = 0;
+
+    /**
+     * Start a new document with the given number of sections.
+     *
+     * @param sectionCount
+     */
+    public void clear(int sectionCount) {
+        clear();
+        sections = Math.max(1, sectionCount);
+        if (wordCounts.length < sections) {
+            wordCounts = new int[sections];
+            distinct = new int[sections];
+        } else {
+            Arrays.fill(wordCounts, 0);
+            Arrays.fill(distinct, 0);
+        }
+    }
+
+    /**
+     * Read all of the stream into the given section.
+     *
+     * @param ts
+     * @param section
+     * @return number of words in the section
+     * @throws IOException
+     */
+    public int collect(TokenStream ts, int section) throws IOException {
+        m_section = section;
+        int count = accumulate(ts);
+        wordCounts[section] += count;
+        return count;
+    }
+
+    @Override
+    protected int add(long fp, char buf[], int len) {
+        int first = size();
+        int slot = super.add(fp, buf, len);
+        int row = slot * sections;
+        if (slot == first) {
+            if (row + sections > sectionCounts.length) {
+                sectionCounts = Arrays.copyOf(sectionCounts, Math.max(row + sections, sectionCounts.length << 1));
+            }
+            Arrays.fill(sectionCounts, row, row + sections, 0);
+        }
+        if (sectionCounts[row + m_section]++ == 0) {
+            distinct[m_section]++;
+        }
+        return slot;
+    }
+
+    public int getSectionCount() {
+        return sections;
+    }
+
+    /**
+     * @param section
+     * @return number of distinct terms in the section
+     */
+    public int size(int section) {
+        return distinct[section];
+    }
+
+    public int getWordCount(int section) {
+        return wordCounts[section];
+    }
+
+    public int getWordCount() {
+        int total = 0;
+        for (int i = 0; i < sections; i++) {
+            total += wordCounts[i];
+        }
+        return total;
+    }
+
+    public int getCount(int slot, int section) {
+        return sectionCounts[slot * sections + section];
+    }
+
+    /**
+     * Fill a tuple set with the terms of one section.
+     *
+     * @param section
+     * @param set
+     */
+    public void getTuples(int section, TermTupleSet set) {
+        int words = wordCounts[section];
+        int n = size();
+        for (int i = 0; i < n; i++) {
+            int c = sectionCounts[i * sections + section];
+            if (c > 0) {
+                TermTuple tt = new TermTuple();
+                tt.set(getTerm(i), getHash(i), c);
+                tt.normalizeTF(words);
+                set.add(tt);
+            }
+        }
+        set.setWordCount(words);
+    }
+
+    /**
+     * Fill a tuple set with the terms of the whole document.
+     *
+     * @param set
+     */
+    public void getTuples(TermTupleSet set) {
+        int words = getWordCount();
+        getTuples(null, set, words);
+        set.setWordCount(words);
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2006-2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.hitorro.basetext.inverter;
+
+import gnu.trove.map.hash.TObjectIntHashMap;
+
+import java.util.Arrays;
+
+/**
+ * Interning of section names ("title", "body" ...) to small dense ids, so sections can be looked up by array index
+ * rather than by comparing names.  Each {@link TermTupleSetGroup} owns one, so it only ever holds the names of the
+ * sections in that group and is emptied along with it.
+ * <p/>
+ * Not thread safe.
+ */
+final class SectionIds {
+    private TObjectIntHashMap<String> ids = new TObjectIntHashMap<String>(16, 0.5f, -1);
+    private String names[] = new String[8];
+    private int count = 0;
+
+    /**
+     * @param name
+     * @return the id of the name, assigning the next one if it is new
+     */
+    public int intern(String name) {
+        int id = ids.get(name);
+        if (id >= 0) {
+            return id;
+        }
+        if (count == names.length) {
+            names = Arrays.copyOf(names, count << 1);
+        }
+        names[count] = name;
+        id = count++;
+        ids.put(name, id);
+        return id;
+    }
+
+    /**
+     * @param name
+     * @return the id or -1 if the name was never interned
+     */
+    public int get(String name) {
+        return name == null ? -1 : ids.get(name);
+    }
+
+    public String getName(int id) {
+        return names[id];
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public void clear() {
+        ids.clear();
+        Arrays.fill(names, 0, count, null);
+        count = 0;
+    }
+}
@@ -22,6 +22,7 @@
 package com.hitorro.basetext.inverter;
 
 import com.hitorro.basetext.dfindex.DFIndex;
+import com.hitorro.basetext.inverter.vector.TermKernels;
 
 /**
  * <p/>
@@ -74,4 +75,27 @@ public class TFIDFTermMeasureFunction extends TermMeasureFunction {
         return true;
     }
 
+    /**
+     * Measure n terms held in columns, giving the same values as {@link #compute} but with the df lookups done in one
+     * loop and the weights in a {@link TermKernels} kernel.  Terms below the df tolerance get -Double.MAX_VALUE.
+     *
+     * @param hash
+     * @param tf
+     * @param df        filled with the df of each term
+     * @param n
+     * @param wordCount
+     * @param out
+     * @return false if there is no df index, as compute does
+     */
+    public boolean computeBulk(long hash[], int tf[], int df[], int n, int wordCount, double out[]) {
+        if (m_dfIndex == null) {
+            return false;
+        }
+        for (int i = 0; i < n; i++) {
+            df[i] = m_dfIndex.getFrequency(hash[i]);
+        }
+        TermKernels.get().tfidf(tf, df, n, wordCount, corpusSize, dfMinTollerance, out);
+        return true;
+    }
+
 }
@@ -102,6 +102,19 @@ public class TermTuple implements HTSerializable {
         this.tf = tf;
     }
 
+    /**
+     * Set the term when its fingerprint is already known, saves rehashing the term text.
+     *
+     * @param term
+     * @param hash
+     * @param tf
+     */
+    public void set(String term, long hash, int tf) {
+        m_term = term;
+        m_hash = hash;
+        this.tf = tf;
+    }
+
     public void serialize(HTObjectOutputStream os) throws IOException {
         os.writeInt(getSerializationVersion());
         os.writeString(m_term);
@@ -53,7 +53,7 @@ public class TermTupleSet<E extends TermTuple> implements HTSerializable {
     private int m_wordCount = 0;
     private String m_sectionName;
 
-    private List<E> termTuples = new ArrayList<E>();
+    private List<E> termTuples;
 
 
     private Comparator comparatorUsed = null;
@@ -61,6 +61,17 @@ public class TermTupleSet<E extends TermTuple> implements HTSerializable {
 
     private String id;
 
+    public TermTupleSet() {
+        termTuples = new ArrayList<E>();
+    }
+
+    /**
+     * @param expectedSize rows to preallocate
+     */
+    public TermTupleSet(int expectedSize) {
+        termTuples = new ArrayList<E>(expectedSize);
+    }
+
     public String getId() {
         return id;
     }
@@ -129,20 +140,27 @@ public class TermTupleSet<E extends TermTuple> implements HTSerializable {
 
 
     /**
-     * Prune the set to those terms that meet the min metric bar
+     * Prune the set to those terms that meet the min metric bar, compacting in place in one pass and keeping the
+     * current order.  See {@link DocumentInverter#setTopK} to avoid building the full set in the first place.
      *
      * @param minMeasure
      * @param maxTerms
      */
     public void prune(double minMeasure, int maxTerms) {
-
-        int startIndex = termTuples.size() - 1;
-        for (int i = startIndex; i > 0; i--) {
+        int size = termTuples.size();
+        int fill = 0;
+        for (int i = 0; i < size; i++) {
             E e = termTuples.get(i);
-            if (!e.isGood() || e.getMeasure() < minMeasure) {
-                termTuples.remove(i);
+            if (e.isGood() && e.getMeasure() >= minMeasure) {
+                if (fill != i) {
+                    termTuples.set(fill, e);
+                }
+                fill++;
             }
         }
+        if (fill < size) {
+            termTuples.subList(fill, size).clear();
+        }
 
         ListUtil.pruneListToLength(termTuples, maxTerms);
 
@@ -190,6 +208,15 @@ public class TermTupleSet<E extends TermTuple> implements HTSerializable {
         return true;
     }
 
+    /**
+     * Record that the tuples were added already in this order.
+     *
+     * @param sortFunc
+     */
+    void setSortedBy(Comparator<TermTuple> sortFunc) {
+        comparatorUsed = sortFunc;
+    }
+
     public void sort(Comparator<TermTuple> sortFunc) {
 
         comparatorUsed = sortFunc;
@@ -208,6 +235,13 @@ public class TermTupleSet<E extends TermTuple> implements HTSerializable {
         return true;
     }
 
+    /**
+     * The tuples were measured with func before being added.
+     */
+    void setComputedBy(TermMeasureFunction func) {
+        previousFunc = func;
+    }
+
     public void computeTermMeasure(TermMeasureFunction func) {
         previousFunc = func;
         for (TermTuple tt : termTuples) {
@@ -216,7 +250,7 @@ public class TermTupleSet<E extends TermTuple> implements HTSerializable {
     }
 
     /**
-     * Merge two sets together making a new one.  The
+     * Merge two sets together making a new one.  See {@link TermTupleSetMerger} for merging many sets at once.
      *
      * @param b
      * @param sectionName
@@ -243,7 +277,7 @@ public class TermTupleSet<E extends TermTuple> implements HTSerializable {
         while (otherTuple != null && tuple != null) {
             if (tuple.m_hash == otherTuple.m_hash) {
                 TermTuple tt = new TermTuple();
-                tt.set(tuple.m_term, tuple.tf + otherTuple.tf);
+                tt.set(tuple.m_term, tuple.m_hash, tuple.tf + otherTuple.tf);
                 tt.normalizeTF(wordCount);
                 set.add(tt);
                 otherTuple = next(otherIter);
@@ -272,7 +306,7 @@ public class TermTupleSet<E extends TermTuple> implements HTSerializable {
 
     private TermTuple consumeToken(TermTuple tuple, TermTupleSet set, Iterator<E> iter, int wordCount) {
         TermTuple tt = new TermTuple();
-        tt.set(tuple.m_term, tuple.tf);
+        tt.set(tuple.m_term, tuple.m_hash, tuple.tf);
         tt.normalizeTF(wordCount);
         set.add(tt);
         tuple = next(iter);
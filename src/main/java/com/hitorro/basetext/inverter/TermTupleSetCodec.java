@@ -0,0 +1,316 @@
+/*
+ * Copyright (c) 2006-2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.hitorro.basetext.inverter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compact binary form for hash sorted term sets, read back without inflation by {@link EncodedTermTupleSet}.
+ * <p/>
+ * Layout, all varints are unsigned LEB128:
+ * <pre>
+ * byte    version
+ * byte    flags          HasMeasures | HasTerms | FixedHashes
+ * varint  size, wordCount
+ * varint  section name length + 1 (0 for none), UTF-8 bytes
+ * double  min, max       measure range, if HasMeasures
+ * blocks  per BlockSize entries: long first hash, int offset of the block in the entry data
+ * int     entry data length
+ * entries hash, not written for the first of a block: varint delta from the previous entry, or the 8 byte hash if
+ *         FixedHashes; varint tf, u16 quantized measure if HasMeasures (NotGood for terms that are not good)
+ * terms   int offsets[size + 1] into the UTF-8 bytes that follow, if HasTerms
+ * </pre>
+ * Entries are in ascending hash order so the deltas are never negative, the block table allows a binary search on
+ * hash.  Measures are quantized linearly over [min, max] to 16 bits.
+ * <p/>
+ * Term hashes are uniform 64 bit fingerprints, in a set of n terms the deltas are around 2^64/n so below some 32K terms
+ * (every per document set) a varint delta takes 8 or 9 bytes, no less than the hash itself.  The encoder sizes both
+ * forms and writes the fixed 8 byte hashes unless the deltas are smaller, so the hash column never costs more than
+ * the raw hashes; the saving over the raw (hash, tf, measure) form is in the varint tf and 16 bit measure.
+ */
+public final class TermTupleSetCodec {
+    public static final byte Version = 2;
+    public static final int HasMeasures = 1;
+    public static final int HasTerms = 2;
+    public static final int FixedHashes = 4;
+    public static final int BlockSize = 32;
+    public static final int NotGood = 0xFFFF;
+    static final int MaxQuantum = 0xFFFE;
+
+    private byte buf[];
+    private int fill;
+
+    private TermTupleSetCodec(int capacity) {
+        buf = new byte[Math.max(64, capacity)];
+    }
+
+    /**
+     * Encode a set, which is put in hash order if it is not already.
+     *
+     * @param set
+     * @param withTerms keep the term strings
+     * @return
+     */
+    public static byte[] encode(TermTupleSet<? extends TermTuple> set, boolean withTerms) {
+        set.sortByHashAscend();
+        List<? extends TermTuple> l = set.getTuplesList();
+        int size = l.size();
+        boolean measures = false;
+        double min = Double.MAX_VALUE;
+        double max = -Double.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            TermTuple tt = l.get(i);
+            if (tt.isTermMeasure) {
+                measures = true;
+                if (tt.isGood()) {
+                    min = Math.min(min, tt.termMeasure);
+                    max = Math.max(max, tt.termMeasure);
+                }
+            }
+        }
+        if (min > max) {
+            min = max = 0;
+        }
+        long deltaBytes = 0;
+        for (int i = 1; i < size; i++) {
+            if (i % BlockSize != 0) {
+                deltaBytes += varLongSize(l.get(i).m_hash - l.get(i - 1).m_hash);
+            }
+        }
+        boolean fixed = deltaBytes >= (long) (size - (size + BlockSize - 1) / BlockSize) * 8;
+        TermTupleSetCodec c = new TermTupleSetCodec(size * 12 + 32);
+        c.writeByte(Version);
+        c.writeByte((measures ? HasMeasures : 0) | (withTerms ? HasTerms : 0) | (fixed ? FixedHashes : 0));
+        c.writeVarLong(size);
+        c.writeVarLong(set.getWordCount());
+        String name = set.getSectionName();
+        if (name == null) {
+            c.writeVarLong(0);
+        } else {
+            byte b[] = name.getBytes(StandardCharsets.UTF_8);
+            c.writeVarLong(b.length + 1);
+            c.writeBytes(b, 0, b.length);
+        }
+        if (measures) {
+            c.writeLong(Double.doubleToLongBits(min));
+            c.writeLong(Double.doubleToLongBits(max));
+        }
+        int blocks = (size + BlockSize - 1) / BlockSize;
+        int blockTable = c.fill;
+        c.ensure(blocks * 12 + 4);
+        c.fill += blocks * 12 + 4;
+        int dataStart = c.fill;
+        double range = max - min;
+        long prev = 0;
+        for (int i = 0; i < size; i++) {
+            TermTuple tt = l.get(i);
+            if (i % BlockSize == 0) {
+                int at = blockTable + (i / BlockSize) * 12;
+                putLong(c.buf, at, tt.m_hash);
+                putInt(c.buf, at + 8, c.fill - dataStart);
+            } else if (fixed) {
+                c.writeLong(tt.m_hash);
+            } else {
+                c.writeVarLong(tt.m_hash - prev);
+            }
+            prev = tt.m_hash;
+            c.writeVarLong(tt.tf);
+            if (measures) {
+                int q;
+                if (!tt.isTermMeasure || !tt.isGood()) {
+                    q = NotGood;
+                } else if (range == 0) {
+                    q = 0;
+                } else {
+                    q = (int) Math.round((tt.termMeasure - min) / range * MaxQuantum);
+                }
+                c.writeByte(q >>> 8);
+                c.writeByte(q);
+            }
+        }
+        putInt(c.buf, blockTable + blocks * 12, c.fill - dataStart);
+        if (withTerms) {
+            int offsets = c.fill;
+            c.ensure((size + 1) * 4);
+            c.fill += (size + 1) * 4;
+            int textStart = c.fill;
+            for (int i = 0; i < size; i++) {
+                putInt(c.buf, offsets + i * 4, c.fill - textStart);
+                String term = l.get(i).m_term;
+                if (term != null) {
+                    byte b[] = term.getBytes(StandardCharsets.UTF_8);
+                    c.writeBytes(b, 0, b.length);
+                }
+            }
+            putInt(c.buf, offsets + size * 4, c.fill - textStart);
+        }
+        return Arrays.copyOf(c.buf, c.fill);
+    }
+
+    /**
+     * Encode every set of a group: varint count, id length + 1 and UTF-8 bytes, then each set length prefixed.
+     *
+     * @param group
+     * @param withTerms
+     * @return
+     */
+    public static byte[] encode(TermTupleSetGroup group, boolean withTerms) {
+        List<TermTupleSet> sets = group.getSets();
+        TermTupleSetCodec c = new TermTupleSetCodec(256);
+        c.writeVarLong(sets.size());
+        String id = group.getId();
+        if (id == null) {
+            c.writeVarLong(0);
+        } else {
+            byte b[] = id.getBytes(StandardCharsets.UTF_8);
+            c.writeVarLong(b.length + 1);
+            c.writeBytes(b, 0, b.length);
+        }
+        for (TermTupleSet set : sets) {
+            byte b[] = encode(set, withTerms);
+            c.writeVarLong(b.length);
+            c.writeBytes(b, 0, b.length);
+        }
+        return Arrays.copyOf(c.buf, c.fill);
+    }
+
+    /**
+     * Views over the sets of an encoded group, nothing is inflated.
+     *
+     * @param bytes
+     * @return
+     */
+    public static EncodedTermTupleSet[] readGroup(byte bytes[]) {
+        int pos[] = {0};
+        int n = (int) readVarLong(bytes, pos);
+        int idLen = (int) readVarLong(bytes, pos);
+        if (idLen > 0) {
+            pos[0] += idLen - 1;
+        }
+        EncodedTermTupleSet ret[] = new EncodedTermTupleSet[n];
+        for (int i = 0; i < n; i++) {
+            int len = (int) readVarLong(bytes, pos);
+            ret[i] = new EncodedTermTupleSet(bytes, pos[0], len);
+            pos[0] += len;
+        }
+        return ret;
+    }
+
+    /**
+     * Inflate an encoded group into a group's sets and id.
+     *
+     * @param bytes
+     * @param into
+     */
+    public static void decodeGroup(byte bytes[], TermTupleSetGroup into) {
+        int pos[] = {0};
+        readVarLong(bytes, pos);
+        int idLen = (int) readVarLong(bytes, pos);
+        String id = idLen == 0 ? null : new String(bytes, pos[0], idLen - 1, StandardCharsets.UTF_8);
+        for (EncodedTermTupleSet e : readGroup(bytes)) {
+            into.addTupleSet(e.toTermTupleSet());
+        }
+        into.setId(id);
+    }
+
+    private void ensure(int n) {
+        if (fill + n > buf.length) {
+            buf = Arrays.copyOf(buf, Math.max(fill + n, buf.length << 1));
+        }
+    }
+
+    private void writeByte(int b) {
+        ensure(1);
+        buf[fill++] = (byte) b;
+    }
+
+    private void writeBytes(byte b[], int off, int len) {
+        ensure(len);
+        System.arraycopy(b, off, buf, fill, len);
+        fill += len;
+    }
+
+    private void writeLong(long v) {
+        ensure(8);
+        putLong(buf, fill, v);
+        fill += 8;
+    }
+
+    private void writeVarLong(long v) {
+        ensure(10);
+        while ((v & ~0x7FL) != 0) {
+            buf[fill++] = (byte) ((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        buf[fill++] = (byte) v;
+    }
+
+    static int varLongSize(long v) {
+        int n = 1;
+        while ((v & ~0x7FL) != 0) {
+            v >>>= 7;
+            n++;
+        }
+        return n;
+    }
+
+    /**
+     * @param b
+     * @param pos in/out position
+     * @return
+     */
+    static long readVarLong(byte b[], int pos[]) {
+        int p = pos[0];
+        long v = 0;
+        int shift = 0;
+        byte x;
+        do {
+            x = b[p++];
+            v |= (long) (x & 0x7F) << shift;
+            shift += 7;
+        } while (x < 0);
+        pos[0] = p;
+        return v;
+    }
+
+    static void putLong(byte b[], int at, long v) {
+        putInt(b, at, (int) (v >>> 32));
+        putInt(b, at + 4, (int) v);
+    }
+
+    static void putInt(byte b[], int at, int v) {
+        b[at] = (byte) (v >>> 24);
+        b[at + 1] = (byte) (v >>> 16);
+        b[at + 2] = (byte) (v >>> 8);
+        b[at + 3] = (byte) v;
+    }
+
+    static long getLong(byte b[], int at) {
+        return ((long) getInt(b, at) << 32) | (getInt(b, at + 4) & 0xFFFFFFFFL);
+    }
+
+    static int getInt(byte b[], int at) {
+        return ((b[at] & 0xFF) << 24) | ((b[at + 1] & 0xFF) << 16) | ((b[at + 2] & 0xFF) << 8) | (b[at + 3] & 0xFF);
+    }
+}
@@ -32,6 +32,8 @@ import com.hitorro.util.typesystem.annotation.TypeClassMetaInfo;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 
@@ -48,10 +50,14 @@ public class TermTupleSetGroup implements HTSerializable {
 
     private String m_id;
     private List<TermTupleSet> m_sets = new ArrayList<TermTupleSet>();
+    // indexed by the id of the section name in m_sectionIds
+    private SectionIds m_sectionIds = new SectionIds();
+    private TermTupleSet m_byId[] = new TermTupleSet[8];
 
     private Comparator<TermTuple> defaultSort;
     private TermMeasureFunction defaultFunc;
     private DocumentInverter documentInverter;
+    private DocumentInverterPool inverterPool;
 
     public TermTupleSetGroup(String field, String filters, Comparator<TermTuple> sortFunction, TermMeasureFunction func) {
         defaultSort = sortFunction;
@@ -59,6 +65,19 @@ public class TermTupleSetGroup implements HTSerializable {
         documentInverter = new DocumentInverter(field, filters, func, sortFunction);
     }
 
+    /**
+     * Build a group that inverts with the calling thread's inverter from the pool rather than owning one.
+     *
+     * @param pool
+     * @param sortFunction
+     * @param func
+     */
+    public TermTupleSetGroup(DocumentInverterPool pool, Comparator<TermTuple> sortFunction, TermMeasureFunction func) {
+        defaultSort = sortFunction;
+        defaultFunc = func;
+        inverterPool = pool;
+    }
+
     public void setSortFunction(Comparator<TermTuple> sortFunc) {
         defaultSort = sortFunc;
     }
@@ -85,8 +104,31 @@ public class TermTupleSetGroup implements HTSerializable {
         }
     }
 
+    /**
+     * Invert all the sections in one pass, adding a set per section and, if combinedSection is not null, one for
+     * the whole document without a further merge.
+     *
+     * @param sections
+     * @param texts
+     * @param language
+     * @param combinedSection
+     * @throws IOException
+     */
+    public void addSections(String sections[], String texts[], IsoLanguage language, String combinedSection) throws IOException {
+        for (TermTupleSet set : getInverter().setSections(sections, texts, language, combinedSection)) {
+            addTupleSet(set);
+        }
+    }
+
     public void add(String section, String text, IsoLanguage language) throws IOException {
-        this.addTupleSet(documentInverter.setText(section, text, language));
+        this.addTupleSet(getInverter().setText(section, text, language));
+    }
+
+    private DocumentInverter getInverter() {
+        if (inverterPool != null) {
+            return inverterPool.get();
+        }
+        return documentInverter;
     }
 
     /**
@@ -105,12 +147,71 @@ public class TermTupleSetGroup implements HTSerializable {
         return true;
     }
 
+    /**
+     * Merge any number of sections into a new one in a single pass.
+     *
+     * @param sections
+     * @param targetSectionName
+     * @return false if a section is missing
+     */
+    public boolean merge(String sections[], String targetSectionName) {
+        List<TermTupleSet> sets = new ArrayList<TermTupleSet>(sections.length);
+        for (String section : sections) {
+            TermTupleSet s = getByNameAux(section);
+            if (s == null) {
+                return false;
+            }
+            sets.add(s);
+        }
+        addTupleSet(TermTupleSetMerger.merge(sets, targetSectionName));
+        return true;
+    }
+
     public void clear() {
         m_sets.clear();
+        m_sectionIds.clear();
+        Arrays.fill(m_byId, null);
     }
 
     public void addTupleSet(TermTupleSet set) {
         m_sets.add(set);
+        index(set);
+    }
+
+    private void index(TermTupleSet set) {
+        if (set.getSectionName() == null) {
+            return;
+        }
+        int id = m_sectionIds.intern(set.getSectionName());
+        if (id >= m_byId.length) {
+            m_byId = Arrays.copyOf(m_byId, Math.max(id + 1, m_byId.length << 1));
+        }
+        if (m_byId[id] == null) {
+            m_byId[id] = set;
+        }
+    }
+
+    /**
+     * @return read only view of the sets, add through {@link #addTupleSet(TermTupleSet)} so they are indexed
+     */
+    public List<TermTupleSet> getSets() {
+        return Collections.unmodifiableList(m_sets);
+    }
+
+    /**
+     * @param sectionName
+     * @return the id of the section in this group or -1 if there is no such section
+     */
+    public int getSectionId(String sectionName) {
+        return m_sectionIds.get(sectionName);
+    }
+
+    /**
+     * @param sectionId from {@link #getSectionId(String)}
+     * @return the set or null
+     */
+    public TermTupleSet getById(int sectionId) {
+        return sectionId >= 0 && sectionId < m_byId.length ? m_byId[sectionId] : null;
     }
 
     /**
@@ -175,12 +276,7 @@ public class TermTupleSetGroup implements HTSerializable {
     }
 
     protected TermTupleSet getByNameAux(String setName) {
-        for (TermTupleSet s : m_sets) {
-            if (setName.equals(s.getSectionName())) {
-                return s;
-            }
-        }
-        return null;
+        return getById(m_sectionIds.get(setName));
     }
 
     public void serialize(HTObjectOutputStream os) throws IOException, StoreException {
@@ -193,6 +289,9 @@ public class TermTupleSetGroup implements HTSerializable {
         int version = os.readInt();
         m_id = os.readString();
         os.readListOfHTSerializable(m_sets);
+        for (TermTupleSet set : m_sets) {
+            index(set);
+        }
     }
 
     public int getSerializationVersion() {
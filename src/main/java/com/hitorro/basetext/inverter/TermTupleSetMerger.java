@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2006-2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.hitorro.basetext.inverter;
+
+import java.util.List;
+
+/**
+ * N-way merge of term tuple sets by hash, summing the tf of terms common to several sets.
+ * <p/>
+ * Each input is put in hash order (a no-op if it already is) and a binary heap of cursors, keyed on the current
+ * hash of each input, yields the terms in hash order.  The hashes the inputs already carry are reused, nothing is
+ * rehashed and no intermediate sets are built, so merging a collection's worth of document sets costs
+ * O(total terms * log sets) rather than the repeated pairwise {@link TermTupleSet#mergeSet} passes.
+ */
+public class TermTupleSetMerger {
+    /**
+     * Cap on the rows preallocated for a merged set, the sum of input sizes overestimates badly when terms repeat.
+     */
+    public static final int MaxPreallocate = 1 << 20;
+
+    /**
+     * Receives the merged terms in ascending hash order.
+     */
+    public interface Sink {
+        void term(long hash, String term, int tf);
+    }
+
+    private final List<? extends TermTuple> lists[];
+    private final int pos[];
+    private final long current[];
+    private final int heap[];
+    private int heapSize = 0;
+    private int wordCount = 0;
+    private long totalTerms = 0;
+    private int largest = 0;
+
+    @SuppressWarnings("unchecked")
+    public TermTupleSetMerger(List<? extends TermTupleSet> sets) {
+        int n = sets.size();
+        lists = new List[n];
+        pos = new int[n];
+        current = new long[n];
+        heap = new int[n];
+        for (int i = 0; i < n; i++) {
+            TermTupleSet<? extends TermTuple> set = sets.get(i);
+            set.sortByHashAscend();
+            lists[i] = set.getTuplesList();
+            wordCount += set.getWordCount();
+            int size = lists[i].size();
+            totalTerms += size;
+            largest = Math.max(largest, size);
+            if (size > 0) {
+                current[i] = lists[i].get(0).m_hash;
+                heap[heapSize] = i;
+                siftUp(heapSize++);
+            }
+        }
+    }
+
+    /**
+     * Merge into a new set in hash order, the word count is the sum of the inputs'.
+     *
+     * @param sets
+     * @param sectionName
+     * @return
+     */
+    public static TermTupleSet<TermTuple> merge(List<? extends TermTupleSet> sets, String sectionName) {
+        TermTupleSetMerger m = new TermTupleSetMerger(sets);
+        final int wc = m.wordCount;
+        final TermTupleSet<TermTuple> out = new TermTupleSet<TermTuple>(m.getExpectedSize());
+        out.setSectionName(sectionName);
+        out.setWordCount(wc);
+        m.merge(new Sink() {
+            public void term(long hash, String term, int tf) {
+                TermTuple tt = new TermTuple();
+                tt.set(term, hash, tf);
+                tt.normalizeTF(wc);
+                out.add(tt);
+            }
+        });
+        out.setSortedBy(TermTupleSet.s_HashAscend);
+        return out;
+    }
+
+    /**
+     * Merge into columnar form, one row per distinct hash with no per term objects.
+     *
+     * @param sets
+     * @param sectionName
+     * @return
+     */
+    public static ColumnarTermTupleSet mergeColumnar(List<? extends TermTupleSet> sets, String sectionName) {
+        TermTupleSetMerger m = new TermTupleSetMerger(sets);
+        final ColumnarTermTupleSet out = new ColumnarTermTupleSet(m.getExpectedSize());
+        out.setSectionName(sectionName);
+        out.setWordCount(m.wordCount);
+        m.merge(new Sink() {
+            public void term(long hash, String term, int tf) {
+                out.add(hash, tf, term);
+            }
+        });
+        out.setOrder(ColumnarTermTupleSet.Order.HashAscend);
+        return out;
+    }
+
+    /**
+     * Stream the merged terms to the sink.
+     *
+     * @param sink
+     * @return number of distinct terms
+     */
+    public int merge(Sink sink) {
+        int distinct = 0;
+        while (heapSize > 0) {
+            int top = heap[0];
+            long h = current[top];
+            TermTuple first = lists[top].get(pos[top]);
+            String term = first.m_term;
+            int tf = 0;
+            while (heapSize > 0 && current[heap[0]] == h) {
+                int k = heap[0];
+                TermTuple tt = lists[k].get(pos[k]);
+                tf += tt.tf;
+                if (term == null) {
+                    term = tt.m_term;
+                }
+                advance(k);
+            }
+            sink.term(h, term, tf);
+            distinct++;
+        }
+        return distinct;
+    }
+
+    public int getWordCount() {
+        return wordCount;
+    }
+
+    private int getExpectedSize() {
+        return (int) Math.max(largest, Math.min(totalTerms, MaxPreallocate));
+    }
+
+    /**
+     * Move input k on to its next term, dropping it from the heap when it runs out.
+     */
+    private void advance(int k) {
+        int p = ++pos[k];
+        if (p < lists[k].size()) {
+            current[k] = lists[k].get(p).m_hash;
+        } else {
+            heap[0] = heap[--heapSize];
+        }
+        siftDown(0);
+    }
+
+    private void siftUp(int i) {
+        int k = heap[i];
+        long h = current[k];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            int pk = heap[parent];
+            if (current[pk] <= h) {
+                break;
+            }
+            heap[i] = pk;
+            i = parent;
+        }
+        heap[i] = k;
+    }
+
+    private void siftDown(int i) {
+        if (heapSize == 0) {
+            return;
+        }
+        int k = heap[i];
+        long h = current[k];
+        int half = heapSize >>> 1;
+        while (i < half) {
+            int child = (i << 1) + 1;
+            int right = child + 1;
+            if (right < heapSize && current[heap[right]] < current[heap[child]]) {
+                child = right;
+            }
+            if (h <= current[heap[child]]) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = k;
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2006-2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.hitorro.basetext.inverter;
+
+/**
+ * Keeps the K best (slot, measure) pairs seen in a bounded min-heap held in primitive arrays, so the worst kept
+ * entry is checked and replaced in O(log K) and nothing is allocated per offer.  Ties on measure keep the lower slot.
+ * <p/>
+ * Reused via {@link #clear()}, not thread safe.
+ */
+public class TopKTermSelector {
+    private final int k;
+    private final int slots[];
+    private final double measures[];
+    private int size = 0;
+
+    public TopKTermSelector(int k) {
+        if (k < 1) {
+            throw new IllegalArgumentException("k must be greater than zero");
+        }
+        this.k = k;
+        slots = new int[k];
+        measures = new double[k];
+    }
+
+    public int getK() {
+        return k;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param slot
+     * @param measure
+     * @return true if the pair was kept
+     */
+    public boolean offer(int slot, double measure) {
+        if (size < k) {
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!worse(slot, measure, slots[parent], measures[parent])) {
+                    break;
+                }
+                slots[i] = slots[parent];
+                measures[i] = measures[parent];
+                i = parent;
+            }
+            slots[i] = slot;
+            measures[i] = measure;
+            return true;
+        }
+        if (!worse(slots[0], measures[0], slot, measure)) {
+            return false;
+        }
+        siftDown(slot, measure, size);
+        return true;
+    }
+
+    /**
+     * Order the kept entries best first, after which {@link #getSlot(int)} and {@link #getMeasure(int)} read them in
+     * that order.  The heap is consumed, call {@link #clear()} before offering again.
+     */
+    public void sortDescending() {
+        for (int n = size - 1; n > 0; n--) {
+            int s = slots[0];
+            double m = measures[0];
+            siftDown(slots[n], measures[n], n);
+            slots[n] = s;
+            measures[n] = m;
+        }
+    }
+
+    public int getSlot(int i) {
+        return slots[i];
+    }
+
+    public double getMeasure(int i) {
+        return measures[i];
+    }
+
+    /**
+     * Place an entry at the root of a heap of size n and sift it down.
+     */
+    private void siftDown(int slot, double measure, int n) {
+        int i = 0;
+        int half = n >>> 1;
+        while (i < half) {
+            int child = (i << 1) + 1;
+            int right = child + 1;
+            if (right < n && worse(slots[right], measures[right], slots[child], measures[child])) {
+                child = right;
+            }
+            if (!worse(slots[child], measures[child], slot, measure)) {
+                break;
+            }
+            slots[i] = slots[child];
+            measures[i] = measures[child];
+            i = child;
+        }
+        slots[i] = slot;
+        measures[i] = measure;
+    }
+
+    private static boolean worse(int slotA, double a, int slotB, double b) {
+        return a < b || (a == b && slotA > slotB);
+    }
+}
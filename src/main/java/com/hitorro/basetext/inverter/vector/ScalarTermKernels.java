@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2006-2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.hitorro.basetext.inverter.vector;
+
+import com.hitorro.basetext.inverter.TermTuple;
+
+/**
+ * Plain loop kernels, used when jdk.incubator.vector is not available.
+ */
+final class ScalarTermKernels extends TermKernels {
+
+    ScalarTermKernels() {
+    }
+
+    @Override
+    public boolean isVectorized() {
+        return false;
+    }
+
+    @Override
+    public void tfidf(int tf[], int df[], int n, int wordCount, double corpusSize, double dfMinTolerance,
+                      double out[]) {
+        for (int i = 0; i < n; i++) {
+            double normTf = ((double) tf[i] / wordCount) * TermTuple.TFMultFactor;
+            double normDf = ((double) df[i] / corpusSize) * TermTuple.DFMultiFactor;
+            out[i] = normDf < dfMinTolerance ? -Double.MAX_VALUE : normTf / normDf * TermTuple.DFMultiFactor;
+        }
+    }
+
+    @Override
+    public double norm(double v[], int n) {
+        double sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += v[i] * v[i];
+        }
+        return Math.sqrt(sum);
+    }
+
+    @Override
+    public void scale(double v[], int n, double s) {
+        for (int i = 0; i < n; i++) {
+            v[i] *= s;
+        }
+    }
+
+    @Override
+    protected int seek(long hash[], int from, int n, long x) {
+        while (from < n && hash[from] < x) {
+            from++;
+        }
+        return from;
+    }
+}
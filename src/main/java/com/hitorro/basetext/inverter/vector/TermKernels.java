@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2006-2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.hitorro.basetext.inverter.vector;
+
+/**
+ * Inner loops of term weighting and similarity over primitive columns: bulk TFIDF, norms and merge join dot products
+ * of hash sorted sparse vectors.
+ * <p/>
+ * {@link #get()} hands out the jdk.incubator.vector implementation when it was built (the simd profile, its source is in
+ * src/simd/java) and the module is enabled (--add-modules jdk.incubator.vector), and a scalar one otherwise, both give the same TFIDF weights and dot products;
+ * norms may differ in the last bits as the SIMD sum is reduced in a different order.  Setting the system property
+ * hitorro.vector.disable forces the scalar kernels.
+ */
+public abstract class TermKernels {
+    public static final String DisableProperty = "hitorro.vector.disable";
+    private static final String SimdClass = "com.hitorro.basetext.inverter.vector.SimdTermKernels";
+    private static final TermKernels s_kernels = load();
+    private static final TermKernels s_scalar = new ScalarTermKernels();
+
+    private static TermKernels load() {
+        if (!Boolean.getBoolean(DisableProperty)) {
+            try {
+                return (TermKernels) Class.forName(SimdClass).getDeclaredConstructor().newInstance();
+            } catch (Throwable e) {
+                // not built or module not enabled, fall through to scalar
+            }
+        }
+        return new ScalarTermKernels();
+    }
+
+    public static TermKernels get() {
+        return s_kernels;
+    }
+
+    public static TermKernels scalar() {
+        return s_scalar;
+    }
+
+    public abstract boolean isVectorized();
+
+    /**
+     * Classic TFIDF of n terms, as {@link com.hitorro.basetext.inverter.TFIDFTermMeasureFunction} computes it one
+     * tuple at a time.  Terms whose normalized df is below dfMinTolerance get -Double.MAX_VALUE.
+     *
+     * @param tf
+     * @param df
+     * @param n
+     * @param wordCount      words in the section
+     * @param corpusSize     documents in the df index
+     * @param dfMinTolerance
+     * @param out
+     */
+    public abstract void tfidf(int tf[], int df[], int n, int wordCount, double corpusSize, double dfMinTolerance,
+                               double out[]);
+
+    /**
+     * @param v
+     * @param n
+     * @return the L2 norm of the first n values
+     */
+    public abstract double norm(double v[], int n);
+
+    /**
+     * Multiply the first n values by s in place.
+     */
+    public abstract void scale(double v[], int n, double s);
+
+    /**
+     * Scale the first n values to unit length, a zero vector is left alone.
+     *
+     * @param v
+     * @param n
+     * @return the norm before scaling
+     */
+    public double normalize(double v[], int n) {
+        double norm = norm(v, n);
+        if (norm > 0) {
+            scale(v, n, 1.0 / norm);
+        }
+        return norm;
+    }
+
+    /**
+     * Dot product of two sparse vectors given as ascending hash and value columns, summing the products of the
+     * values whose hashes match.
+     */
+    public double dot(long hashA[], double valA[], int nA, long hashB[], double valB[], int nB) {
+        double sum = 0;
+        int i = 0;
+        int j = 0;
+        while (i < nA && j < nB) {
+            long a = hashA[i];
+            long b = hashB[j];
+            if (a == b) {
+                sum += valA[i] * valB[j];
+                i++;
+                j++;
+            } else if (a < b) {
+                i = seek(hashA, i + 1, nA, b);
+            } else {
+                j = seek(hashB, j + 1, nB, a);
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * @return the cosine of two sparse vectors, 0 if either is empty
+     */
+    public double cosine(long hashA[], double valA[], int nA, long hashB[], double valB[], int nB) {
+        double d = norm(valA, nA) * norm(valB, nB);
+        if (d == 0) {
+            return 0;
+        }
+        return dot(hashA, valA, nA, hashB, valB, nB) / d;
+    }
+
+    /**
+     * @param hash ascending
+     * @param from
+     * @param n
+     * @param x
+     * @return the first index at or after from whose hash is not less than x, n if there is none
+     */
+    protected abstract int seek(long hash[], int from, int n, long x);
+}
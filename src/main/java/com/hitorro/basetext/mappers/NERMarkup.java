@@ -23,6 +23,7 @@ package com.hitorro.basetext.mappers;
 
 import com.hitorro.language.IsoLanguage;
 import com.hitorro.obj.core.GenericAnalyzer;
+import com.hitorro.obj.core.GenericAnalyzerRegistry;
 import com.hitorro.util.io.ResetableStringReader;
 import org.apache.lucene.analysis.TokenStream;
 import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
@@ -38,7 +39,7 @@ public class NERMarkup {
     private StringBuilder sb = new StringBuilder();
 
     public NERMarkup(String filters, IsoLanguage lang) {
-        ga = new GenericAnalyzer(filters, lang, GenericAnalyzer.Mode.Query);
+        ga = GenericAnalyzerRegistry.get(filters, lang, GenericAnalyzer.Mode.Query);
     }
 
     public String process(String s) throws IOException {
@@ -48,13 +49,18 @@ public class NERMarkup {
         // PositionIncrementAttribute pia = ts.getAttribute(PositionIncrementAttribute.class);
         sb.setLength(0);
 
-        while (ts.incrementToken()) {
-            if (sb.length() > 0) {
-                sb.append(" ");
+        try {
+            ts.reset();
+            while (ts.incrementToken()) {
+                if (sb.length() > 0) {
+                    sb.append(" ");
+                }
+                sb.append(termAttribute.toString());
             }
-            sb.append(termAttribute.toString());
+            ts.end();
+        } finally {
+            ts.close();
         }
-        ts.close();
         return sb.toString();
     }
 }
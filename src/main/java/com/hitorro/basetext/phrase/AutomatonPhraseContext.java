@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2006-2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.hitorro.basetext.phrase;
+
+/**
+ * An FPPhraseContext that matches against a PhraseAutomaton in a single pass instead of combining and probing every
+ * 1..n token window against an FPHashDict.  Each token costs one fingerprint and an amortized constant number of
+ * edge lookups; every dictionary phrase ending at the token is reported through phraseMatch with the same combined
+ * fingerprint PhraseIndex uses.
+ * <p/>
+ * Matches are reported as they complete (ordered by end position, longest first) and the character offsets span the
+ * whole phrase.  The layer reported is always 0.
+ */
+public class AutomatonPhraseContext extends FPPhraseContext {
+    protected PhraseAutomaton automaton;
+    protected int state = PhraseAutomaton.Root;
+    protected int startOffsets[];
+
+    public AutomatonPhraseContext(PhraseAutomaton automaton, boolean recordStrings) {
+        super(Math.max(1, automaton.getMaxDepth()), null, recordStrings);
+        if (!automaton.isBuilt()) {
+            automaton.build();
+        }
+        this.automaton = automaton;
+        startOffsets = new int[maxDepth];
+    }
+
+    public PhraseAutomaton getAutomaton() {
+        return automaton;
+    }
+
+    public void reset() {
+        super.reset();
+        state = PhraseAutomaton.Root;
+    }
+
+    /**
+     * Matches are emitted as each token arrives so there is no window to drain.
+     */
+    public void end() {
+        state = PhraseAutomaton.Root;
+    }
+
+    protected void add(final char buff[], int length, long fp, int charStartOffset, int charEndOffset) {
+        int ind = m_fill % maxDepth;
+        if (recordStrings) {
+            if (m_buffer[ind].length < length) {
+                m_buffer[ind] = new char[length];
+            }
+            System.arraycopy(buff, 0, m_buffer[ind], 0, length);
+            bufferL[ind] = length;
+        }
+        startOffsets[ind] = charStartOffset;
+        fpbuffer[ind] = fp;
+
+        state = automaton.step(state, fp);
+        for (int s = automaton.firstMatch(state); s != PhraseAutomaton.NoState; s = automaton.nextMatch(s)) {
+            int size = automaton.getDepth(s);
+            int start = m_fill - size + 1;
+            String txt = recordStrings ? getWindowText(start, size) : null;
+            phraseMatch(automaton.getPhraseFingerprint(s), start, size, txt, automaton.getValue(s), 0,
+                    startOffsets[start % maxDepth], charEndOffset);
+        }
+        m_fill++;
+        currRead = m_fill;
+    }
+
+    protected String getWindowText(final int start, final int size) {
+        m_builder.setLength(0);
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                m_builder.append(" ");
+            }
+            int ind = (start + i) % maxDepth;
+            m_builder.append(m_buffer[ind], 0, bufferL[ind]);
+        }
+        return m_builder.toString();
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2006-2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.hitorro.basetext.phrase;
+
+/**
+ * FPPhraseEmitter that walks a PhraseAutomaton trie from the window head rather than combining the fingerprints of
+ * every 2..n window and probing a DF index for each.  The walk stops at the first token with no edge, so most
+ * windows cost a single lookup.  Output is identical to FPPhraseEmitter over a PhraseIndex built from the same
+ * phrases.
+ */
+public class AutomatonPhraseEmitter extends FPPhraseEmitter {
+    protected PhraseAutomaton automaton;
+
+    public AutomatonPhraseEmitter(int maxDepth, int minDepth, PhraseAutomaton automaton) {
+        super(maxDepth, minDepth, null);
+        this.automaton = automaton;
+    }
+
+    protected void emitAux(int maxLength) {
+        int state = automaton.child(PhraseAutomaton.Root, getHash(currRead));
+        for (int i = 1; i < maxLength && state != PhraseAutomaton.NoState; i++) {
+            state = automaton.child(state, getHash(currRead + i));
+            if (state != PhraseAutomaton.NoState && automaton.isTerminal(state)) {
+                buf[addPtr++ % maxDepth] = getOutput(i + 1);
+                this.queueSize++;
+            }
+        }
+        currRead++;
+    }
+}
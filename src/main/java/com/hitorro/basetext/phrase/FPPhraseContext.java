@@ -145,6 +145,13 @@ public class FPPhraseContext {
     }
 
     protected void add(final char buff[], int length, int charStartOffset, int charEndOffset) {
+        add(buff, length, FPHash64.getFingerprint(buff, length), charStartOffset, charEndOffset);
+    }
+
+    /**
+     * Add a token whose fingerprint is already known (FingerprintAttribute).
+     */
+    protected void add(final char buff[], int length, long fp, int charStartOffset, int charEndOffset) {
         this.charStartOffset = charStartOffset;
         this.charEndOffset = charEndOffset;
         int ind = m_fill % maxDepth;
@@ -155,7 +162,7 @@ public class FPPhraseContext {
             System.arraycopy(buff, 0, m_buffer[ind], 0, length);
             bufferL[ind] = length;
         }
-        fpbuffer[ind] = FPHash64.getFingerprint(buff, length);
+        fpbuffer[ind] = fp;
 
         m_fill++;
         if (m_fill >= maxDepth) {
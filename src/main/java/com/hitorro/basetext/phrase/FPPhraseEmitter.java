@@ -24,6 +24,8 @@ package com.hitorro.basetext.phrase;
 import com.hitorro.basetext.dfindex.BaseDFIndexInterface;
 import com.hitorro.util.core.hash.FPHash64;
 
+import java.io.IOException;
+
 /**
 
  * <p>
@@ -66,6 +68,17 @@ public class FPPhraseEmitter extends PhraseEmitter {
         m_fill++;
     }
 
+    /**
+     * Add a token whose fingerprint is already known (FingerprintAttribute) and emit.
+     */
+    public final void addToken(final String tok, final long fp) throws IOException {
+        int pos = m_fill % maxDepth;
+        m_buffer[pos] = tok;
+        fps[pos] = fp;
+        m_fill++;
+        emit();
+    }
+
     public final int getOutputSize() {
         return queueSize;
     }
@@ -22,6 +22,7 @@
 package com.hitorro.basetext.phrase;
 
 import com.hitorro.obj.core.FilterContext;
+import com.hitorro.obj.core.FingerprintAttribute;
 import org.apache.lucene.analysis.TokenFilter;
 import org.apache.lucene.analysis.TokenStream;
 import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
@@ -35,6 +36,7 @@ import java.io.IOException;
 public class Phrase2 extends TokenFilter {
     private FPPhraseContext emitter;
     private CharTermAttribute termAtt;
+    private FingerprintAttribute fpAtt;
 
     public Phrase2(TokenStream in, FilterContext fc) {
         super(in);
@@ -44,13 +46,18 @@ public class Phrase2 extends TokenFilter {
         emitter.reset();
 
         termAtt = addAttribute(CharTermAttribute.class);
+        fpAtt = getAttribute(FingerprintAttribute.class);
     }
 
     public final boolean incrementToken() throws IOException {
         if (input.incrementToken()) {
             PackedTokenAttributeImpl i = (PackedTokenAttributeImpl) termAtt;
 
-            emitter.add(termAtt.buffer(), termAtt.length(), i.startOffset(), i.endOffset());
+            if (fpAtt != null) {
+                emitter.add(termAtt.buffer(), termAtt.length(), fpAtt.getFingerprint(), i.startOffset(), i.endOffset());
+            } else {
+                emitter.add(termAtt.buffer(), termAtt.length(), i.startOffset(), i.endOffset());
+            }
             return true;
         }
         emitter.end();
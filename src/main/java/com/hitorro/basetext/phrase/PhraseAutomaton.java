@@ -0,0 +1,408 @@
+/*
+ * Copyright (c) 2006-2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.hitorro.basetext.phrase;
+
+import com.hitorro.util.basefile.fs.BaseFile;
+import com.hitorro.util.core.hash.FPHash64;
+import com.hitorro.util.core.string.StringUtil;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * A token level trie / Aho-Corasick automaton over token fingerprints.  Each edge is labelled with the FPHash64
+ * fingerprint of a single token so a phrase dictionary can be matched in one pass over a token stream instead of
+ * combining and probing every 1..n window against a hash dictionary.
+ * <p/>
+ * All state lives in primitive arrays: the edges are an open addressed table keyed on (state, token fingerprint)
+ * and every state carries its fail link, output link (next terminal state on the fail chain), depth, value and the
+ * combined phrase fingerprint.  The phrase fingerprint is built with FPHash64.combineFingerPrints exactly as
+ * PhraseIndex does, so a match reports the same fingerprint the DF/phrase indexes use.
+ * <p/>
+ * Usage: add phrases, call build() and then either walk the trie with child() (prefix walks anchored at a token) or
+ * stream tokens through step() and report the terminal states along the output chain (all matches ending at a
+ * token).
+ */
+public class PhraseAutomaton {
+    public static final int Root = 0;
+    public static final int NoState = -1;
+
+    private static final long Mix = 0x9E3779B97F4A7C15L;
+
+    // per state
+    private int stateCount = 1;
+    private int fail[];
+    private int output[];
+    private int depth[];
+    private long value[];
+    private long phraseFp[];
+    private boolean terminal[];
+    private long inToken[];
+    private int firstChild[];
+    private int nextSibling[];
+
+    // edges (state, token fp) -> state
+    private int edgeFrom[];
+    private long edgeToken[];
+    private int edgeTo[];
+    private int edgeMask;
+    private int edgeCount = 0;
+
+    private int phraseCount = 0;
+    private int maxDepth = 0;
+    private boolean built = false;
+
+    public PhraseAutomaton() {
+        this(1024);
+    }
+
+    public PhraseAutomaton(int expectedStates) {
+        int size = Math.max(16, expectedStates);
+        fail = new int[size];
+        output = new int[size];
+        depth = new int[size];
+        value = new long[size];
+        phraseFp = new long[size];
+        terminal = new boolean[size];
+        inToken = new long[size];
+        firstChild = new int[size];
+        nextSibling = new int[size];
+        firstChild[Root] = NoState;
+        nextSibling[Root] = NoState;
+
+        int edges = Integer.highestOneBit(Math.max(16, size * 2) - 1) << 1;
+        allocateEdges(edges);
+    }
+
+    /**
+     * Build an automaton from the text dump written by PhraseIndex.createIndex (phrases.dicttext) where each line is
+     * "phrase, parts, fingerprint".
+     *
+     * @param dir the phrase index directory
+     * @return
+     * @throws IOException
+     */
+    public static PhraseAutomaton fromPhraseIndexDir(BaseFile dir) throws IOException {
+        BaseFile f = dir.getChild(PhraseIndex.DictTextFile);
+        BufferedReader r = new BufferedReader(f.getReader());
+        try {
+            PhraseAutomaton pa = new PhraseAutomaton();
+            pa.addDictText(r);
+            pa.build();
+            return pa;
+        } finally {
+            r.close();
+        }
+    }
+
+    /**
+     * Build an automaton from the same phrase element source PhraseIndex.createIndex consumes.
+     *
+     * @param iter
+     * @return
+     */
+    public static PhraseAutomaton fromPhraseElements(Iterator<PhraseElement> iter) {
+        PhraseAutomaton pa = new PhraseAutomaton();
+        pa.addAll(iter);
+        pa.build();
+        return pa;
+    }
+
+    private void allocateEdges(int size) {
+        edgeFrom = new int[size];
+        edgeToken = new long[size];
+        edgeTo = new int[size];
+        Arrays.fill(edgeFrom, NoState);
+        edgeMask = size - 1;
+    }
+
+    private static int slot(int state, long tokenFp, int mask) {
+        long h = tokenFp ^ (state * Mix);
+        h ^= (h >>> 29);
+        h *= Mix;
+        return (int) (h >>> 32) & mask;
+    }
+
+    private void growEdges() {
+        int from[] = edgeFrom;
+        long tok[] = edgeToken;
+        int to[] = edgeTo;
+        allocateEdges(from.length << 1);
+        for (int i = 0; i < from.length; i++) {
+            if (from[i] != NoState) {
+                putEdge(from[i], tok[i], to[i]);
+            }
+        }
+    }
+
+    private void putEdge(int state, long tokenFp, int target) {
+        int i = slot(state, tokenFp, edgeMask);
+        while (edgeFrom[i] != NoState) {
+            i = (i + 1) & edgeMask;
+        }
+        edgeFrom[i] = state;
+        edgeToken[i] = tokenFp;
+        edgeTo[i] = target;
+    }
+
+    private void ensureStates(int size) {
+        if (size <= fail.length) {
+            return;
+        }
+        int n = Math.max(size, fail.length + (fail.length >> 1));
+        fail = Arrays.copyOf(fail, n);
+        output = Arrays.copyOf(output, n);
+        depth = Arrays.copyOf(depth, n);
+        value = Arrays.copyOf(value, n);
+        phraseFp = Arrays.copyOf(phraseFp, n);
+        terminal = Arrays.copyOf(terminal, n);
+        inToken = Arrays.copyOf(inToken, n);
+        firstChild = Arrays.copyOf(firstChild, n);
+        nextSibling = Arrays.copyOf(nextSibling, n);
+    }
+
+    private int newChild(int parent, long tokenFp) {
+        int s = stateCount++;
+        ensureStates(stateCount);
+        depth[s] = depth[parent] + 1;
+        phraseFp[s] = parent == Root ? tokenFp : FPHash64.combineFingerPrints(phraseFp[parent], tokenFp);
+        inToken[s] = tokenFp;
+        firstChild[s] = NoState;
+        nextSibling[s] = firstChild[parent];
+        firstChild[parent] = s;
+        fail[s] = Root;
+        output[s] = NoState;
+
+        if ((edgeCount + 1) * 2 > edgeFrom.length) {
+            growEdges();
+        }
+        putEdge(parent, tokenFp, s);
+        edgeCount++;
+        return s;
+    }
+
+    /**
+     * Add a phrase given as a sequence of token fingerprints.  Adding the same phrase again accumulates its value.
+     *
+     * @param tokens token fingerprints (FPHash64.getFP of each token)
+     * @param len    number of tokens to use
+     * @param val    value attributed to the phrase
+     * @return the terminal state of the phrase
+     */
+    public int add(long tokens[], int len, long val) {
+        if (built) {
+            throw new IllegalStateException("PhraseAutomaton already built");
+        }
+        if (len <= 0) {
+            throw new IllegalArgumentException("Empty phrase");
+        }
+        int s = Root;
+        for (int i = 0; i < len; i++) {
+            int c = child(s, tokens[i]);
+            s = c == NoState ? newChild(s, tokens[i]) : c;
+        }
+        if (!terminal[s]) {
+            terminal[s] = true;
+            phraseCount++;
+            if (len > maxDepth) {
+                maxDepth = len;
+            }
+        }
+        value[s] += val;
+        return s;
+    }
+
+    /**
+     * Add a space separated phrase, each occurrence adds one to its value as PhraseIndex.incrementFrequency does.
+     *
+     * @param phrase
+     * @return
+     */
+    public int add(String phrase) {
+        String parts[] = StringUtil.tokenizeFromSingleChar(phrase, " ");
+        long fps[] = new long[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            fps[i] = FPHash64.getFP(parts[i]);
+        }
+        return add(fps, fps.length, 1);
+    }
+
+    public void addAll(Iterator<PhraseElement> iter) {
+        while (iter.hasNext()) {
+            add(iter.next().getPhrase());
+        }
+    }
+
+    /**
+     * Load the lines of a phrases.dicttext dump.
+     *
+     * @param r
+     * @throws IOException
+     */
+    public void addDictText(BufferedReader r) throws IOException {
+        String line;
+        while ((line = r.readLine()) != null) {
+            int fpSep = line.lastIndexOf(", ");
+            if (fpSep <= 0) {
+                continue;
+            }
+            int partSep = line.lastIndexOf(", ", fpSep - 1);
+            if (partSep <= 0) {
+                continue;
+            }
+            add(line.substring(0, partSep));
+        }
+    }
+
+    public void addDictText(Reader r) throws IOException {
+        addDictText(r instanceof BufferedReader ? (BufferedReader) r : new BufferedReader(r));
+    }
+
+    /**
+     * Compute the fail and output links breadth first.  After this the automaton is read only.
+     */
+    public void build() {
+        if (built) {
+            return;
+        }
+        int queue[] = new int[stateCount];
+        int head = 0;
+        int tail = 0;
+        for (int c = firstChild[Root]; c != NoState; c = nextSibling[c]) {
+            fail[c] = Root;
+            output[c] = NoState;
+            queue[tail++] = c;
+        }
+        while (head < tail) {
+            int s = queue[head++];
+            for (int c = firstChild[s]; c != NoState; c = nextSibling[c]) {
+                long tok = inToken[c];
+                int f = fail[s];
+                int next;
+                while ((next = child(f, tok)) == NoState && f != Root) {
+                    f = fail[f];
+                }
+                fail[c] = next == NoState ? Root : next;
+                int fc = fail[c];
+                output[c] = terminal[fc] ? fc : output[fc];
+                queue[tail++] = c;
+            }
+        }
+        built = true;
+    }
+
+    public boolean isBuilt() {
+        return built;
+    }
+
+    /**
+     * Trie transition.
+     *
+     * @param state
+     * @param tokenFp
+     * @return the child state or NoState
+     */
+    public final int child(int state, long tokenFp) {
+        int i = slot(state, tokenFp, edgeMask);
+        int from;
+        while ((from = edgeFrom[i]) != NoState) {
+            if (from == state && edgeToken[i] == tokenFp) {
+                return edgeTo[i];
+            }
+            i = (i + 1) & edgeMask;
+        }
+        return NoState;
+    }
+
+    /**
+     * Aho-Corasick transition, follows fail links until the token can be consumed.  Never returns NoState.
+     *
+     * @param state
+     * @param tokenFp
+     * @return
+     */
+    public final int step(int state, long tokenFp) {
+        int next;
+        while ((next = child(state, tokenFp)) == NoState) {
+            if (state == Root) {
+                return Root;
+            }
+            state = fail[state];
+        }
+        return next;
+    }
+
+    /**
+     * First terminal state ending at state: the state itself if terminal otherwise the head of its output chain.
+     *
+     * @param state
+     * @return
+     */
+    public final int firstMatch(int state) {
+        return terminal[state] ? state : output[state];
+    }
+
+    /**
+     * Next terminal state on the output chain (shorter suffix phrase).
+     *
+     * @param state
+     * @return
+     */
+    public final int nextMatch(int state) {
+        return output[state];
+    }
+
+    public final boolean isTerminal(int state) {
+        return terminal[state];
+    }
+
+    public final int getDepth(int state) {
+        return depth[state];
+    }
+
+    public final long getValue(int state) {
+        return value[state];
+    }
+
+    public final long getPhraseFingerprint(int state) {
+        return phraseFp[state];
+    }
+
+    public final int getFail(int state) {
+        return fail[state];
+    }
+
+    public int getStateCount() {
+        return stateCount;
+    }
+
+    public int getPhraseCount() {
+        return phraseCount;
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2006-2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.hitorro.basetext.phrase;
+
+import com.hitorro.util.core.hash.FPHash64;
+import com.hitorro.util.io.largedata.buckets.BaseFileBucketWriter;
+import gnu.trove.map.hash.TLongIntHashMap;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Map side combiner for phrase occurrences.  Rather than writing one PhraseElement per n-gram occurrence into the
+ * bucket writer, occurrences are aggregated in memory keyed by the fingerprint of the phrase text with a single copy
+ * of the text and a count.  When the estimated footprint exceeds the memory budget the aggregated entries are
+ * spilled to the writer sorted in PhraseComparator order, each carrying its aggregated frequency.  PhraseMerger sums
+ * frequencies so the downstream external merge produces the same result with far fewer records.
+ * <p/>
+ * Not thread safe, one per sink.
+ */
+public class PhraseCombiner {
+    /**
+     * Rough per entry cost: String header and array, map slot at 0.5 load, count and reference columns.
+     */
+    public static final int EntryOverhead = 96;
+
+    private final BaseFileBucketWriter<PhraseElement> m_writer;
+    private final long memoryBudget;
+    private TLongIntHashMap m_slotMap = new TLongIntHashMap(1024, 0.5f, 0L, -1);
+    private String phrases[] = new String[1024];
+    private int counts[] = new int[1024];
+    private int size = 0;
+    private long estimatedBytes = 0;
+
+    private long occurrences = 0;
+    private long spilledRecords = 0;
+    private int spills = 0;
+
+    /**
+     * @param writer       bucket writer receiving the pre-aggregated, sorted runs
+     * @param memoryBudget approximate number of bytes the combiner may hold before spilling
+     */
+    public PhraseCombiner(BaseFileBucketWriter<PhraseElement> writer, long memoryBudget) {
+        m_writer = writer;
+        this.memoryBudget = memoryBudget;
+    }
+
+    public void add(final String phrase) throws IOException {
+        add(phrase, 1);
+    }
+
+    public void add(final String phrase, final int frequency) throws IOException {
+        occurrences += frequency;
+        long fp = FPHash64.getFP(phrase);
+        int slot = m_slotMap.get(fp);
+        if (slot != -1) {
+            if (phrases[slot].equals(phrase)) {
+                counts[slot] += frequency;
+            } else {
+                // fingerprint collision, let the external merge sort it out.
+                write(phrase, frequency);
+            }
+            return;
+        }
+        if (size == phrases.length) {
+            phrases = Arrays.copyOf(phrases, size << 1);
+            counts = Arrays.copyOf(counts, size << 1);
+        }
+        phrases[size] = phrase;
+        counts[size] = frequency;
+        m_slotMap.put(fp, size);
+        size++;
+        estimatedBytes += EntryOverhead + (phrase.length() << 1);
+        if (estimatedBytes > memoryBudget) {
+            flush();
+        }
+    }
+
+    /**
+     * Spill every aggregated phrase to the writer in PhraseComparator order and empty the combiner.
+     *
+     * @throws IOException
+     */
+    public void flush() throws IOException {
+        if (size == 0) {
+            return;
+        }
+        PhraseElement run[] = new PhraseElement[size];
+        for (int i = 0; i < size; i++) {
+            PhraseElement pe = new PhraseElement();
+            pe.setPhrase(phrases[i]);
+            pe.setFrequency(counts[i]);
+            run[i] = pe;
+            phrases[i] = null;
+        }
+        Arrays.sort(run, PhraseComparator.pc);
+        for (PhraseElement pe : run) {
+            emit(pe);
+        }
+        spilledRecords += size;
+        spills++;
+        size = 0;
+        estimatedBytes = 0;
+        m_slotMap.clear();
+    }
+
+    private void write(final String phrase, final int frequency) throws IOException {
+        PhraseElement pe = new PhraseElement();
+        pe.setPhrase(phrase);
+        pe.setFrequency(frequency);
+        emit(pe);
+        spilledRecords++;
+    }
+
+    /**
+     * Hand a record to the bucket writer.
+     *
+     * @param pe
+     * @throws IOException
+     */
+    protected void emit(PhraseElement pe) throws IOException {
+        m_writer.add(pe);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return occurrences seen, the number of records the writer would have received without the combiner.
+     */
+    public long getOccurrences() {
+        return occurrences;
+    }
+
+    public long getSpilledRecords() {
+        return spilledRecords;
+    }
+
+    public int getSpillCount() {
+        return spills;
+    }
+}
@@ -22,6 +22,8 @@
 package com.hitorro.basetext.phrase;
 
 import com.hitorro.basetext.dfindex.BaseDFIndexInterface;
+import com.hitorro.obj.core.FingerprintAttribute;
+import com.hitorro.util.core.hash.FPHash64;
 import org.apache.lucene.analysis.TokenFilter;
 import org.apache.lucene.analysis.TokenStream;
 import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
@@ -39,6 +41,7 @@ public class PhraseFilter extends TokenFilter {
     private int maxToken = 0;
     private int currToken = 0;
     private CharTermAttribute termAttLocal;
+    private FingerprintAttribute fpAtt;
 
     public PhraseFilter(TokenStream in, BaseDFIndexInterface baseIndex, int maxDepth, int minDepth) {
         super(in);
@@ -51,11 +54,28 @@ public class PhraseFilter extends TokenFilter {
 
         buf = emitter.getOutputBuffer();
         termAttLocal = addAttribute(CharTermAttribute.class);
+        fpAtt = getAttribute(FingerprintAttribute.class);
+    }
+
+    /**
+     * Emit phrases found in a PhraseAutomaton rather than probing a DF index per window.
+     */
+    public PhraseFilter(TokenStream in, PhraseAutomaton automaton, int maxDepth, int minDepth) {
+        super(in);
+
+        tokens = new char[maxDepth][];
+        currTokenLength = new int[maxDepth];
+
+        emitter = new AutomatonPhraseEmitter(maxDepth, minDepth, automaton);
+
+        buf = emitter.getOutputBuffer();
+        termAttLocal = addAttribute(CharTermAttribute.class);
+        fpAtt = getAttribute(FingerprintAttribute.class);
     }
 
     public final boolean incrementToken() throws IOException {
         if (currToken < maxToken) {
-            termAttLocal.copyBuffer(tokens[currToken], 0, currTokenLength[currToken++]);
+            emitBuffered();
             return true;
         }
         return nextAux();
@@ -64,7 +84,11 @@ public class PhraseFilter extends TokenFilter {
     protected final boolean nextAux() throws IOException {
         if (input.incrementToken()) {
             String t = termAttLocal.toString();
-            emitter.addToken(t);
+            if (fpAtt != null) {
+                emitter.addToken(t, fpAtt.getFingerprint());
+            } else {
+                emitter.addToken(t);
+            }
             grab();
             return true;
         } else {
@@ -72,13 +96,23 @@ public class PhraseFilter extends TokenFilter {
             emitter.close();
             grab();
             if (currToken < maxToken) {
-                termAttLocal.copyBuffer(tokens[currToken], 0, currTokenLength[currToken++]);
+                emitBuffered();
                 return true;
             }
         }
         return maxToken != 0;
     }
 
+    private void emitBuffered() {
+        int len = currTokenLength[currToken];
+        termAttLocal.copyBuffer(tokens[currToken], 0, len);
+        if (fpAtt != null) {
+            // phrase tokens are new terms, keep the fingerprint in step with the text
+            fpAtt.setFingerprint(FPHash64.getFingerprint(tokens[currToken], len));
+        }
+        currToken++;
+    }
+
     private final void grab() {
         size = emitter.getOutputSize();
         if (size > 0) {
@@ -25,8 +25,10 @@ package com.hitorro.basetext.phrase;
 import gnu.trove.iterator.TLongIntIterator;
 import gnu.trove.map.hash.TLongIntHashMap;
 import com.hitorro.basetext.dfindex.BaseDFIndex;
+import com.hitorro.basetext.dfindex.SplitBlockBloomFilter;
 import com.hitorro.util.basefile.fs.BaseFile;
 import com.hitorro.util.core.Console;
+import com.hitorro.util.core.Log;
 import com.hitorro.util.core.hash.FPHash64;
 import com.hitorro.util.core.iterator.AbstractIterator;
 import com.hitorro.util.core.params.HTProperties;
@@ -43,6 +45,7 @@ import java.util.Iterator;
 public class PhraseIndex extends BaseDFIndex {
     public static final String DictTextFile = "phrases.dicttext";
     public static final String DictFile = "phrases.dict";
+    public static final String BloomFile = "phrases.bloom";
 
     public static final String ResourceName = "phraseindex";
 
@@ -159,6 +162,8 @@ public class PhraseIndex extends BaseDFIndex {
         }
         BaseFile dictFile = dir.getChild(DictFile);
         save(dictFile);
+        buildFilter();
+        saveFilter(dir.getChild(BloomFile));
         HTProperties props = new HTProperties();
         props.put("rowcount", count);
         props.put("min", min);
@@ -175,6 +180,7 @@ public class PhraseIndex extends BaseDFIndex {
         int f = m_map.get(hash);
         if (f == 0) {
             m_map.put(hash, 1);
+            keyAdded(hash);
         } else {
             m_map.increment(hash);
         }
@@ -214,6 +220,18 @@ public class PhraseIndex extends BaseDFIndex {
         dos.flush();
     }
 
+    /**
+     * Save the membership filter, read back alongside the dict file.
+     *
+     * @param f
+     * @throws IOException
+     */
+    public void saveFilter(BaseFile f) throws IOException {
+        DataOutputStream dos = f.getDataOutputStream();
+        m_filter.write(dos);
+        dos.close();
+    }
+
     /**
      * @param f
      * @return
@@ -225,9 +243,27 @@ public class PhraseIndex extends BaseDFIndex {
             return false;
         }
         dis.close();
+        readFilter(new File(f.getParentFile(), BloomFile));
         return true;
     }
 
+    /**
+     * Load the persisted filter if there is one that matches the keys, otherwise build it from the map.
+     *
+     * @param f
+     */
+    private void readFilter(File f) {
+        SplitBlockBloomFilter filter = null;
+        if (f.exists()) {
+            try (DataInputStream dis = FileUtil.getDataInputStreamForFile(f)) {
+                filter = SplitBlockBloomFilter.read(dis);
+            } catch (IOException e) {
+                Log.util.error("Unable to read phrase filter %s, rebuilding %s %e", f.getAbsolutePath(), e, e);
+            }
+        }
+        setFilter(filter);
+    }
+
     /**
      * read the index from some data input stream, could be a network connection.
      *
@@ -245,6 +281,8 @@ public class PhraseIndex extends BaseDFIndex {
         this.m_creationDate = dis.readUTF();
 
         int size = dis.readInt();
+        // a filter over the old keys would give false negatives
+        m_filter = null;
         m_map = new TLongIntHashMap(size);
         long hash;
         int freq;
@@ -26,6 +26,7 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.hitorro.basetext.indexer.Log;
 import com.hitorro.language.Iso639Table;
 import com.hitorro.obj.core.GenericAnalyzer;
+import com.hitorro.obj.core.GenericAnalyzerRegistry;
 import com.hitorro.util.basefile.fs.BaseFile;
 import com.hitorro.util.core.Timer;
 import com.hitorro.util.core.iterator.sinks.Sink;
@@ -49,12 +50,19 @@ public class TextToPhraseSink implements Sink<String> {
 
     public static final IntegerProperty PhrasePerBucketKey = new IntegerProperty("phraseperbucket", "how many phrases per initial bucket file", 10000000);
     public static final StringProperty FileExtensionKey = new StringProperty("extension", "file extension", "phrase");
+    /**
+     * The combiner is opt-in, its spills are re-bucketed by the bucket writer so it only pays off on skewed input.
+     */
+    public static final int DefaultCombinerMemoryMB = 0;
+    public static final IntegerProperty CombinerMemoryKey = new IntegerProperty("combinermemorymb", "megabytes of phrases to aggregate in memory before spilling, 0 (the default) disables", DefaultCombinerMemoryMB);
     private BaseFileBucketWriter<PhraseElement> m_writer;
     private PhraseElementPhraseEmitter m_emitter = null;
+    private PhraseCombiner m_combiner = null;
     private GenericAnalyzer analyzer;
     private ResetableStringReader m_reader = new ResetableStringReader(null);
     private int phraseDepth;
     private int minDepth;
+    private int combinerMemoryMB = DefaultCombinerMemoryMB;
     private boolean stopped = false;
     private int count = 0;
     private Timer timer = new Timer();
@@ -63,6 +71,11 @@ public class TextToPhraseSink implements Sink<String> {
         init(analyzers, phraseDepth, minDepth, phrasesPerBucket, dir, fileExtension);
     }
 
+    public TextToPhraseSink(String analyzers, int phraseDepth, int minDepth, int phrasesPerBucket, BaseFile dir, String fileExtension, int combinerMemoryMB) throws IOException {
+        this.combinerMemoryMB = combinerMemoryMB;
+        init(analyzers, phraseDepth, minDepth, phrasesPerBucket, dir, fileExtension);
+    }
+
     public TextToPhraseSink() {
 
     }
@@ -72,7 +85,7 @@ public class TextToPhraseSink implements Sink<String> {
         dir.mkdir();
         PhraseFactory factory = new PhraseFactory();
         // XXX TODO: this should be localized.
-        analyzer = new GenericAnalyzer(analyzers, Iso639Table.english, GenericAnalyzer.Mode.Index);
+        analyzer = GenericAnalyzerRegistry.get(analyzers, Iso639Table.english, GenericAnalyzer.Mode.Index);
         BaseFileBucketWriter<PhraseElement> bw = new BaseFileBucketWriter(phrasesPerBucket, dir, fileExtension, factory);
         this.phraseDepth = phraseDepth;
         setWriter(bw);
@@ -80,12 +93,14 @@ public class TextToPhraseSink implements Sink<String> {
 
     public void setWriter(BaseFileBucketWriter<PhraseElement> writer) {
         m_writer = writer;
-        m_emitter = new PhraseElementPhraseEmitter(phraseDepth, minDepth, writer);
+        m_combiner = combinerMemoryMB > 0 ? new PhraseCombiner(writer, combinerMemoryMB * 1024L * 1024L) : null;
+        m_emitter = new PhraseElementPhraseEmitter(phraseDepth, minDepth, writer, m_combiner);
     }
 
     @Override
     public boolean init(JsonNode node) {
         try {
+            combinerMemoryMB = CombinerMemoryKey.apply(node);
             init(AnalyzersKey.apply(node),
                     PhraseDepthKey.apply(node),
                     MinDepthKey.apply(node),
@@ -112,9 +127,11 @@ public class TextToPhraseSink implements Sink<String> {
         m_reader.set(text);
         TokenStream ts = analyzer.tokenStream("", m_reader);
         CharTermAttribute attr = ts.getAttribute(CharTermAttribute.class);
+        ts.reset();
         while (ts.incrementToken()) {
             m_emitter.addToken(new String(attr.buffer(), 0, attr.length()));
         }
+        ts.end();
         ts.close();
         m_emitter.close();
         count++;
@@ -127,6 +144,11 @@ public class TextToPhraseSink implements Sink<String> {
             return true;
         }
         stopped = true;
+        if (m_combiner != null) {
+            m_combiner.flush();
+            Log.indexer.info("Phrase combiner reduced %s occurrences to %s records in %s spills",
+                    m_combiner.getOccurrences(), m_combiner.getSpilledRecords(), m_combiner.getSpillCount());
+        }
         m_writer.stop();
         return true;
     }
@@ -139,13 +161,23 @@ public class TextToPhraseSink implements Sink<String> {
 
 class PhraseElementPhraseEmitter extends PhraseEmitter {
     private BaseFileBucketWriter<PhraseElement> m_writer;
+    private PhraseCombiner m_combiner;
 
     public PhraseElementPhraseEmitter(int maxDepth, int minDepth, BaseFileBucketWriter<PhraseElement> writer) {
+        this(maxDepth, minDepth, writer, null);
+    }
+
+    public PhraseElementPhraseEmitter(int maxDepth, int minDepth, BaseFileBucketWriter<PhraseElement> writer, PhraseCombiner combiner) {
         super(maxDepth, minDepth);
         m_writer = writer;
+        m_combiner = combiner;
     }
 
     protected void emitToConsumer(String s) throws IOException {
+        if (m_combiner != null) {
+            m_combiner.add(s);
+            return;
+        }
         PhraseElement pe = new PhraseElement();
         pe.setPhrase(s);
         pe.setFrequency(1);
@@ -99,12 +99,42 @@ public class Hash {
     public static int hashSubstring(char[] inString, int startIndex, int inStringLength) {
         int i, j;
         int hashkey = 0;
+        double pow[] = getPowers(inStringLength);
 
         for (i = 0, j = inStringLength; i < inStringLength; i++, j--) {
-            // TODO write intPow so that were not converting to doubles!
-            hashkey += inString[startIndex + i] * Math.pow(HASHBASE, j - 1);
+            // kept in doubles, the saturating conversion is part of the persisted fingerprint values
+            hashkey += inString[startIndex + i] * pow[j - 1];
         }
         return hashkey;
     }
 
+    private static volatile Powers s_powers = new Powers(HASHBASE, 0);
+
+    /**
+     * Table of HASHBASE^i, rebuilt if the base changes or a longer substring is asked for.  The base and the table are
+     * published together through one volatile write of a filled holder.
+     */
+    private static double[] getPowers(int length) {
+        Powers p = s_powers;
+        int base = HASHBASE;
+        if (p.pow.length < length || p.base != base) {
+            p = new Powers(base, Math.max(length, SUBSTRINGLENGTH));
+            s_powers = p;
+        }
+        return p.pow;
+    }
+
+    private static final class Powers {
+        final int base;
+        final double pow[];
+
+        Powers(int base, int length) {
+            this.base = base;
+            pow = new double[length];
+            for (int i = 0; i < length; i++) {
+                pow[i] = Math.pow(base, i);
+            }
+        }
+    }
+
 }
\ No newline at end of file
@@ -41,16 +41,9 @@ public class WinnowingHashWriter implements HashWriter {
     }
 
     public boolean close() {
-        int i, j;
-        int min = Integer.MAX_VALUE;
-        int pos = 0;
-        int temp_pos = 0;
-        int prev_pos = 0;
-
-
         long time = System.currentTimeMillis();
         //fastWinnow(prev_pos, min, pos);
-        slowWinnow(min, pos, prev_pos);
+        dequeWinnow();
         long time2 = System.currentTimeMillis();
         Long val = new Long(time2 - time);
         Long count = new Long(hashCount);
@@ -58,26 +51,38 @@ public class WinnowingHashWriter implements HashWriter {
         return m_writer.close();
     }
 
-    private final void slowWinnow(int min, int pos, int prev_pos) {
-        int i;
-        int j;
-        int temp_pos;
-        for (i = 0; i < currPtr - windowSize + 1; i++) {
-            for (j = 0; j < windowSize; j++) {
-                temp_pos = i + j;
-                if (m_hash[temp_pos] <= min) {
-
-                    pos = temp_pos;
-                    min = m_hash[pos];
-                }
+    /**
+     * Winnow the buffered hashes in linear time.  Writes exactly what the original O(n*w) scan wrote: each window
+     * selects its rightmost minimum, a selection is written when it differs from the previous one, the previous one
+     * starting out as position 0.  The fingerprint sets are persisted so this must not change.
+     */
+    private final void dequeWinnow() {
+        if (currPtr < windowSize) {
+            return;
+        }
+        // positions with strictly increasing hashes, the front is the rightmost minimum of the window
+        int deque[] = new int[currPtr];
+        int head = 0;
+        int tail = 0;
+        int prev_pos = 0;
+        for (int i = 0; i < currPtr; i++) {
+            while (tail != head && m_hash[deque[tail - 1]] >= m_hash[i]) {
+                tail--;
             }
-            // Slide forward and only write out hash once
+            deque[tail++] = i;
+            int windowStart = i - windowSize + 1;
+            if (windowStart < 0) {
+                continue;
+            }
+            while (deque[head] < windowStart) {
+                head++;
+            }
+            int pos = deque[head];
             if (pos != prev_pos) {
                 hashCount++;
                 m_writer.write(m_hash[pos], pos);
                 prev_pos = pos;
             }
-            min = Integer.MAX_VALUE;
         }
     }
 
@@ -34,22 +34,21 @@ public class HashBase {
     private int hashingWindowSize;
 
 
-    // pow(2, window - ith position) for purposes of generating hashes.
-    private int mult[];
+    // weight of the value leaving the window, 2^(window - 1).
+    private int outWeight;
+    private int hash = 0;
 
     private SetHash nextStep;
 
     public HashBase(int windowSize, SetHash nextStep) {
         this.hashingWindowSize = windowSize;
         this.nextStep = nextStep;
-        mult = new int[windowSize];
-        for (int i = 0; i < windowSize; i++) {
-            mult[i] = 1 << (windowSize - i - 1);
-        }
+        outWeight = 1 << (windowSize - 1);
     }
 
     public void reset() {
         curr = 0;
+        hash = 0;
         nextStep.reset();
     }
 
@@ -66,16 +65,18 @@ public class HashBase {
         }
     }
 
+    /**
+     * Rolling update of sum(v[i] * 2^(window - 1 - i)), the value leaving the window is taken out rather than the whole
+     * window being rehashed.
+     */
     private final void set(int v) {
+        if (curr >= hashingWindowSize) {
+            hash -= buff[(curr - hashingWindowSize) % buffSize] * outWeight;
+        }
+        hash = (hash << 1) + v;
         buff[curr++ % buffSize] = v;
         if (curr >= hashingWindowSize) {
-            int hash = 0;
-            int wStart = curr - hashingWindowSize;
-            for (int i = 0; i < hashingWindowSize; i++) {
-                hash += buff[(wStart + i) % buffSize] * mult[i];
-            }
             nextStep.setHash(hash);
-
         }
     }
 }
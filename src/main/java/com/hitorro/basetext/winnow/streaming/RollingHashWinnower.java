@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2006-2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.hitorro.basetext.winnow.streaming;
+
+import com.hitorro.basetext.winnow.Hash;
+import com.hitorro.basetext.winnow.HashWriter;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+
+/**
+ * Linear time, constant memory winnowing.  Characters are consumed one at a time from a {@link Reader} or
+ * {@link CharBuffer}, the k-gram hash is maintained with a Rabin-Karp rolling update and the fingerprints are chosen
+ * by a {@link WinnowWindow}.  Each fingerprint is written as (hash, position of the first char of its k-gram).
+ * <p/>
+ * The hash is sum(c[i] * base^(k-1-i)) in 32 bit int arithmetic.  With the default base of {@link Hash#HASHBASE} this
+ * is the same value {@link HashBase} computes, and the same as {@link Hash#hashSubstring} for ASCII text.
+ */
+public class RollingHashWinnower {
+    private final int kgram;
+    private final int base;
+    // base^(k-1), the weight of the char leaving the k-gram
+    private final int outWeight;
+    private final char ring[];
+    private final WinnowWindow window;
+    private final HashWriter writer;
+    private final char readBuf[] = new char[4096];
+    private int hash = 0;
+    private int position = 0;
+
+    public RollingHashWinnower(int kgram, int windowSize, HashWriter writer) {
+        this(kgram, windowSize, Hash.HASHBASE, writer);
+    }
+
+    public RollingHashWinnower(int kgram, int windowSize, int base, HashWriter writer) {
+        if (kgram < 1) {
+            throw new IllegalArgumentException("k-gram size must be positive");
+        }
+        this.kgram = kgram;
+        this.base = base;
+        this.writer = writer;
+        int w = 1;
+        for (int i = 1; i < kgram; i++) {
+            w *= base;
+        }
+        outWeight = w;
+        ring = new char[kgram];
+        window = new WinnowWindow(windowSize, writer);
+    }
+
+    public void reset() {
+        hash = 0;
+        position = 0;
+        window.reset();
+    }
+
+    /**
+     * @return fingerprints written since the last reset
+     */
+    public int getFingerprintCount() {
+        return window.getSeen();
+    }
+
+    /**
+     * Consume the next character.
+     *
+     * @param c
+     */
+    public final void add(char c) {
+        int slot = position % kgram;
+        if (position >= kgram) {
+            hash -= ring[slot] * outWeight;
+        }
+        hash = hash * base + c;
+        ring[slot] = c;
+        position++;
+        if (position >= kgram) {
+            window.add(hash, position - kgram);
+        }
+    }
+
+    /**
+     * Consume the remainder of a reader, the reader is not closed.
+     *
+     * @param r
+     * @throws IOException
+     */
+    public void add(Reader r) throws IOException {
+        int n;
+        while ((n = r.read(readBuf)) != -1) {
+            for (int i = 0; i < n; i++) {
+                add(readBuf[i]);
+            }
+        }
+    }
+
+    /**
+     * Consume the remaining characters of a buffer.
+     *
+     * @param buf
+     */
+    public void add(CharBuffer buf) {
+        while (buf.hasRemaining()) {
+            add(buf.get());
+        }
+    }
+
+    /**
+     * Winnow a whole reader from a fresh state and close the writer.
+     *
+     * @param r
+     * @return number of fingerprints written
+     * @throws IOException
+     */
+    public int winnow(Reader r) throws IOException {
+        reset();
+        add(r);
+        writer.close();
+        return getFingerprintCount();
+    }
+
+    /**
+     * Winnow a whole buffer from a fresh state and close the writer.
+     *
+     * @param buf
+     * @return number of fingerprints written
+     */
+    public int winnow(CharBuffer buf) {
+        reset();
+        add(buf);
+        writer.close();
+        return getFingerprintCount();
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2006-2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.hitorro.basetext.winnow.streaming;
+
+import com.hitorro.basetext.winnow.HashWriter;
+
+/**
+ * Robust winnowing over a stream of (hash, position) pairs in O(1) amortized time per hash.
+ * <p/>
+ * A monotonic deque holds the candidates of the current window with non-decreasing hashes from front to back, so the
+ * window minimum is always at the front.  Following Schleimer et al. each window selects its minimum, keeping the
+ * previous selection when it is still in the window and still minimal, otherwise taking the rightmost minimum.  A
+ * selection is written once, when it is first selected.
+ */
+public class WinnowWindow {
+    private final int windowSize;
+    private final int hashes[];
+    private final int positions[];
+    private final long sequence[];
+    private final int mask;
+    private int head = 0;
+    private int tail = 0;
+    private long count = 0;
+    private int seen = 0;
+    private int lastHash;
+    private long lastSeq = -1;
+    private HashWriter writer;
+
+    public WinnowWindow(int windowSize, HashWriter writer) {
+        if (windowSize < 1) {
+            throw new IllegalArgumentException("window size must be positive");
+        }
+        this.windowSize = windowSize;
+        this.writer = writer;
+        int cap = Integer.highestOneBit(windowSize) << 1;
+        hashes = new int[cap];
+        positions = new int[cap];
+        sequence = new long[cap];
+        mask = cap - 1;
+    }
+
+    public void reset() {
+        head = 0;
+        tail = 0;
+        count = 0;
+        seen = 0;
+        lastSeq = -1;
+    }
+
+    /**
+     * @return number of fingerprints written since the last reset
+     */
+    public int getSeen() {
+        return seen;
+    }
+
+    /**
+     * Add the next hash.  Windows are counted in hashes, the position is only reported so callers that skip ahead
+     * (digit runs for example) still get windows of the same number of hashes.
+     *
+     * @param hash
+     * @param position
+     * @return true if a fingerprint was written
+     */
+    public boolean add(int hash, int position) {
+        // equal hashes stay so the rightmost of a run of minima can be found
+        while (tail != head && hashes[(tail - 1) & mask] > hash) {
+            tail--;
+        }
+        long seq = count++;
+        hashes[tail & mask] = hash;
+        positions[tail & mask] = position;
+        sequence[tail & mask] = seq;
+        tail++;
+        long windowStart = seq - windowSize + 1;
+        while (sequence[head & mask] < windowStart) {
+            head++;
+        }
+        if (windowStart < 0) {
+            return false;
+        }
+        int min = hashes[head & mask];
+        if (lastSeq >= windowStart && lastHash == min) {
+            return false;
+        }
+        int sel = head;
+        while (sel + 1 != tail && hashes[(sel + 1) & mask] == min) {
+            sel++;
+        }
+        lastHash = min;
+        lastSeq = sequence[sel & mask];
+        seen++;
+        writer.write(min, positions[sel & mask]);
+        return true;
+    }
+}
@@ -26,6 +26,7 @@ import com.hitorro.features.extractor.ResetableContext;
 import com.hitorro.language.Iso639Table;
 import com.hitorro.language.IsoLanguage;
 import com.hitorro.obj.core.GenericAnalyzer;
+import com.hitorro.obj.core.GenericAnalyzerRegistry;
 import com.hitorro.util.core.Log;
 import com.hitorro.util.io.ResetableStringReader;
 import com.hitorro.util.typesystem.TypeFieldIntf;
@@ -41,7 +42,7 @@ import java.io.IOException;
  *
  */
 public class TokenTypeCounterContext implements ResetableContext<TokenTypeCounterContext> {
-    private GenericAnalyzer analyzer = new GenericAnalyzer("HTSTANDARD", Iso639Table.english, GenericAnalyzer.Mode.Index);
+    private GenericAnalyzer analyzer = GenericAnalyzerRegistry.get("HTSTANDARD", Iso639Table.english, GenericAnalyzer.Mode.Index);
     private ResetableStringReader reader = new ResetableStringReader(null);
 
     private String fields[];
@@ -87,6 +88,7 @@ public class TokenTypeCounterContext implements ResetableContext<TokenTypeCounte
             int tokPos = 0;
 
             try {
+                ts.reset();
                 while (ts.incrementToken()) {
                     String type = typeAttribute.type();
                     char buff[] = termAttribute.buffer();
@@ -130,6 +132,7 @@ public class TokenTypeCounterContext implements ResetableContext<TokenTypeCounte
                     */
                     tokPos++;
                 }
+                ts.end();
                 ts.close();
             } catch (IOException e) {
                 Log.util.error("Unable to parse text");
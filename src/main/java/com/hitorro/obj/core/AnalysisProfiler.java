@@ -0,0 +1,289 @@
+/*
+ * Copyright (c) 2006-2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.hitorro.obj.core;
+
+import com.hitorro.language.IsoLanguage;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+
+import javax.management.ObjectName;
+import java.io.Reader;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Opt in per stage profiling of GenericAnalyzer chains.
+ * <p/>
+ * When enabled a chain is built with a {@link ProfilingTokenFilter} after the tokenizer and after every filter.  Each
+ * records the tokens it passes, the nanoseconds and the bytes allocated (ThreadMXBean) spent in its incrementToken,
+ * which is inclusive of everything upstream; the self cost of a stage is the difference with the stage before it and
+ * is worked out in {@link #dump()}.  Counters are LongAdders aggregated per chain spec.  When disabled the chain is
+ * built without them and costs nothing.
+ * <p/>
+ * Turning profiling on or off (e.g. over JMX) bumps a generation, GenericAnalyzer caches its components through
+ * {@link #getReuseStrategy()} which drops components built under an older generation, so the next tokenStream call
+ * on every thread rebuilds its chain with or without the stages.
+ */
+public class AnalysisProfiler implements AnalysisProfilerMBean {
+    public static final String MBeanName = "com.hitorro:type=AnalysisProfiler";
+
+    private static final AnalysisProfiler s_profiler = new AnalysisProfiler();
+    private static volatile boolean s_enabled = Boolean.getBoolean("hitorro.analysis.profile");
+    private static volatile boolean s_registered = false;
+    private static final AtomicInteger s_generation = new AtomicInteger();
+    private static final Analyzer.ReuseStrategy s_reuseStrategy = new GenerationReuseStrategy();
+
+    private static final com.sun.management.ThreadMXBean s_threads = getThreadBean();
+
+    private final ConcurrentHashMap<String, ChainStats> chains = new ConcurrentHashMap<String, ChainStats>();
+
+    public static AnalysisProfiler getProfiler() {
+        return s_profiler;
+    }
+
+    public static boolean enabled() {
+        return s_enabled;
+    }
+
+    /**
+     * @return changes every time profiling is turned on or off
+     */
+    static int generation() {
+        return s_generation.get();
+    }
+
+    /**
+     * @return reuse strategy for analyzers whose chains are built through {@link #profile}
+     */
+    static Analyzer.ReuseStrategy getReuseStrategy() {
+        return s_reuseStrategy;
+    }
+
+    private static com.sun.management.ThreadMXBean getThreadBean() {
+        java.lang.management.ThreadMXBean tb = ManagementFactory.getThreadMXBean();
+        if (tb instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean stb = (com.sun.management.ThreadMXBean) tb;
+            if (stb.isThreadAllocatedMemorySupported() && stb.isThreadAllocatedMemoryEnabled()) {
+                return stb;
+            }
+        }
+        return null;
+    }
+
+    static long allocatedBytes() {
+        return s_threads == null ? 0 : s_threads.getCurrentThreadAllocatedBytes();
+    }
+
+    /**
+     * Register the profiler with the platform MBean server, safe to call more than once.
+     */
+    public static synchronized void registerMBean() {
+        if (s_registered) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(s_profiler, new ObjectName(MBeanName));
+            s_registered = true;
+        } catch (Exception e) {
+            Log.util.error("Unable to register analysis profiler mbean %s %e", e, e);
+        }
+    }
+
+    public boolean isEnabled() {
+        return s_enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        if (enabled) {
+            registerMBean();
+        }
+        if (s_enabled != enabled) {
+            s_enabled = enabled;
+            s_generation.incrementAndGet();
+        }
+    }
+
+    /**
+     * Build the filter chain for an analyzer, with a profiling stage after the tokenizer and each filter only when
+     * profiling is enabled.
+     */
+    TokenStream profile(String spec, String tokenizerName, TokenStream ts, String fieldName, Reader reader,
+                        TSInterceptorContext context, FilterEnum filters[], GenericAnalyzer.Mode mode,
+                        IsoLanguage language, FilterContext fc) {
+        if (!s_enabled) {
+            if (filters != null) {
+                for (FilterEnum fe : filters) {
+                    ts = fe.get(reader, ts, context, mode, language, fieldName, fc);
+                }
+            }
+            return ts;
+        }
+        if (!s_registered) {
+            registerMBean();
+        }
+        ChainStats cs = getChain(spec, tokenizerName, filters);
+        ts = new ProfilingTokenFilter(ts, cs.stages[0]);
+        if (filters != null) {
+            for (int i = 0; i < filters.length; i++) {
+                ts = filters[i].get(reader, ts, context, mode, language, fieldName, fc);
+                ts = new ProfilingTokenFilter(ts, cs.stages[i + 1]);
+            }
+        }
+        return ts;
+    }
+
+    private ChainStats getChain(String spec, String tokenizerName, FilterEnum filters[]) {
+        ChainStats cs = chains.get(spec);
+        if (cs == null) {
+            cs = chains.computeIfAbsent(spec, k -> new ChainStats(k, tokenizerName, filters));
+        }
+        return cs;
+    }
+
+    public void reset() {
+        for (ChainStats cs : chains.values()) {
+            for (StageStats ss : cs.stages) {
+                ss.reset();
+            }
+        }
+    }
+
+    /**
+     * @return tokens passed by a stage of a chain, 0 if the chain has not been built
+     */
+    long getTokens(String spec, int stage) {
+        ChainStats cs = chains.get(spec);
+        return cs == null ? 0 : cs.stages[stage].tokens.sum();
+    }
+
+    public String dump() {
+        StringBuilder sb = new StringBuilder();
+        List<String> keys = new ArrayList<String>(chains.keySet());
+        Collections.sort(keys);
+        for (String key : keys) {
+            chains.get(key).dump(sb);
+        }
+        return sb.toString();
+    }
+
+    public String toString() {
+        return dump();
+    }
+
+    /**
+     * Global reuse, as Lucene's default, but components cached under an older profiler generation are rebuilt.
+     */
+    private static final class GenerationReuseStrategy extends Analyzer.ReuseStrategy {
+        public Analyzer.TokenStreamComponents getReusableComponents(Analyzer analyzer, String fieldName) {
+            Cached c = (Cached) getStoredValue(analyzer);
+            return c != null && c.generation == s_generation.get() ? c.components : null;
+        }
+
+        public void setReusableComponents(Analyzer analyzer, String fieldName, Analyzer.TokenStreamComponents components) {
+            setStoredValue(analyzer, new Cached(components, s_generation.get()));
+        }
+    }
+
+    private static final class Cached {
+        final Analyzer.TokenStreamComponents components;
+        final int generation;
+
+        Cached(Analyzer.TokenStreamComponents components, int generation) {
+            this.components = components;
+            this.generation = generation;
+        }
+    }
+
+    /**
+     * Counters for one stage, inclusive of all upstream stages.
+     */
+    static final class StageStats {
+        final String name;
+        final LongAdder calls = new LongAdder();
+        final LongAdder tokens = new LongAdder();
+        final LongAdder nanos = new LongAdder();
+        final LongAdder bytes = new LongAdder();
+
+        StageStats(String name) {
+            this.name = name;
+        }
+
+        void record(boolean token, long dNanos, long dBytes) {
+            calls.increment();
+            if (token) {
+                tokens.increment();
+            }
+            nanos.add(dNanos);
+            bytes.add(dBytes);
+        }
+
+        void reset() {
+            calls.reset();
+            tokens.reset();
+            nanos.reset();
+            bytes.reset();
+        }
+    }
+
+    static final class ChainStats {
+        final String spec;
+        final StageStats stages[];
+
+        ChainStats(String spec, String tokenizerName, FilterEnum filters[]) {
+            this.spec = spec;
+            int n = filters == null ? 0 : filters.length;
+            stages = new StageStats[n + 1];
+            stages[0] = new StageStats(tokenizerName);
+            for (int i = 0; i < n; i++) {
+                stages[i + 1] = new StageStats(filters[i].getName());
+            }
+        }
+
+        void dump(StringBuilder sb) {
+            sb.append("chain: ").append(spec).append('\n');
+            sb.append(String.format("  %-20s %12s %12s %12s %12s %10s %14s\n", "stage", "tokens in", "tokens out", "self ms",
+                    "incl ms", "ns/token", "self bytes"));
+            long prevTokens = 0;
+            long prevNanos = 0;
+            long prevBytes = 0;
+            for (int i = 0; i < stages.length; i++) {
+                StageStats ss = stages[i];
+                long tokens = ss.tokens.sum();
+                long nanos = ss.nanos.sum();
+                long bytes = ss.bytes.sum();
+                long selfNanos = Math.max(0, nanos - prevNanos);
+                long selfBytes = Math.max(0, bytes - prevBytes);
+                sb.append(String.format("  %-20s %12s %12s %12.3f %12.3f %10s %14s\n", ss.name,
+                        i == 0 ? "-" : Long.toString(prevTokens), tokens,
+                        selfNanos / 1e6, nanos / 1e6, tokens == 0 ? 0 : selfNanos / tokens, selfBytes));
+                prevTokens = tokens;
+                prevNanos = nanos;
+                prevBytes = bytes;
+            }
+        }
+    }
+}
@@ -28,28 +28,50 @@ import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.miscellaneous.PerFieldAnalyzerWrapper;
 import org.apache.lucene.analysis.standard.StandardAnalyzer;
 
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- *
+ * The per field analyzers of a type's full text fields, one wrapper per language built once.  Lookups are lock free;
+ * a language is built at most once via computeIfAbsent.
  */
 public class AnalyzerPerLanguage {
     private List<TypeFieldIntf> fields;
     private GenericAnalyzer.Mode mode;
-    private Map<IsoLanguage, Analyzer> analyzers = new HashMap();
+    private ConcurrentHashMap<IsoLanguage, Analyzer> analyzers = new ConcurrentHashMap<IsoLanguage, Analyzer>();
 
     public AnalyzerPerLanguage(List<TypeFieldIntf> fields, GenericAnalyzer.Mode mode) {
         this.fields = fields;
         this.mode = mode;
     }
 
-    public synchronized Analyzer getForLanguage(IsoLanguage language) {
+    public Analyzer getForLanguage(IsoLanguage language) {
         Analyzer a = analyzers.get(language);
         if (a != null) {
             return a;
         }
+        return analyzers.computeIfAbsent(language, this::build);
+    }
+
+    /**
+     * Eagerly build the wrappers for the languages.
+     *
+     * @param languages
+     */
+    public void buildAll(Collection<IsoLanguage> languages) {
+        for (IsoLanguage language : languages) {
+            getForLanguage(language);
+        }
+    }
+
+    public int size() {
+        return analyzers.size();
+    }
+
+    private Analyzer build(IsoLanguage language) {
         Map<String, Analyzer> map = new HashMap();
         for (TypeFieldIntf tf : fields) {
             if (mode == GenericAnalyzer.Mode.Query) {
@@ -59,9 +81,6 @@ public class AnalyzerPerLanguage {
             }
 
         }
-        PerFieldAnalyzerWrapper analyzer = new PerFieldAnalyzerWrapper(new StandardAnalyzer(), map);
-
-        analyzers.put(language, analyzer);
-        return analyzer;
+        return new PerFieldAnalyzerWrapper(new StandardAnalyzer(), map);
     }
-}
\ No newline at end of file
+}
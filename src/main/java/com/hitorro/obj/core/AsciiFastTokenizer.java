@@ -0,0 +1,311 @@
+/*
+ * Copyright (c) 2006-2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.hitorro.obj.core;
+
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.OffsetAttribute;
+import org.apache.lucene.analysis.tokenattributes.PositionIncrementAttribute;
+import org.apache.lucene.analysis.tokenattributes.TypeAttribute;
+
+import java.io.CharArrayReader;
+import java.io.IOException;
+
+/**
+ * Tokenizer giving the same word boundaries as {@link StandardTokenizer} with a table driven scan for ASCII text.
+ * <p/>
+ * Any ASCII char that is not a letter, digit, '_' or a UAX#29 mid letter/number char breaks a word unless it sits
+ * next to a non-ASCII char (Hebrew letter '"' Hebrew letter, keycap "#\uFE0F\u20E3" and the like), so the input is
+ * cut at the other ones into segments.  Segments that are pure ASCII are scanned with the class table below, the rules
+ * being: letters, digits and '_' join, ':' joins letters, ',' and ';' join digits, '.' and '\'' join either, and runs
+ * of only '_' are not words.  Segments holding any non-ASCII char are handed to a StandardTokenizer.
+ * <p/>
+ * The input is read in chunks, the buffer only has to hold the current segment.
+ */
+public final class AsciiFastTokenizer extends Tokenizer {
+    private static final int Letter = 1;
+    private static final int Digit = 2;
+    private static final int ExtendNumLet = 4;
+    private static final int MidLetter = 8;
+    private static final int MidNum = 16;
+    private static final int WordChar = Letter | Digit | ExtendNumLet;
+    private static final int SegmentChar = WordChar | MidLetter | MidNum;
+
+    private static final byte classes[] = new byte[128];
+
+    static {
+        for (char c = 'a'; c <= 'z'; c++) {
+            classes[c] = Letter;
+            classes[c - 'a' + 'A'] = Letter;
+        }
+        for (char c = '0'; c <= '9'; c++) {
+            classes[c] = Digit;
+        }
+        classes['_'] = ExtendNumLet;
+        classes[':'] = MidLetter;
+        classes[','] = MidNum;
+        classes[';'] = MidNum;
+        classes['.'] = MidLetter | MidNum;
+        classes['\''] = MidLetter | MidNum;
+    }
+
+    private static final String AlphaNumType = StandardTokenizer.TOKEN_TYPES[StandardTokenizer.ALPHANUM];
+    private static final String NumType = StandardTokenizer.TOKEN_TYPES[StandardTokenizer.NUM];
+
+    private final CharTermAttribute termAtt = addAttribute(CharTermAttribute.class);
+    private final OffsetAttribute offsetAtt = addAttribute(OffsetAttribute.class);
+    private final PositionIncrementAttribute posIncAtt = addAttribute(PositionIncrementAttribute.class);
+    private final TypeAttribute typeAtt = addAttribute(TypeAttribute.class);
+
+    private char buffer[] = new char[1024];
+    private int fill = 0;
+    private int bufferOffset = 0;
+    private boolean eof = false;
+    private int pos = 0;
+    private int segmentEnd = 0;
+    private int maxTokenLength = StandardAnalyzer.DEFAULT_MAX_TOKEN_LENGTH;
+
+    private StandardTokenizer fallback;
+    private CharTermAttribute fallbackTerm;
+    private OffsetAttribute fallbackOffset;
+    private TypeAttribute fallbackType;
+    private int fallbackBase = -1;
+
+    public AsciiFastTokenizer() {
+    }
+
+    public void setMaxTokenLength(int length) {
+        if (length < 1) {
+            throw new IllegalArgumentException("maxTokenLength must be greater than zero");
+        }
+        maxTokenLength = length;
+    }
+
+    public int getMaxTokenLength() {
+        return maxTokenLength;
+    }
+
+    @Override
+    public boolean incrementToken() throws IOException {
+        clearAttributes();
+        while (true) {
+            if (fallbackBase >= 0) {
+                if (fallback.incrementToken()) {
+                    termAtt.copyBuffer(fallbackTerm.buffer(), 0, fallbackTerm.length());
+                    int base = bufferOffset + fallbackBase;
+                    offsetAtt.setOffset(correctOffset(base + fallbackOffset.startOffset()),
+                            correctOffset(base + fallbackOffset.endOffset()));
+                    typeAtt.setType(fallbackType.type());
+                    posIncAtt.setPositionIncrement(1);
+                    return true;
+                }
+                fallback.end();
+                fallback.close();
+                fallbackBase = -1;
+            }
+            if (pos < segmentEnd) {
+                if (scanAscii()) {
+                    return true;
+                }
+                continue;
+            }
+            if (!nextSegment()) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Find the next segment, starting the fallback tokenizer on it if it is not pure ASCII.
+     *
+     * @return false at the end of the input
+     */
+    private boolean nextSegment() throws IOException {
+        int i = segmentEnd;
+        while (true) {
+            if (i + 1 >= fill && !eof) {
+                i -= refill(i);
+                continue;
+            }
+            if (i == fill) {
+                pos = segmentEnd = fill;
+                return false;
+            }
+            if (!breaks(i, i)) {
+                break;
+            }
+            i++;
+        }
+        int start = i;
+        boolean ascii = true;
+        while (true) {
+            if (i + 1 >= fill && !eof) {
+                int shift = refill(start);
+                start -= shift;
+                i -= shift;
+                continue;
+            }
+            if (i == fill) {
+                break;
+            }
+            if (buffer[i] >= 128) {
+                ascii = false;
+            } else if (breaks(start, i)) {
+                break;
+            }
+            i++;
+        }
+        segmentEnd = i;
+        if (ascii) {
+            pos = start;
+        } else {
+            pos = i;
+            startFallback(start, i - start);
+        }
+        return true;
+    }
+
+    /**
+     * @param start first char of the current segment
+     * @param i     the char, the next one must be loaded unless at the end of the input
+     * @return true if the char is ASCII and breaks words whatever surrounds it
+     */
+    private boolean breaks(int start, int i) {
+        char buf[] = buffer;
+        return buf[i] < 128 && (classes[buf[i]] & SegmentChar) == 0
+                && (i == start || buf[i - 1] < 128)
+                && (i + 1 == fill || buf[i + 1] < 128);
+    }
+
+    /**
+     * Drop the chars before keep and read the next chunk of input behind the rest.
+     *
+     * @param keep first char still needed
+     * @return how far the kept chars moved down
+     */
+    private int refill(int keep) throws IOException {
+        int kept = fill - keep;
+        System.arraycopy(buffer, keep, buffer, 0, kept);
+        bufferOffset += keep;
+        fill = kept;
+        if (fill == buffer.length) {
+            char grown[] = new char[buffer.length << 1];
+            System.arraycopy(buffer, 0, grown, 0, fill);
+            buffer = grown;
+        }
+        int n = input.read(buffer, fill, buffer.length - fill);
+        if (n == -1) {
+            eof = true;
+        } else {
+            fill += n;
+        }
+        return keep;
+    }
+
+    private void startFallback(int start, int len) throws IOException {
+        if (fallback == null) {
+            fallback = new StandardTokenizer();
+            fallbackTerm = fallback.addAttribute(CharTermAttribute.class);
+            fallbackOffset = fallback.addAttribute(OffsetAttribute.class);
+            fallbackType = fallback.addAttribute(TypeAttribute.class);
+        }
+        fallback.setMaxTokenLength(maxTokenLength);
+        fallback.setReader(new CharArrayReader(buffer, start, len));
+        fallback.reset();
+        fallbackBase = start;
+    }
+
+    /**
+     * Scan the next word from the current ASCII segment.
+     *
+     * @return false if the rest of the segment held no word
+     */
+    private boolean scanAscii() {
+        char buf[] = buffer;
+        int end = segmentEnd;
+        int i = pos;
+        while (i < end) {
+            while (i < end && (classes[buf[i]] & WordChar) == 0) {
+                i++;
+            }
+            int start = i;
+            int limit = Math.min(end, start + maxTokenLength);
+            int kinds = 0;
+            while (i < limit) {
+                int cls = classes[buf[i]];
+                if ((cls & WordChar) != 0) {
+                    kinds |= cls;
+                    i++;
+                } else if (i + 1 < end && i > start && joins(cls, classes[buf[i - 1]], classes[buf[i + 1]])) {
+                    i++;
+                } else {
+                    break;
+                }
+            }
+            if ((kinds & (Letter | Digit)) != 0) {
+                pos = i;
+                termAtt.copyBuffer(buf, start, i - start);
+                offsetAtt.setOffset(correctOffset(bufferOffset + start), correctOffset(bufferOffset + i));
+                typeAtt.setType((kinds & Letter) != 0 ? AlphaNumType : NumType);
+                posIncAtt.setPositionIncrement(1);
+                return true;
+            }
+        }
+        pos = end;
+        return false;
+    }
+
+    private static boolean joins(int mid, int prev, int next) {
+        return ((mid & MidLetter) != 0 && prev == Letter && next == Letter)
+                || ((mid & MidNum) != 0 && prev == Digit && next == Digit);
+    }
+
+    @Override
+    public void end() throws IOException {
+        super.end();
+        int finalOffset = correctOffset(bufferOffset + fill);
+        offsetAtt.setOffset(finalOffset, finalOffset);
+    }
+
+    @Override
+    public void reset() throws IOException {
+        super.reset();
+        fill = 0;
+        bufferOffset = 0;
+        eof = false;
+        pos = 0;
+        segmentEnd = 0;
+        fallbackBase = -1;
+    }
+
+    @Override
+    public void close() throws IOException {
+        super.close();
+        if (fallbackBase >= 0) {
+            fallback.end();
+            fallback.close();
+            fallbackBase = -1;
+        }
+    }
+}
@@ -23,6 +23,7 @@ package com.hitorro.obj.core;
 
 import com.hitorro.basetext.dfindex.BaseDFIndexInterface;
 import com.hitorro.basetext.phrase.FPPhraseContext;
+import com.hitorro.basetext.phrase.PhraseAutomaton;
 
 /**
  *
@@ -30,4 +31,8 @@ import com.hitorro.basetext.phrase.FPPhraseContext;
 public class FilterContext {
     public BaseDFIndexInterface baseIndex;
     public FPPhraseContext fpPhraseContext;
+    /**
+     * When set the PHRASE filter matches against this automaton instead of baseIndex.
+     */
+    public PhraseAutomaton phraseAutomaton;
 }
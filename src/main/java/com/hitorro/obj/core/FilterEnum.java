@@ -58,7 +58,7 @@ public enum FilterEnum {
             return ts;
         }
     },
-    LOWERCASE("CASE") {
+    LOWERCASE("CASE", true) {
         public TokenStream get(Reader reader, TokenStream ts, TSInterceptorContext context, GenericAnalyzer.Mode mode, IsoLanguage language, final String field, FilterContext fc) {
             return new LowerCaseFilter(ts);
         }
@@ -73,44 +73,44 @@ public enum FilterEnum {
             return stopFilter;
         }
     },
-    SOUNDEX("SOUNDEX") {
+    SOUNDEX("SOUNDEX", true) {
         public TokenStream get(Reader reader, TokenStream ts, TSInterceptorContext context, GenericAnalyzer.Mode mode, IsoLanguage language, final String field, FilterContext fc) {
-            return new PhoneticFilter(ts, new Soundex(), true);
+            return MemoizingTokenFilter.wrap(ts, in -> new PhoneticFilter(in, new Soundex(), true));
         }
     },
-    METAPHONE("METAPHONE") {
+    METAPHONE("METAPHONE", true) {
         public TokenStream get(Reader reader, TokenStream ts, TSInterceptorContext context, GenericAnalyzer.Mode mode, IsoLanguage language, final String field, FilterContext fc) {
-            return new PhoneticFilter(ts, new Metaphone(), true);
+            return MemoizingTokenFilter.wrap(ts, in -> new PhoneticFilter(in, new Metaphone(), true));
         }
     },
-    DOUBLEMETAPHONE("DOUBLEMETAPHONE") {
+    DOUBLEMETAPHONE("DOUBLEMETAPHONE", true) {
         public TokenStream get(Reader reader, TokenStream ts, TSInterceptorContext context, GenericAnalyzer.Mode mode, IsoLanguage language, final String field, FilterContext fc) {
-            return new PhoneticFilter(ts, new DoubleMetaphone(), true);
+            return MemoizingTokenFilter.wrap(ts, in -> new PhoneticFilter(in, new DoubleMetaphone(), true));
         }
     },
-    CAVERPHONE("CAVERPHONE") {
+    CAVERPHONE("CAVERPHONE", true) {
         public TokenStream get(Reader reader, TokenStream ts, TSInterceptorContext context, GenericAnalyzer.Mode mode, IsoLanguage language, final String field, FilterContext fc) {
-            return new PhoneticFilter(ts, new Caverphone2(), true);
+            return MemoizingTokenFilter.wrap(ts, in -> new PhoneticFilter(in, new Caverphone2(), true));
         }
     },
-    COLOGNEPHONETIC("COLOGNEPHONETIC") {
+    COLOGNEPHONETIC("COLOGNEPHONETIC", true) {
         public TokenStream get(Reader reader, TokenStream ts, TSInterceptorContext context, GenericAnalyzer.Mode mode, IsoLanguage language, final String field, FilterContext fc) {
-            return new PhoneticFilter(ts, new ColognePhonetic(), true);
+            return MemoizingTokenFilter.wrap(ts, in -> new PhoneticFilter(in, new ColognePhonetic(), true));
         }
     },
-    NYSIIS("NYSIIS") {
+    NYSIIS("NYSIIS", true) {
         public TokenStream get(Reader reader, TokenStream ts, TSInterceptorContext context, GenericAnalyzer.Mode mode, IsoLanguage language, final String field, FilterContext fc) {
-            return new PhoneticFilter(ts, new Nysiis(), true);
+            return MemoizingTokenFilter.wrap(ts, in -> new PhoneticFilter(in, new Nysiis(), true));
         }
     },
-    REFINEDSOUNDEX("REFINEDSOUNDEX") {
+    REFINEDSOUNDEX("REFINEDSOUNDEX", true) {
         public TokenStream get(Reader reader, TokenStream ts, TSInterceptorContext context, GenericAnalyzer.Mode mode, IsoLanguage language, final String field, FilterContext fc) {
-            return new PhoneticFilter(ts, new RefinedSoundex(), true);
+            return MemoizingTokenFilter.wrap(ts, in -> new PhoneticFilter(in, new RefinedSoundex(), true));
         }
     },
-    PORTER_STEM("PORTERSTEM") {
+    PORTER_STEM("PORTERSTEM", true) {
         public TokenStream get(Reader reader, TokenStream ts, TSInterceptorContext context, GenericAnalyzer.Mode mode, IsoLanguage language, final String field, FilterContext fc) {
-            return new PorterStemFilter(ts);
+            return MemoizingTokenFilter.wrap(ts, PorterStemFilter::new);
         }
     },
     LENGTH("LENGTH") {
@@ -118,25 +118,25 @@ public enum FilterEnum {
             return new LengthFilter(ts, GenericAnalyzer.MinLengthProperty.apply(), GenericAnalyzer.MaxLengthProperty.apply());
         }
     },
-    NUMBER("NUMBER") {
+    NUMBER("NUMBER", true) {
         public TokenStream get(Reader reader, TokenStream ts, TSInterceptorContext context, GenericAnalyzer.Mode mode, IsoLanguage language, final String field, FilterContext fc) {
             return new NumberFilter(ts);
         }
     },
-    MONEYNUMBERALIAS("MONEYNUMBERALIAS") {
+    MONEYNUMBERALIAS("MONEYNUMBERALIAS", true) {
         public TokenStream get(Reader reader, TokenStream ts, TSInterceptorContext context, GenericAnalyzer.Mode mode, IsoLanguage language, final String field, FilterContext fc) {
             return new MoneyToAliasFilter(ts);
         }
 
     },
-    NAMEDENTITY("NAMEDENTITY") {
+    NAMEDENTITY("NAMEDENTITY", true) {
         public TokenStream get(Reader reader, TokenStream ts, TSInterceptorContext context, GenericAnalyzer.Mode mode, IsoLanguage language, final String field, FilterContext fc) {
 
             return new NamedEntityFilter(ts, language);
         }
 
     },
-    NAMEDENTITYMARKUP("NAMEDENTITYMARKUP") {
+    NAMEDENTITYMARKUP("NAMEDENTITYMARKUP", true) {
         public TokenStream get(Reader reader, TokenStream ts, TSInterceptorContext context, GenericAnalyzer.Mode mode, IsoLanguage language, final String field, FilterContext fc) {
 
             return new NamedEntityMarkupFilter(ts, language);
@@ -144,13 +144,19 @@ public enum FilterEnum {
 
     },
 
-    DECODEMARKUP("DECODEMARKUP") {
+    DECODEMARKUP("DECODEMARKUP", true) {
         public TokenStream get(Reader reader, TokenStream ts, TSInterceptorContext context, GenericAnalyzer.Mode mode, IsoLanguage language, final String field, FilterContext fc) {
             return new NERMarkupTokenFilter(ts);
         }
 
     },
 
+    FINGERPRINT("FINGERPRINT") {
+        public TokenStream get(Reader reader, TokenStream ts, TSInterceptorContext context, GenericAnalyzer.Mode mode, IsoLanguage language, final String field, FilterContext fc) {
+            return new FingerprintFilter(ts);
+        }
+    },
+
     EMITPHRASE("EMITPHRASE") {
         public TokenStream get(Reader reader, TokenStream ts, TSInterceptorContext context, GenericAnalyzer.Mode mode, IsoLanguage language, final String field, FilterContext fc) {
             return new Phrase2(ts, fc);
@@ -158,6 +164,9 @@ public enum FilterEnum {
     },
     PHRASE("PHRASE") {
         public TokenStream get(Reader reader, TokenStream ts, TSInterceptorContext context, GenericAnalyzer.Mode mode, IsoLanguage language, final String field, FilterContext fc) {
+            if (fc.phraseAutomaton != null) {
+                return new PhraseFilter(ts, fc.phraseAutomaton, GenericAnalyzer.PhraseDepthProperty.apply(), GenericAnalyzer.PhraseMinDepthProperty.apply());
+            }
             BaseDFIndexInterface bi = fc.baseIndex;
 
 
@@ -171,12 +180,50 @@ public enum FilterEnum {
     public static EnumContext<FilterEnum> filterContext;
     private static Map<IsoLanguage, CharArraySet> map = new HashMap();
     private String m_name;
+    private boolean termMutating;
 
     FilterEnum(String name) {
+        this(name, false);
+    }
+
+    FilterEnum(String name, boolean termMutating) {
         m_name = name.toLowerCase();
+        this.termMutating = termMutating;
         setMapEntry(this, name);
     }
 
+    /**
+     * Place FINGERPRINT directly after the last term mutating filter of the chain, any FINGERPRINT already present is
+     * moved there.
+     *
+     * @param filters
+     * @return
+     */
+    public static FilterEnum[] withFingerprint(FilterEnum filters[]) {
+        int n = filters == null ? 0 : filters.length;
+        int last = -1;
+        int count = 0;
+        FilterEnum ret[] = new FilterEnum[n + 1];
+        for (int i = 0; i < n; i++) {
+            if (filters[i] == FINGERPRINT) {
+                continue;
+            }
+            if (filters[i].isTermMutating()) {
+                last = count;
+            }
+            ret[count++] = filters[i];
+        }
+        System.arraycopy(ret, last + 1, ret, last + 2, count - last - 1);
+        ret[last + 1] = FINGERPRINT;
+        count++;
+        if (count == ret.length) {
+            return ret;
+        }
+        FilterEnum trimmed[] = new FilterEnum[count];
+        System.arraycopy(ret, 0, trimmed, 0, count);
+        return trimmed;
+    }
+
     public static synchronized CharArraySet getStops(IsoLanguage language) {
         //TODO update
         /*
@@ -222,5 +269,12 @@ public enum FilterEnum {
     public String getName() {
         return m_name;
     }
+
+    /**
+     * @return true if the filter rewrites the term text (and so invalidates a fingerprint computed upstream)
+     */
+    public boolean isTermMutating() {
+        return termMutating;
+    }
 }
 
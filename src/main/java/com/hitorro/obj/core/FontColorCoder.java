@@ -63,7 +63,7 @@ public class FontColorCoder {
         List<String> words = new ArrayList<String>();
         Map<String, String> tokMap = new HashMap<String, String>();
         TSInterceptorContext context = new TSInterceptorContext();
-        GenericAnalyzer analyzer = new GenericAnalyzer(GenericAnalyzer.Standard.apply(), Iso639Table.english, GenericAnalyzer.Mode.Index);
+        GenericAnalyzer analyzer = GenericAnalyzerRegistry.get(GenericAnalyzer.Standard.apply(), Iso639Table.english, GenericAnalyzer.Mode.Index);
         ResetableStringReader reader = new ResetableStringReader(null);
         reader.set(text);
 
@@ -73,10 +73,12 @@ public class FontColorCoder {
         DFIndex index = DFIndexSingletonMapper.getSingleton().get();
 
         // get all the tokens first
+        ts.reset();
         while (ts.incrementToken()) {
             String t = termAttribute.toString();
             tokMap.put(t, context.interceptor.getLastToken());
         }
+        ts.end();
         ts.close();
         TermTupleSetGroup tsg = InverterUtils.getTupleSet("title", text, "body", "");
         TermTupleSet tts = tsg.getByName("title");
@@ -100,7 +102,7 @@ public class FontColorCoder {
     public static String getColorCodedText(String text) throws IOException {
 
         TSInterceptorContext context = new TSInterceptorContext();
-        GenericAnalyzer analyzer = new GenericAnalyzer(GenericAnalyzer.Standard.apply(), Iso639Table.english, GenericAnalyzer.Mode.Index);
+        GenericAnalyzer analyzer = GenericAnalyzerRegistry.get(GenericAnalyzer.Standard.apply(), Iso639Table.english, GenericAnalyzer.Mode.Index);
         ResetableStringReader reader = new ResetableStringReader(null);
         reader.set(text);
         TokenStream ts = analyzer.tokenStream("body", reader);
@@ -108,11 +110,13 @@ public class FontColorCoder {
         DFIndex index = DFIndexSingletonMapper.getSingleton().get();
         double docFreq = index.getDocFrequency();
         StringBuilder sb = new StringBuilder();
+        ts.reset();
         while (ts.incrementToken()) {
             String tok = termAttribute.toString();
             double dfCount = index.getFrequency(tok);
             format(sb, context.interceptor.getLastToken(), dfCount, docFreq);
         }
+        ts.end();
         ts.close();
         return sb.toString();
     }
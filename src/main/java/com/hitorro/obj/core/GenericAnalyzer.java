@@ -24,11 +24,19 @@ package com.hitorro.obj.core;
 import com.hitorro.language.Iso639Table;
 import com.hitorro.language.IsoLanguage;
 import com.hitorro.util.GenericAnalyzerBase;
+import com.hitorro.util.core.hash.FPHash64;
 import org.apache.lucene.analysis.TokenStream;
 import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.FlagsAttribute;
+import org.apache.lucene.analysis.tokenattributes.KeywordAttribute;
+import org.apache.lucene.analysis.tokenattributes.OffsetAttribute;
+import org.apache.lucene.analysis.tokenattributes.PositionIncrementAttribute;
+import org.apache.lucene.analysis.tokenattributes.TypeAttribute;
 
 import java.io.IOException;
 import java.io.Reader;
+import java.util.List;
 
 /**
  * by lucene and any other text processing where we need to breakdown a stream into tokens.
@@ -44,13 +52,16 @@ public class GenericAnalyzer extends GenericAnalyzerBase {
     private Mode mode;
     private FilterContext fc;
     private TSInterceptorContext tsInterceptor;
+    private boolean shared = false;
 
     public GenericAnalyzer() {
+        super(AnalysisProfiler.getReuseStrategy());
     }
 
 
     public GenericAnalyzer(String names, IsoLanguage language, Mode mode) {
-        //super(Analyzer.PER_FIELD_REUSE_STRATEGY);
+        // cached components are rebuilt when profiling is turned on or off
+        super(AnalysisProfiler.getReuseStrategy());
         tokenizer = TokenizerEnum.tokenizerContext.getByShortName(names);
         if (tokenizer == null) {
             // default to standard if not defined.
@@ -61,6 +72,17 @@ public class GenericAnalyzer extends GenericAnalyzerBase {
         this.mode = mode;
     }
 
+    /**
+     * @param fingerprint add the FINGERPRINT filter after the last term mutating filter so consumers can read the
+     *                    FingerprintAttribute instead of hashing each term.
+     */
+    public GenericAnalyzer(String names, IsoLanguage language, Mode mode, boolean fingerprint) {
+        this(names, language, mode);
+        if (fingerprint) {
+            filters = FilterEnum.withFingerprint(filters);
+        }
+    }
+
     /**
      * Construct the analyzer with a bitmask based upon filter names, such as: STANDARD, ETC
      *
@@ -76,14 +98,59 @@ public class GenericAnalyzer extends GenericAnalyzerBase {
     }
 
     public void setFilterContext(FilterContext fc) {
+        checkNotShared();
         this.fc = fc;
 
     }
 
     public void setTSInterceptorContext(TSInterceptorContext tsInterceptor) {
+        checkNotShared();
         this.tsInterceptor = tsInterceptor;
     }
 
+    private void checkNotShared() {
+        if (shared) {
+            throw new IllegalStateException("Analyzer is shared through GenericAnalyzerRegistry, construct a private one to set contexts");
+        }
+    }
+
+    /**
+     * Mark this analyzer as handed out by the registry, its contexts can no longer be changed.
+     */
+    void setShared() {
+        shared = true;
+    }
+
+    public boolean isShared() {
+        return shared;
+    }
+
+    /**
+     * The resolved tokenizer and filter chain, the same for every spelling of the names that resolves to the same
+     * chain.
+     *
+     * @return
+     */
+    public String getChainSpec() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(tokenizer == null ? "" : tokenizer.getName());
+        if (filters != null) {
+            for (FilterEnum fe : filters) {
+                sb.append(',');
+                sb.append(fe.getName());
+            }
+        }
+        return sb.toString();
+    }
+
+    public IsoLanguage getLanguage() {
+        return language;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
     @Override
     protected TokenStreamComponents createComponents(final String fieldName) {
         //TODO Update (not sure this is right.  New function not seen before.  Using Null for now.
@@ -100,6 +167,69 @@ public class GenericAnalyzer extends GenericAnalyzerBase {
         return new TokenStreamComponents(tok, ts);
     }
 
+    /**
+     * Analyze a batch of texts through this thread's reused token stream into packed arrays.
+     *
+     * @param fieldName
+     * @param texts
+     * @param reuse     cleared and filled, may be null
+     * @return
+     * @throws IOException
+     */
+    public PackedTokens analyzeBatch(String fieldName, List<String> texts, PackedTokens reuse) throws IOException {
+        return analyzeBatch(fieldName, texts, reuse, true);
+    }
+
+    /**
+     * @param fieldName
+     * @param texts
+     * @param reuse        cleared and filled, may be null
+     * @param fingerprints false to leave the fingerprints 0 rather than hash terms the chain did not fingerprint
+     * @return
+     * @throws IOException
+     */
+    public PackedTokens analyzeBatch(String fieldName, List<String> texts, PackedTokens reuse, boolean fingerprints) throws IOException {
+        PackedTokens pt = reuse == null ? new PackedTokens() : reuse;
+        pt.clear();
+        for (String text : texts) {
+            pt.startText();
+            TokenStream ts = tokenStream(fieldName, text == null ? "" : text);
+            try {
+                CharTermAttribute termAtt = ts.addAttribute(CharTermAttribute.class);
+                OffsetAttribute offsetAtt = ts.addAttribute(OffsetAttribute.class);
+                PositionIncrementAttribute posIncAtt = ts.addAttribute(PositionIncrementAttribute.class);
+                TypeAttribute typeAtt = ts.addAttribute(TypeAttribute.class);
+                FingerprintAttribute fpAtt = ts.getAttribute(FingerprintAttribute.class);
+                KeywordAttribute keywordAtt = ts.getAttribute(KeywordAttribute.class);
+                FlagsAttribute flagsAtt = ts.getAttribute(FlagsAttribute.class);
+                ts.reset();
+                while (ts.incrementToken()) {
+                    char buf[] = termAtt.buffer();
+                    int len = termAtt.length();
+                    long fp = fpAtt != null ? fpAtt.getFingerprint() : fingerprints ? FPHash64.getFingerprint(buf, len) : 0;
+                    int flagBits = 0;
+                    if (keywordAtt != null && keywordAtt.isKeyword()) {
+                        flagBits |= PackedTokens.KeywordFlag;
+                    }
+                    if (flagsAtt != null) {
+                        flagBits |= flagsAtt.getFlags() << PackedTokens.FlagsShift;
+                    }
+                    pt.add(buf, len, offsetAtt.startOffset(), offsetAtt.endOffset(),
+                            posIncAtt.getPositionIncrement(), fp, typeAtt.type(), flagBits);
+                }
+                ts.end();
+            } finally {
+                ts.close();
+            }
+            pt.endText();
+        }
+        return pt;
+    }
+
+    public PackedTokens analyzeBatch(String fieldName, List<String> texts) throws IOException {
+        return analyzeBatch(fieldName, texts, null);
+    }
+
     public TokenStream stream(String fieldName, Reader reader, Mode mode, IsoLanguage language) {
         TokenStreamComponents tsc = createComponents(fieldName, reader, mode, language, tsInterceptor, fc);
         return tsc.getTokenStream();
@@ -168,7 +298,9 @@ public class GenericAnalyzer extends GenericAnalyzerBase {
         if (tokenizer == null) {
             return null;
         }
-        return FilterEnum.tokenStream(ts, fieldName, reader, context, filters, mode, language, fc);
+        // profiling stages only when enabled, see AnalysisProfiler.getReuseStrategy
+        return AnalysisProfiler.getProfiler().profile(getChainSpec(), tokenizer.getName(), ts, fieldName, reader,
+                context, filters, mode, language, fc);
     }
 }
 
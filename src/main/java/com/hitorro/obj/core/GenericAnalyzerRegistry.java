@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2006-2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.hitorro.obj.core;
+
+import com.hitorro.language.IsoLanguage;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process wide cache of GenericAnalyzers keyed by (tokenizer + filter chain, language, mode).
+ * <p/>
+ * Analyzers handed out are shared between threads; lucene's Analyzer keeps the token stream components per thread
+ * so each thread builds its chain once and reuses it.  Consumers must follow the TokenStream contract (reset,
+ * incrementToken..., end, close) so the components can be reused.
+ * <p/>
+ * Shared analyzers carry the FINGERPRINT filter so consumers can read the FingerprintAttribute, unless asked for
+ * without it by consumers that hash the terms some other way.  They have no
+ * FilterContext or TSInterceptorContext and these can not be set on them; chains that need those (PHRASE, EMITPHRASE,
+ * interceptors) should construct their own GenericAnalyzer.
+ */
+public class GenericAnalyzerRegistry {
+    private static final ConcurrentHashMap<Key, GenericAnalyzer> s_byName = new ConcurrentHashMap<Key, GenericAnalyzer>();
+    private static final ConcurrentHashMap<Key, GenericAnalyzer> s_byChain = new ConcurrentHashMap<Key, GenericAnalyzer>();
+
+    /**
+     * Get the shared analyzer for the chain names, language and mode.
+     *
+     * @param names    filter/tokenizer short names, e.g. "STANDARD,CASE,PORTERSTEM"
+     * @param language
+     * @param mode
+     * @return
+     */
+    public static GenericAnalyzer get(String names, IsoLanguage language, GenericAnalyzer.Mode mode) {
+        return get(names, language, mode, true);
+    }
+
+    /**
+     * @param names
+     * @param language
+     * @param mode
+     * @param fingerprint false for a chain without the FINGERPRINT filter
+     * @return
+     */
+    public static GenericAnalyzer get(String names, IsoLanguage language, GenericAnalyzer.Mode mode, boolean fingerprint) {
+        Key key = new Key(names, language, mode, fingerprint);
+        GenericAnalyzer ga = s_byName.get(key);
+        if (ga == null) {
+            ga = s_byName.computeIfAbsent(key, k -> resolve(names, language, mode, fingerprint));
+        }
+        return ga;
+    }
+
+    /**
+     * Different spellings (ordering, whitespace, case) of a chain resolve to the same analyzer.
+     */
+    private static GenericAnalyzer resolve(String names, IsoLanguage language, GenericAnalyzer.Mode mode, boolean fingerprint) {
+        GenericAnalyzer ga = new GenericAnalyzer(names, language, mode, fingerprint);
+        ga.setShared();
+        Key chain = new Key(ga.getChainSpec(), language, mode, fingerprint);
+        GenericAnalyzer existing = s_byChain.putIfAbsent(chain, ga);
+        return existing != null ? existing : ga;
+    }
+
+    public static int size() {
+        return s_byChain.size();
+    }
+
+    /**
+     * Drop all cached analyzers, analyzers already handed out remain usable.
+     */
+    public static void clear() {
+        s_byName.clear();
+        s_byChain.clear();
+    }
+
+    private static final class Key {
+        private final String spec;
+        private final IsoLanguage language;
+        private final GenericAnalyzer.Mode mode;
+        private final boolean fingerprint;
+        private final int hash;
+
+        Key(String spec, IsoLanguage language, GenericAnalyzer.Mode mode, boolean fingerprint) {
+            this.spec = spec == null ? "" : spec;
+            this.language = language;
+            this.mode = mode;
+            this.fingerprint = fingerprint;
+            int h = this.spec.hashCode();
+            h = 31 * h + (language == null ? 0 : language.hashCode());
+            h = 31 * h + (mode == null ? 0 : mode.hashCode());
+            h = 31 * h + (fingerprint ? 1 : 0);
+            hash = h;
+        }
+
+        public int hashCode() {
+            return hash;
+        }
+
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key k = (Key) o;
+            return mode == k.mode && fingerprint == k.fingerprint && spec.equals(k.spec) &&
+                    (language == null ? k.language == null : language.equals(k.language));
+        }
+    }
+}
@@ -24,11 +24,9 @@ package com.hitorro.obj.core;
 import com.hitorro.language.IsoLanguage;
 import com.hitorro.util.core.hash.FPHash64;
 import com.hitorro.util.core.iterator.mappers.BaseMapper;
-import com.hitorro.util.io.ResetableStringReader;
-import org.apache.lucene.analysis.TokenStream;
-import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
 
 import java.io.IOException;
+import java.util.Collections;
 
 /**
  * Mapper that is used to take a string and convert to a fp64 hash.  It uses the generic analyzer chain todo this
@@ -37,45 +35,34 @@ import java.io.IOException;
  */
 public class GenericTokenizer2HashlongMapper extends BaseMapper<String, Long> {
     private GenericAnalyzer analyzer;
-    private ResetableStringReader reader = new ResetableStringReader(null);
+    private PackedTokens packed = new PackedTokens(32);
 
     private IsoLanguage lang;
 
     public GenericTokenizer2HashlongMapper(String analyzerString, IsoLanguage lang) {
         this.lang = lang;
-        analyzer = new GenericAnalyzer(analyzerString, lang, GenericAnalyzer.Mode.Index);
+        // the phrase hash is not the chain fingerprint, no point paying for the FINGERPRINT stage
+        analyzer = GenericAnalyzerRegistry.get(analyzerString, lang, GenericAnalyzer.Mode.Index, false);
     }
 
     @Override
     public Long apply(final String string) {
-        reader.set(string);
-        TokenStream ts = analyzer.tokenStream("body", reader);
-		try {
-			ts.reset();
-		} catch (IOException e) {
-			throw new RuntimeException(e);
-		}
-		CharTermAttribute termAttLocal = ts.addAttribute(CharTermAttribute.class);
-        long last = 0;
-
         try {
-            while (ts.incrementToken()) {
-
-                String tok = termAttLocal.toString();
-                if (last == 0) {
-                    last = FPHash64.getFPViaChars(tok);
-                } else {
-                    last = FPHash64.combineFingerPrints(last, FPHash64.getFPViaChars(tok));
-                }
-            }
-            ts.close();
+            packed = analyzer.analyzeBatch("body", Collections.singletonList(string), packed, false);
         } catch (IOException e) {
             return new Long(0);
         }
+        long last = 0;
+        char terms[] = packed.getTermBuffer();
+        for (int i = 0; i < packed.size(); i++) {
+            // getFPViaChars rather than the packed fingerprint, the phrase hashes made here are persisted
+            long fp = FPHash64.getFPViaChars(terms, packed.getTermStart(i), packed.getTermLength(i));
+            if (last == 0) {
+                last = fp;
+            } else {
+                last = FPHash64.combineFingerPrints(last, fp);
+            }
+        }
         return last;
     }
 }
-
-
-
-
@@ -26,7 +26,9 @@ import com.hitorro.util.typesystem.HTAnalyzerFactory;
 import org.apache.lucene.analysis.Analyzer;
 
 /**
- *
+ * Analyzers for the type system's index and query chains.  Each call builds a private analyzer without the FINGERPRINT
+ * stage, callers may set a FilterContext or TSInterceptorContext on it.  Code that only reads tokens should use the
+ * shared analyzers from {@link GenericAnalyzerRegistry} instead.
  */
 public class GenericaAnalyzerFactory extends HTAnalyzerFactory {
     public Analyzer get(String s, IsoLanguage language, GenericAnalyzer.Mode mode) {
@@ -32,6 +32,8 @@ import java.io.IOException;
  */
 public class InterceptorTokenFilter extends TokenFilter {
     private CharTermAttribute termAtt;
+    private char m_chars[] = new char[32];
+    private int m_length = -1;
     private String m_token;
 
     public InterceptorTokenFilter(TokenStream in) {
@@ -39,15 +41,29 @@ public class InterceptorTokenFilter extends TokenFilter {
         termAtt = addAttribute(CharTermAttribute.class);
     }
 
+    /**
+     * The String is only built when asked for.
+     *
+     * @return
+     */
     public String getLastToken() {
+        if (m_token == null && m_length >= 0) {
+            m_token = new String(m_chars, 0, m_length);
+        }
         return m_token;
     }
 
     public final boolean incrementToken() throws IOException {
         if (input.incrementToken()) {
-            m_token = termAtt.toString();
+            int len = termAtt.length();
+            if (m_chars.length < len) {
+                m_chars = new char[len];
+            }
+            System.arraycopy(termAtt.buffer(), 0, m_chars, 0, len);
+            m_length = len;
+            m_token = null;
             return true;
         }
         return false;
     }
-}
\ No newline at end of file
+}
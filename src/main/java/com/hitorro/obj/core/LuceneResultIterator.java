@@ -22,65 +22,144 @@
 package com.hitorro.obj.core;
 
 import org.apache.lucene.document.Document;
+import org.apache.lucene.document.DocumentStoredFieldVisitor;
+import org.apache.lucene.index.StoredFields;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.ScoreDoc;
 import org.apache.lucene.search.TopDocs;
 
 import java.io.IOException;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.Set;
 
 /**
 
  * Iterate over a series of result from lucene.
+ * <p/>
+ * Results are fetched lazily a page at a time via IndexSearcher.searchAfter so small queries only pay for a page
+ * sized priority queue and large ones are no longer truncated.  Every searchAfter re-runs the query, so each page is
+ * twice the size of the one before, up to {@link #MaxPageSize}, and a deep iteration costs a logarithmic number of
+ * searches.  When a field projection is supplied only those stored fields are decoded for each hit.
  */
 public class LuceneResultIterator<E> implements Iterator<E> {
+    public static final int DefaultPageSize = 100;
+    public static final int MaxPageSize = 16384;
+
     private TopDocs m_hits;
     private ScoreDoc sd[];
     private long m_totalCount;
     private int m_maxResults;
     private long m_max;
     private int m_index = 0;
+    private long m_returned = 0;
     private float m_minRank;
     private LuceneResultIteratorAdapter<E> m_adapter;
     private E m_nextVal = null;
     private IndexSearcher searcher;
+    private StoredFields storedFields;
+    private Query m_query;
+    private int m_pageSize;
+    private int m_maxPageSize;
+    private Set<String> m_fields;
+    private boolean m_exhausted = false;
 
     public LuceneResultIterator(LuceneResultIteratorAdapter<E> adapter,
                                 int maxResults, float minRank, IndexSearcher searcher,
                                 Query query)
             throws IOException {
+        this(adapter, maxResults, minRank, searcher, query, DefaultPageSize);
+    }
+
+    /**
+     * @param adapter
+     * @param maxResults maximum results to return, 0 or less for all
+     * @param minRank    stop at the first hit scoring below this
+     * @param searcher
+     * @param query
+     * @param pageSize   number of hits fetched by the first searchAfter call
+     * @param fields     stored fields to load, none to load the full document
+     * @throws IOException
+     */
+    public LuceneResultIterator(LuceneResultIteratorAdapter<E> adapter,
+                                int maxResults, float minRank, IndexSearcher searcher,
+                                Query query, int pageSize, String... fields)
+            throws IOException {
         this.searcher = searcher;
         m_minRank = minRank;
-        query = query.rewrite(searcher.getIndexReader());
-
-
-        m_hits = searcher.search(query, 100000);
-        m_totalCount = m_hits.totalHits.value;
-        sd = m_hits.scoreDocs;
+        m_query = query.rewrite(searcher.getIndexReader());
         m_maxResults = maxResults;
-        Log.search.debug("Query: %s with hits: %s", query, m_totalCount);
-        if (maxResults > 0) {
-            m_max = Math.min(m_totalCount, m_maxResults);
-        } else {
-            m_max = m_totalCount;
+        m_pageSize = Math.max(1, pageSize);
+        m_maxPageSize = Math.max(m_pageSize, MaxPageSize);
+        if (fields != null && fields.length > 0) {
+            m_fields = new HashSet<>();
+            for (String f : fields) {
+                m_fields.add(f);
+            }
         }
+        storedFields = searcher.storedFields();
         m_adapter = adapter;
+
+        fetchPage(null);
+        m_totalCount = m_hits.totalHits.value;
+        Log.search.debug("Query: %s with hits: %s", m_query, m_totalCount);
+        // totalHits may only be a lower bound once past the first page, the end is found by an empty/short page.
+        m_max = maxResults > 0 ? maxResults : Long.MAX_VALUE;
         m_nextVal = getAux();
     }
 
+    /**
+     * @return total hits as reported by lucene for the first page, possibly a lower bound.
+     */
+    public long getTotalCount() {
+        return m_totalCount;
+    }
+
+    private void fetchPage(ScoreDoc after) throws IOException {
+        int n = m_pageSize;
+        if (m_maxResults > 0) {
+            n = (int) Math.min(n, m_maxResults - m_returned);
+        }
+        m_hits = searcher.searchAfter(after, m_query, n);
+        sd = m_hits.scoreDocs;
+        m_index = 0;
+        if (sd.length < n) {
+            m_exhausted = true;
+        }
+        m_pageSize = (int) Math.min((long) m_pageSize << 1, m_maxPageSize);
+    }
+
+    private Document load(int docId) throws IOException {
+        if (m_fields == null) {
+            return storedFields.document(docId);
+        }
+        DocumentStoredFieldVisitor visitor = new DocumentStoredFieldVisitor(m_fields);
+        storedFields.document(docId, visitor);
+        return visitor.getDocument();
+    }
+
     private E getAux() throws IOException {
-        if (m_index >= m_max) {
+        if (m_returned >= m_max) {
             return null;
         }
-        Document doc = searcher.doc(sd[m_index].doc);
-        float score = sd[m_index].score;
-        m_index++;
+        if (m_index >= sd.length) {
+            if (m_exhausted || sd.length == 0) {
+                return null;
+            }
+            fetchPage(sd[sd.length - 1]);
+            if (sd.length == 0) {
+                return null;
+            }
+        }
+        ScoreDoc hit = sd[m_index++];
+        float score = hit.score;
         if (score < m_minRank) {
             // didnt meet min rank.
             return null;
         }
-        return m_adapter.map(score, doc);
+        m_returned++;
+        return m_adapter.map(score, load(hit.doc));
     }
 
     public boolean hasNext() {
@@ -0,0 +1,258 @@
+/*
+ * Copyright (c) 2006-2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.hitorro.obj.core;
+
+import org.apache.lucene.analysis.TokenFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.KeywordAttribute;
+import org.apache.lucene.analysis.tokenattributes.PositionIncrementAttribute;
+import org.apache.lucene.analysis.tokenattributes.TypeAttribute;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.function.Function;
+
+/**
+ * Memo cache in front of a deterministic one-token-in, n-tokens-out filter (phonetic encoders, stemmers).
+ * <p/>
+ * The wrapped filter is built over a feeder stream sharing this filter's attributes that hands it one input token at a
+ * time.  Its outputs (term, position increment, type) are stored in a direct mapped cache keyed by the input term's
+ * chars (hash plus char equality, no Strings) and replayed on the next occurrence of the term.  Offsets and any other
+ * attribute keep the input token's values.  The position increment of the first output is kept relative to the input's
+ * so replays are correct whatever the input's increment is.  Keyword tokens bypass the cache.
+ * <p/>
+ * The wrapped filter must not keep state from one input token to the next.  Token stream components are thread
+ * confined so the cache is per chain per thread and needs no locking.
+ */
+public final class MemoizingTokenFilter extends TokenFilter {
+    public static final int DefaultCacheSize = Integer.getInteger("hitorro.analysis.memosize", 4096);
+
+    private final CharTermAttribute termAtt = addAttribute(CharTermAttribute.class);
+    private final PositionIncrementAttribute posIncAtt = addAttribute(PositionIncrementAttribute.class);
+    private final TypeAttribute typeAtt = addAttribute(TypeAttribute.class);
+    private final KeywordAttribute keywordAtt = addAttribute(KeywordAttribute.class);
+
+    private final Feeder feeder;
+    private final TokenStream inner;
+    private final Entry cache[];
+    private final int mask;
+    private final Entry scratch = new Entry();
+
+    private Entry current;
+    private int replay = 0;
+    private int inputPosInc;
+
+    private long hits = 0;
+    private long misses = 0;
+
+    public MemoizingTokenFilter(TokenStream in, Function<TokenStream, TokenStream> factory, int cacheSize) {
+        super(in);
+        int size = Integer.highestOneBit(Math.max(16, cacheSize) - 1) << 1;
+        cache = new Entry[size];
+        mask = size - 1;
+        feeder = new Feeder(this);
+        inner = factory.apply(feeder);
+    }
+
+    /**
+     * Wrap the filter the factory builds in a memo cache of the default size, or build it directly if memoizing is
+     * turned off (hitorro.analysis.memosize=0).
+     *
+     * @param in
+     * @param factory
+     * @return
+     */
+    public static TokenStream wrap(TokenStream in, Function<TokenStream, TokenStream> factory) {
+        if (DefaultCacheSize <= 0) {
+            return factory.apply(in);
+        }
+        return new MemoizingTokenFilter(in, factory, DefaultCacheSize);
+    }
+
+    private static int hash(char buf[], int len) {
+        int h = len;
+        for (int i = 0; i < len; i++) {
+            h = 31 * h + buf[i];
+        }
+        return h ^ (h >>> 16);
+    }
+
+    public boolean incrementToken() throws IOException {
+        while (true) {
+            if (current != null && replay < current.count) {
+                emit(current, replay++);
+                return true;
+            }
+            current = null;
+            if (!input.incrementToken()) {
+                return false;
+            }
+            inputPosInc = posIncAtt.getPositionIncrement();
+            replay = 0;
+            if (keywordAtt.isKeyword()) {
+                current = run(scratch);
+                continue;
+            }
+            char buf[] = termAtt.buffer();
+            int len = termAtt.length();
+            int h = hash(buf, len);
+            int slot = h & mask;
+            Entry e = cache[slot];
+            if (e != null && e.matches(h, buf, len)) {
+                hits++;
+                current = e;
+                continue;
+            }
+            misses++;
+            if (e == null) {
+                e = new Entry();
+                cache[slot] = e;
+            }
+            e.setKey(h, buf, len);
+            current = run(e);
+        }
+    }
+
+    /**
+     * Push the current input token through the wrapped filter recording its outputs into the entry.
+     */
+    private Entry run(Entry e) throws IOException {
+        e.count = 0;
+        feeder.pending = true;
+        while (inner.incrementToken()) {
+            int pi = posIncAtt.getPositionIncrement();
+            e.add(termAtt.buffer(), termAtt.length(), e.count == 0 ? pi - inputPosInc : pi, typeAtt.type());
+        }
+        return e;
+    }
+
+    private void emit(Entry e, int i) {
+        termAtt.copyBuffer(e.terms[i], 0, e.termLength[i]);
+        posIncAtt.setPositionIncrement(i == 0 ? inputPosInc + e.posInc[i] : e.posInc[i]);
+        typeAtt.setType(e.types[i]);
+    }
+
+    public void reset() throws IOException {
+        super.reset();
+        inner.reset();
+        current = null;
+        replay = 0;
+    }
+
+    /**
+     * The wrapped chain is ended first, the tokenizer's final offset set by super.end() must be the last word.
+     */
+    public void end() throws IOException {
+        inner.end();
+        super.end();
+    }
+
+    public void close() throws IOException {
+        inner.close();
+        super.close();
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Hands the wrapped filter the token already sitting in the shared attributes, once.
+     */
+    private static final class Feeder extends TokenStream {
+        boolean pending = false;
+
+        Feeder(TokenFilter owner) {
+            super(owner);
+        }
+
+        public boolean incrementToken() {
+            if (pending) {
+                pending = false;
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * The attributes are shared with the real chain, clearing them here would wipe its end state.
+         */
+        public void end() {
+        }
+    }
+
+    private static final class Entry {
+        int hash;
+        char key[] = new char[16];
+        int keyLength;
+
+        int count;
+        char terms[][] = new char[2][];
+        int termLength[] = new int[2];
+        int posInc[] = new int[2];
+        String types[] = new String[2];
+
+        boolean matches(int h, char buf[], int len) {
+            if (hash != h || keyLength != len) {
+                return false;
+            }
+            for (int i = 0; i < len; i++) {
+                if (key[i] != buf[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void setKey(int h, char buf[], int len) {
+            if (key.length < len) {
+                key = new char[len];
+            }
+            System.arraycopy(buf, 0, key, 0, len);
+            keyLength = len;
+            hash = h;
+        }
+
+        void add(char buf[], int len, int pi, String type) {
+            if (count == terms.length) {
+                int n = count << 1;
+                terms = Arrays.copyOf(terms, n);
+                termLength = Arrays.copyOf(termLength, n);
+                posInc = Arrays.copyOf(posInc, n);
+                types = Arrays.copyOf(types, n);
+            }
+            if (terms[count] == null || terms[count].length < len) {
+                terms[count] = new char[Math.max(len, 16)];
+            }
+            System.arraycopy(buf, 0, terms[count], 0, len);
+            termLength[count] = len;
+            posInc[count] = pi;
+            types[count] = type;
+            count++;
+        }
+    }
+}
@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2006-2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.hitorro.obj.core;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * The tokens of a batch of texts in parallel primitive arrays: offsets, position increments, fingerprints, type ids
+ * and flag bits per token, with the term text in one shared char arena.  Filled by
+ * {@link GenericAnalyzer#analyzeBatch}; reusable across batches via {@link #clear()}.
+ * <p/>
+ * Offsets are relative to the token's own text, {@link #getTextStart(int)} / {@link #getTextEnd(int)} give the token
+ * range of each text.
+ */
+public class PackedTokens {
+    public static final int KeywordFlag = 1;
+    /**
+     * FlagsAttribute bits are stored above the bits used here.
+     */
+    public static final int FlagsShift = 8;
+
+    private int size = 0;
+    private int startOffset[];
+    private int endOffset[];
+    private int posInc[];
+    private long fingerprint[];
+    private int typeId[];
+    private int flags[];
+    private int termStart[];
+    private int termLength[];
+    private char arena[];
+    private int arenaFill = 0;
+
+    private int textCount = 0;
+    private int textStart[] = new int[8];
+
+    private String types[] = new String[8];
+    private int typeCount = 0;
+    private final HashMap<String, Integer> typeIds = new HashMap<String, Integer>();
+
+    public PackedTokens() {
+        this(256);
+    }
+
+    public PackedTokens(int expectedTokens) {
+        int n = Math.max(16, expectedTokens);
+        startOffset = new int[n];
+        endOffset = new int[n];
+        posInc = new int[n];
+        fingerprint = new long[n];
+        typeId = new int[n];
+        flags = new int[n];
+        termStart = new int[n];
+        termLength = new int[n];
+        arena = new char[n * 8];
+    }
+
+    public void clear() {
+        size = 0;
+        arenaFill = 0;
+        textCount = 0;
+    }
+
+    void startText() {
+        if (textCount + 1 >= textStart.length) {
+            textStart = Arrays.copyOf(textStart, textStart.length << 1);
+        }
+        textStart[textCount++] = size;
+        textStart[textCount] = size;
+    }
+
+    void endText() {
+        textStart[textCount] = size;
+    }
+
+    void add(char buf[], int len, int start, int end, int pi, long fp, String type, int flagBits) {
+        if (size == posInc.length) {
+            int n = size << 1;
+            startOffset = Arrays.copyOf(startOffset, n);
+            endOffset = Arrays.copyOf(endOffset, n);
+            posInc = Arrays.copyOf(posInc, n);
+            fingerprint = Arrays.copyOf(fingerprint, n);
+            typeId = Arrays.copyOf(typeId, n);
+            flags = Arrays.copyOf(flags, n);
+            termStart = Arrays.copyOf(termStart, n);
+            termLength = Arrays.copyOf(termLength, n);
+        }
+        if (arenaFill + len > arena.length) {
+            arena = Arrays.copyOf(arena, Math.max(arena.length << 1, arenaFill + len));
+        }
+        System.arraycopy(buf, 0, arena, arenaFill, len);
+        termStart[size] = arenaFill;
+        termLength[size] = len;
+        arenaFill += len;
+        startOffset[size] = start;
+        endOffset[size] = end;
+        posInc[size] = pi;
+        fingerprint[size] = fp;
+        typeId[size] = getTypeId(type);
+        flags[size] = flagBits;
+        size++;
+    }
+
+    private int getTypeId(String type) {
+        Integer id = typeIds.get(type);
+        if (id == null) {
+            if (typeCount == types.length) {
+                types = Arrays.copyOf(types, typeCount << 1);
+            }
+            types[typeCount] = type;
+            id = typeCount++;
+            typeIds.put(type, id);
+        }
+        return id;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getTextCount() {
+        return textCount;
+    }
+
+    /**
+     * @param text index of the text in the batch
+     * @return index of its first token
+     */
+    public int getTextStart(int text) {
+        return textStart[text];
+    }
+
+    /**
+     * @param text index of the text in the batch
+     * @return index one past its last token
+     */
+    public int getTextEnd(int text) {
+        return textStart[text + 1];
+    }
+
+    public int getStartOffset(int i) {
+        return startOffset[i];
+    }
+
+    public int getEndOffset(int i) {
+        return endOffset[i];
+    }
+
+    public int getPositionIncrement(int i) {
+        return posInc[i];
+    }
+
+    /**
+     * @param i
+     * @return the fingerprint, 0 if the batch was analyzed without fingerprints
+     */
+    public long getFingerprint(int i) {
+        return fingerprint[i];
+    }
+
+    public int getTypeId(int i) {
+        return typeId[i];
+    }
+
+    public String getType(int i) {
+        return types[typeId[i]];
+    }
+
+    /**
+     * @param id type id
+     * @return the type name for an id
+     */
+    public String getTypeName(int id) {
+        return types[id];
+    }
+
+    public int getFlags(int i) {
+        return flags[i];
+    }
+
+    public boolean isKeyword(int i) {
+        return (flags[i] & KeywordFlag) != 0;
+    }
+
+    /**
+     * The shared arena, valid until the next batch.
+     *
+     * @return
+     */
+    public char[] getTermBuffer() {
+        return arena;
+    }
+
+    public int getTermStart(int i) {
+        return termStart[i];
+    }
+
+    public int getTermLength(int i) {
+        return termLength[i];
+    }
+
+    /**
+     * Allocates, prefer the arena accessors on hot paths.
+     *
+     * @param i
+     * @return
+     */
+    public String getTerm(int i) {
+        return new String(arena, termStart[i], termLength[i]);
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2006-2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.hitorro.obj.core;
+
+import org.apache.lucene.analysis.TokenFilter;
+import org.apache.lucene.analysis.TokenStream;
+
+import java.io.IOException;
+
+/**
+ * Records the cost of the chain up to and including the wrapped stage into {@link AnalysisProfiler}.  Only part of
+ * chains built while profiling is enabled.
+ */
+final class ProfilingTokenFilter extends TokenFilter {
+    private final AnalysisProfiler.StageStats stats;
+
+    ProfilingTokenFilter(TokenStream in, AnalysisProfiler.StageStats stats) {
+        super(in);
+        this.stats = stats;
+    }
+
+    public boolean incrementToken() throws IOException {
+        long bytes = AnalysisProfiler.allocatedBytes();
+        long start = System.nanoTime();
+        boolean ret = input.incrementToken();
+        long nanos = System.nanoTime() - start;
+        stats.record(ret, nanos, AnalysisProfiler.allocatedBytes() - bytes);
+        return ret;
+    }
+}
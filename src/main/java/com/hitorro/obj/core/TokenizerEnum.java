@@ -57,6 +57,15 @@ public enum TokenizerEnum {
             return st;
         }
 
+    },
+    /**
+     * Same boundaries and types as STANDARD, scanning ASCII runs with a char class table.
+     */
+    ASCIISTANDARD("ASCIISTANDARD") {
+        public Tokenizer get(Reader reader, TSInterceptorContext context, GenericAnalyzer.Mode mode, IsoLanguage
+                language, final String field, FilterContext fc) {
+            return new AsciiFastTokenizer();
+        }
     };
     public static EnumContext<TokenizerEnum> tokenizerContext;
     private String m_name;
@@ -0,0 +1,216 @@
+/*
+ * Copyright (c) 2006-2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.hitorro.obj.core;
+
+import com.hitorro.basetext.indexer.AllTypesAnalyzerCache;
+import com.hitorro.basetext.indexer.TypeFieldsCache;
+import com.hitorro.language.IsoLanguage;
+import com.hitorro.util.core.opers.AlwaysTrueOperator;
+import com.hitorro.util.core.string.Fmt;
+import com.hitorro.util.typesystem.Type;
+import com.hitorro.util.typesystem.TypeFieldIntf;
+import com.hitorro.util.typesystem.TypeIntf;
+import com.hitorro.util.typesystem.TypeManager;
+import org.apache.lucene.analysis.Analyzer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock free store behind the TypeFieldsCache, TypeFieldsAnalyzerCache and AllTypesAnalyzerCache lookups, those caches
+ * hand their gets to this registry.  A type's full text fields, the per type and the all types PerFieldAnalyzerWrappers
+ * live in a snapshot published through a volatile; each snapshot's maps build an entry at most once (computeIfAbsent)
+ * so lookups are uncontended reads.
+ * <p/>
+ * {@link #buildAll(Collection)} eagerly builds every type for the given languages at startup, {@link #invalidate()}
+ * swaps in a fresh snapshot when type definitions change, dropping the cached type fields along with the analyzers
+ * built from them, and rebuilds it for the same languages.  Readers holding analyzers from the previous snapshot keep
+ * using them.
+ */
+public class TypeAnalyzerRegistry {
+    private static final TypeAnalyzerRegistry s_registry = new TypeAnalyzerRegistry();
+    private static final TypeFieldsCache s_fieldsMapper = new TypeFieldsCache();
+
+    private volatile Snapshot snapshot = new Snapshot();
+    private volatile Collection<IsoLanguage> languages = new ArrayList<IsoLanguage>();
+
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder builds = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public static TypeAnalyzerRegistry getRegistry() {
+        return s_registry;
+    }
+
+    /**
+     * Get the per field analyzer for a type.
+     *
+     * @param type
+     * @param language
+     * @param mode
+     * @return
+     */
+    public Analyzer get(TypeIntf type, IsoLanguage language, GenericAnalyzer.Mode mode) {
+        return getPerLanguage(type, mode).getForLanguage(language);
+    }
+
+    public AnalyzerPerLanguage getPerLanguage(TypeIntf type, GenericAnalyzer.Mode mode) {
+        lookups.increment();
+        Snapshot s = snapshot;
+        ConcurrentHashMap<TypeIntf, AnalyzerPerLanguage> map = s.get(mode);
+        AnalyzerPerLanguage apl = map.get(type);
+        if (apl == null) {
+            apl = map.computeIfAbsent(type, t -> build(s, t, mode));
+        }
+        return apl;
+    }
+
+    /**
+     * Get the per field analyzer covering the full text fields of every type.
+     *
+     * @param language
+     * @param search   search (query) analyzers rather than indexing ones
+     * @return
+     */
+    public Analyzer getAllTypes(IsoLanguage language, boolean search) {
+        lookups.increment();
+        Snapshot s = snapshot;
+        ConcurrentHashMap<IsoLanguage, Analyzer> map = search ? s.allSearch : s.allIndex;
+        Analyzer a = map.get(language);
+        if (a == null) {
+            a = map.computeIfAbsent(language, l -> buildAllTypes(s, l, search));
+        }
+        return a;
+    }
+
+    /**
+     * Get the full text fields of a type.
+     *
+     * @param type
+     * @return
+     */
+    public List<TypeFieldIntf> getFields(TypeIntf type) {
+        return getFields(snapshot, type);
+    }
+
+    /**
+     * Everything built for a snapshot reads the type fields of that snapshot, never those of one swapped in meanwhile.
+     */
+    private List<TypeFieldIntf> getFields(Snapshot s, TypeIntf type) {
+        ConcurrentHashMap<TypeIntf, List<TypeFieldIntf>> map = s.fields;
+        List<TypeFieldIntf> fields = map.get(type);
+        if (fields == null) {
+            fields = map.computeIfAbsent(type, t -> {
+                List<TypeFieldIntf> l = s_fieldsMapper.apply(t);
+                return l == null ? new ArrayList<TypeFieldIntf>() : l;
+            });
+        }
+        return fields;
+    }
+
+    private AnalyzerPerLanguage build(Snapshot s, TypeIntf type, GenericAnalyzer.Mode mode) {
+        builds.increment();
+        return new AnalyzerPerLanguage(getFields(s, type), mode);
+    }
+
+    private Analyzer buildAllTypes(Snapshot s, IsoLanguage language, boolean search) {
+        builds.increment();
+        return new AllTypesAnalyzerCache(search).apply(language, t -> getFields(s, t));
+    }
+
+    /**
+     * Build every type's analyzers (both modes) and the all types analyzers for the languages.
+     *
+     * @param languages
+     */
+    public void buildAll(Collection<IsoLanguage> languages) {
+        this.languages = new ArrayList<IsoLanguage>(languages);
+        Snapshot s = new Snapshot();
+        snapshot = s;
+        populate(s, this.languages);
+    }
+
+    private void populate(Snapshot s, Collection<IsoLanguage> languages) {
+        long start = System.currentTimeMillis();
+        List<Type> types = TypeManager.getTypeManager().getTypesMatchingConstraint(new AlwaysTrueOperator());
+        for (GenericAnalyzer.Mode mode : new GenericAnalyzer.Mode[]{GenericAnalyzer.Mode.Index, GenericAnalyzer.Mode.Query}) {
+            ConcurrentHashMap<TypeIntf, AnalyzerPerLanguage> map = s.get(mode);
+            for (Type t : types) {
+                AnalyzerPerLanguage apl = build(s, t, mode);
+                apl.buildAll(languages);
+                map.put(t, apl);
+            }
+        }
+        for (IsoLanguage language : languages) {
+            s.allSearch.put(language, buildAllTypes(s, language, true));
+            s.allIndex.put(language, buildAllTypes(s, language, false));
+        }
+        Log.util.info("Built analyzers for %s types and %s languages in %s ms", types.size(), languages.size(),
+                System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Type definitions changed: replace the snapshot, type fields included, then rebuild eagerly for the languages last
+     * passed to buildAll.  The new snapshot is published before it is populated, lookups meanwhile build on demand from
+     * the new definitions.  Each build reads the type fields of the snapshot it is building for.
+     */
+    public void invalidate() {
+        invalidations.increment();
+        Snapshot s = new Snapshot();
+        snapshot = s;
+        if (!languages.isEmpty()) {
+            populate(s, languages);
+        }
+    }
+
+    public long getLookupCount() {
+        return lookups.sum();
+    }
+
+    public long getBuildCount() {
+        return builds.sum();
+    }
+
+    public long getInvalidationCount() {
+        return invalidations.sum();
+    }
+
+    public String toString() {
+        return Fmt.S("lookups:%s builds:%s invalidations:%s types:%s", getLookupCount(), getBuildCount(),
+                getInvalidationCount(), snapshot.index.size());
+    }
+
+    private static final class Snapshot {
+        final ConcurrentHashMap<TypeIntf, List<TypeFieldIntf>> fields = new ConcurrentHashMap<TypeIntf, List<TypeFieldIntf>>();
+        final ConcurrentHashMap<TypeIntf, AnalyzerPerLanguage> index = new ConcurrentHashMap<TypeIntf, AnalyzerPerLanguage>();
+        final ConcurrentHashMap<TypeIntf, AnalyzerPerLanguage> query = new ConcurrentHashMap<TypeIntf, AnalyzerPerLanguage>();
+        final ConcurrentHashMap<IsoLanguage, Analyzer> allIndex = new ConcurrentHashMap<IsoLanguage, Analyzer>();
+        final ConcurrentHashMap<IsoLanguage, Analyzer> allSearch = new ConcurrentHashMap<IsoLanguage, Analyzer>();
+
+        ConcurrentHashMap<TypeIntf, AnalyzerPerLanguage> get(GenericAnalyzer.Mode mode) {
+            return mode == GenericAnalyzer.Mode.Query ? query : index;
+        }
+    }
+}
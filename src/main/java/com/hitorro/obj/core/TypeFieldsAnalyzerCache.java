@@ -30,12 +30,12 @@ import com.hitorro.util.typesystem.TypeManager;
 import java.util.ArrayList;
 
 /**
- *
+ * Per type analyzers, the caches' lookups are served by the lock free {@link TypeAnalyzerRegistry}.
  */
 public class TypeFieldsAnalyzerCache extends BaseMapper<TypeIntf, AnalyzerPerLanguage> {
     public static final String EventName = "TypeFieldsCache";
-    public static final HashCache<TypeIntf, AnalyzerPerLanguage> query = new HashCache(EventName, new AnalyzerPerLanguage(new ArrayList(), GenericAnalyzer.Mode.Query), new TypeFieldsAnalyzerCache(GenericAnalyzer.Mode.Query));
-    public static final HashCache<TypeIntf, AnalyzerPerLanguage> index = new HashCache(EventName, new AnalyzerPerLanguage(new ArrayList(), GenericAnalyzer.Mode.Index), new TypeFieldsAnalyzerCache(GenericAnalyzer.Mode.Index));
+    public static final HashCache<TypeIntf, AnalyzerPerLanguage> query = registryCache(GenericAnalyzer.Mode.Query);
+    public static final HashCache<TypeIntf, AnalyzerPerLanguage> index = registryCache(GenericAnalyzer.Mode.Index);
 
 
     TypeManager m_tm = TypeManager.getTypeManager();
@@ -46,6 +46,17 @@ public class TypeFieldsAnalyzerCache extends BaseMapper<TypeIntf, AnalyzerPerLan
         this.mode = mode;
     }
 
+    private static HashCache<TypeIntf, AnalyzerPerLanguage> registryCache(final GenericAnalyzer.Mode mode) {
+        return new HashCache<TypeIntf, AnalyzerPerLanguage>(EventName, new AnalyzerPerLanguage(new ArrayList(), mode), new TypeFieldsAnalyzerCache(mode)) {
+            public AnalyzerPerLanguage get(TypeIntf key) {
+                if (key == null) {
+                    return super.get(key);
+                }
+                return TypeAnalyzerRegistry.getRegistry().getPerLanguage(key, mode);
+            }
+        };
+    }
+
     public AnalyzerPerLanguage apply(TypeIntf key) {
         return new AnalyzerPerLanguage(TypeFieldsCache.getCache().get(key), mode);
     }
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2006-2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.hitorro.basetext.inverter.vector;
+
+import com.hitorro.basetext.inverter.TermTuple;
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * jdk.incubator.vector kernels at the preferred width of the CPU.  Only loaded by {@link TermKernels#get()} through
+ * reflection, so nothing links against the incubator module unless it is enabled.
+ * <p/>
+ * The TFIDF lanes do the same double operations in the same order as the scalar loop so the weights are identical.
+ * The dot product compares a whole vector of hashes against the hash being sought from the other side, the matched
+ * pairs and so the sum are the same as the scalar merge.
+ */
+final class SimdTermKernels extends TermKernels {
+    private static final VectorSpecies<Double> DS = DoubleVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Integer> IS =
+            VectorSpecies.of(int.class, VectorShape.forBitSize(DS.vectorBitSize() / 2));
+    private static final VectorSpecies<Long> LS = LongVector.SPECIES_PREFERRED;
+
+    SimdTermKernels() {
+    }
+
+    @Override
+    public boolean isVectorized() {
+        return true;
+    }
+
+    @Override
+    public void tfidf(int tf[], int df[], int n, int wordCount, double corpusSize, double dfMinTolerance,
+                      double out[]) {
+        int i = 0;
+        int bound = DS.loopBound(n);
+        for (; i < bound; i += DS.length()) {
+            DoubleVector tfv = (DoubleVector) IntVector.fromArray(IS, tf, i).convertShape(VectorOperators.I2D, DS, 0);
+            DoubleVector dfv = (DoubleVector) IntVector.fromArray(IS, df, i).convertShape(VectorOperators.I2D, DS, 0);
+            DoubleVector normTf = tfv.div(wordCount).mul(TermTuple.TFMultFactor);
+            DoubleVector normDf = dfv.div(corpusSize).mul(TermTuple.DFMultiFactor);
+            VectorMask<Double> rare = normDf.lt(dfMinTolerance);
+            normTf.div(normDf).mul(TermTuple.DFMultiFactor).blend(-Double.MAX_VALUE, rare).intoArray(out, i);
+        }
+        for (; i < n; i++) {
+            double normTf = ((double) tf[i] / wordCount) * TermTuple.TFMultFactor;
+            double normDf = ((double) df[i] / corpusSize) * TermTuple.DFMultiFactor;
+            out[i] = normDf < dfMinTolerance ? -Double.MAX_VALUE : normTf / normDf * TermTuple.DFMultiFactor;
+        }
+    }
+
+    @Override
+    public double norm(double v[], int n) {
+        int i = 0;
+        int bound = DS.loopBound(n);
+        DoubleVector acc = DoubleVector.zero(DS);
+        for (; i < bound; i += DS.length()) {
+            DoubleVector x = DoubleVector.fromArray(DS, v, i);
+            acc = x.fma(x, acc);
+        }
+        double sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < n; i++) {
+            sum += v[i] * v[i];
+        }
+        return Math.sqrt(sum);
+    }
+
+    @Override
+    public void scale(double v[], int n, double s) {
+        int i = 0;
+        int bound = DS.loopBound(n);
+        for (; i < bound; i += DS.length()) {
+            DoubleVector.fromArray(DS, v, i).mul(s).intoArray(v, i);
+        }
+        for (; i < n; i++) {
+            v[i] *= s;
+        }
+    }
+
+    /**
+     * The hashes are ascending so the lanes below x are a prefix of the vector, a full vector of them is skipped in
+     * one step and otherwise their count is the distance to the answer.
+     */
+    @Override
+    protected int seek(long hash[], int from, int n, long x) {
+        int step = LS.length();
+        while (from + step <= n) {
+            int below = LongVector.fromArray(LS, hash, from).lt(x).trueCount();
+            from += below;
+            if (below < step) {
+                return from;
+            }
+        }
+        while (from < n && hash[from] < x) {
+            from++;
+        }
+        return from;
+    }
+}
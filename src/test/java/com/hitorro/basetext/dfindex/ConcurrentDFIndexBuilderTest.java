@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2006-2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.hitorro.basetext.dfindex;
+
+import com.hitorro.basetext.inverter.ColumnarTermTupleSet;
+import com.hitorro.basetext.inverter.TermTuple;
+import com.hitorro.basetext.inverter.TermTupleSet;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Many threads feeding a {@link ConcurrentDFIndexBuilder} give the totals one {@link DFIndexBuilder} gives.
+ */
+public class ConcurrentDFIndexBuilderTest {
+    private static final int Docs = 2000;
+    private static final int Vocabulary = 5000;
+
+    @Test
+    public void testMultiThreadedTotalsEqualSingleThreaded() throws Exception {
+        final List<TermTupleSet[]> docs = buildDocs(new Random(11));
+
+        DFIndexBuilder single = new DFIndexBuilder();
+        single.setDescription("test", "query");
+        for (TermTupleSet sets[] : docs) {
+            single.addDocument(sets);
+        }
+        DFIndex expected = new DFIndex(0);
+        File f = File.createTempFile("dfindex", ".ind");
+        try {
+            single.save(f);
+            expected.read(f);
+        } finally {
+            f.delete();
+        }
+
+        // few stripes so threads do collide on them
+        final ConcurrentDFIndexBuilder concurrent = new ConcurrentDFIndexBuilder(4);
+        final AtomicInteger next = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<Future<?>>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    int i;
+                    while ((i = next.getAndIncrement()) < docs.size()) {
+                        TermTupleSet sets[] = docs.get(i);
+                        if ((i & 1) == 0) {
+                            concurrent.addDocument(sets);
+                        } else {
+                            ColumnarTermTupleSet cols[] = new ColumnarTermTupleSet[sets.length];
+                            for (int s = 0; s < sets.length; s++) {
+                                cols[s] = ColumnarTermTupleSet.from(sets[s]);
+                            }
+                            concurrent.addDocument(cols);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        DFIndex actual = concurrent.finish();
+
+        assertEquals(Docs, actual.getDocFrequency());
+        assertEquals(expected.getDocFrequency(), actual.getDocFrequency());
+        assertEquals(expected.getAccumulativeDocLength(), actual.getAccumulativeDocLength());
+        assertEquals(expected.m_map.size(), actual.m_map.size());
+        for (long hash : expected.m_map.keys()) {
+            assertEquals(expected.getFrequencyRaw(hash), actual.getFrequencyRaw(hash));
+        }
+    }
+
+    @Test
+    public void testTermCountsOncePerDocument() throws IOException {
+        ConcurrentDFIndexBuilder builder = new ConcurrentDFIndexBuilder(1);
+        builder.addDocument(set(new long[]{1, 2}, 5), set(new long[]{2, 3}, 4));
+        builder.addDocument(set(new long[]{2}, 1));
+        DFIndex index = builder.finish();
+        assertEquals(2, index.getDocFrequency());
+        assertEquals(10, index.getAccumulativeDocLength());
+        assertEquals(1, index.getFrequencyRaw(1));
+        assertEquals(2, index.getFrequencyRaw(2));
+        assertEquals(1, index.getFrequencyRaw(3));
+    }
+
+    private static List<TermTupleSet[]> buildDocs(Random r) {
+        List<TermTupleSet[]> docs = new ArrayList<TermTupleSet[]>(Docs);
+        for (int d = 0; d < Docs; d++) {
+            TermTupleSet sets[] = new TermTupleSet[1 + r.nextInt(3)];
+            for (int s = 0; s < sets.length; s++) {
+                long hashes[] = new long[1 + r.nextInt(40)];
+                for (int i = 0; i < hashes.length; i++) {
+                    // spread over the whole long range, negative hashes included
+                    hashes[i] = (r.nextInt(Vocabulary) + 1) * 0x9e3779b97f4a7c15L;
+                }
+                sets[s] = set(hashes, hashes.length + r.nextInt(10));
+            }
+            docs.add(sets);
+        }
+        return docs;
+    }
+
+    private static TermTupleSet set(long hashes[], int wordCount) {
+        TermTupleSet set = new TermTupleSet();
+        for (long h : hashes) {
+            TermTuple tt = new TermTuple();
+            tt.set("t" + h, h, 1);
+            set.add(tt);
+        }
+        set.setWordCount(wordCount);
+        return set;
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2006-2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.hitorro.basetext.dfindex;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class MappedDFIndexTest {
+    private static final int Keys = 20000;
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        Random r = new Random(5);
+        DFIndex heap = new DFIndex(0);
+        heap.setDetails("test", "query");
+        heap.setDocFrequency(Keys);
+        heap.setAccumulativeDocLength(123456L);
+        long keys[] = new long[Keys + 4];
+        for (int i = 0; i < Keys; i++) {
+            keys[i] = r.nextLong();
+        }
+        keys[Keys] = Long.MIN_VALUE;
+        keys[Keys + 1] = Long.MAX_VALUE;
+        keys[Keys + 2] = -1;
+        keys[Keys + 3] = -42;
+        for (int i = 0; i < keys.length; i++) {
+            for (int j = 0; j <= i % 3; j++) {
+                heap.incrementFrequency(keys[i]);
+            }
+        }
+
+        File f = File.createTempFile("dfindex", MappedDFIndex.Extension);
+        try {
+            MappedDFIndex.write(heap, f);
+            MappedDFIndex mapped = MappedDFIndex.open(f, true);
+            assertEquals(heap.m_map.size(), mapped.size());
+            assertEquals(Keys, mapped.getDocFrequency());
+            assertEquals(123456L, mapped.getAccumulativeDocLength());
+            assertEquals("test", mapped.getDescription());
+            for (int i = 0; i < keys.length; i++) {
+                assertEquals(heap.getFrequencyRaw(keys[i]), mapped.getFrequencyRaw(keys[i]));
+                assertTrue(mapped.hasPhrase(keys[i]) >= 0);
+            }
+            int negatives = 0;
+            for (int i = 0; i < Keys; i++) {
+                long missing = r.nextLong();
+                if (heap.m_map.containsKey(missing)) {
+                    continue;
+                }
+                if (missing < 0) {
+                    negatives++;
+                }
+                assertEquals(0, mapped.getFrequencyRaw(missing));
+                assertEquals(-1, mapped.hasPhrase(missing));
+            }
+            assertTrue(negatives > 0);
+            assertEquals(0, mapped.getFrequencyRaw(Long.MIN_VALUE + 1));
+            assertEquals(0, mapped.getFrequencyRaw(Long.MAX_VALUE - 1));
+        } finally {
+            f.delete();
+        }
+    }
+
+    @Test
+    public void testEmptyIndex() throws IOException {
+        File f = File.createTempFile("dfindex", MappedDFIndex.Extension);
+        try {
+            MappedDFIndex.write(new DFIndex(0), f);
+            MappedDFIndex mapped = MappedDFIndex.open(f, true);
+            assertEquals(0, mapped.size());
+            assertEquals(0, mapped.getFrequencyRaw(0));
+            assertEquals(-1, mapped.hasPhrase(-7));
+            assertEquals(0, mapped.getHashArray(0, -1, false).length);
+        } finally {
+            f.delete();
+        }
+    }
+
+    @Test
+    public void testCorruptBodyFailsVerify() throws IOException {
+        DFIndex heap = new DFIndex(0);
+        heap.incrementFrequency(1);
+        heap.incrementFrequency(2);
+        File f = File.createTempFile("dfindex", MappedDFIndex.Extension);
+        try {
+            MappedDFIndex.write(heap, f);
+            RandomAccessFile raf = new RandomAccessFile(f, "rw");
+            try {
+                raf.seek(raf.length() - 1);
+                raf.writeByte(99);
+            } finally {
+                raf.close();
+            }
+            try {
+                MappedDFIndex.open(f, true);
+                fail("checksum not verified");
+            } catch (IOException e) {
+                // expected
+            }
+            // loads skip the checksum, it was verified when written
+            assertEquals(2, MappedDFIndex.open(f, false).size());
+        } finally {
+            f.delete();
+        }
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testStreamReadRejected() throws IOException {
+        new MappedDFIndex(0).read(new File("unused"));
+    }
+
+    @Test
+    public void testMappedFileFollowsSource() {
+        File source = new File("/data/en/index.dfindex");
+        assertEquals(new File("/data/en/index.dfindex.mdf"), MappedDFIndex.mappedFileFor(source));
+    }
+}
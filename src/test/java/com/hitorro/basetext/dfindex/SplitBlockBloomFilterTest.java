@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2006-2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.hitorro.basetext.dfindex;
+
+import gnu.trove.map.hash.TLongIntHashMap;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class SplitBlockBloomFilterTest {
+    private static final int Keys = 100000;
+
+    @Test
+    public void testNoFalseNegatives() {
+        Random r = new Random(17);
+        long keys[] = new long[Keys];
+        SplitBlockBloomFilter f = new SplitBlockBloomFilter(Keys);
+        for (int i = 0; i < Keys; i++) {
+            keys[i] = r.nextLong();
+            f.add(keys[i]);
+        }
+        for (long k : keys) {
+            assertTrue(f.mightContain(k));
+        }
+        assertEquals(Keys, f.getKeyCount());
+    }
+
+    @Test
+    public void testFalsePositiveRate() {
+        Random r = new Random(31);
+        SplitBlockBloomFilter f = new SplitBlockBloomFilter(Keys);
+        for (int i = 0; i < Keys; i++) {
+            f.add(r.nextLong());
+        }
+        int hits = 0;
+        for (int i = 0; i < Keys; i++) {
+            if (f.mightContain(r.nextLong())) {
+                hits++;
+            }
+        }
+        assertTrue("false positives " + hits, hits < Keys * 3 / 100);
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        TLongIntHashMap map = new TLongIntHashMap();
+        for (long i = 1; i <= 1000; i++) {
+            map.put(i * 0x9e3779b97f4a7c15L, (int) i);
+        }
+        SplitBlockBloomFilter f = SplitBlockBloomFilter.fromKeys(map);
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        DataOutputStream dos = new DataOutputStream(bos);
+        f.write(dos);
+        SplitBlockBloomFilter g = SplitBlockBloomFilter.read(new DataInputStream(new ByteArrayInputStream(bos.toByteArray())));
+        assertNotNull(g);
+        assertEquals(f.getKeyCount(), g.getKeyCount());
+        assertEquals(f.getBlockCount(), g.getBlockCount());
+        for (long k : map.keys()) {
+            assertTrue(g.mightContain(k));
+        }
+    }
+
+    @Test
+    public void testIndexFilterTracksAdds() {
+        BaseDFIndex index = new BaseDFIndex(0);
+        index.buildFilter();
+        assertEquals(-1, index.hasPhrase(42));
+        index.m_map.put(42, 1);
+        index.keyAdded(42);
+        assertEquals(0, index.hasPhrase(42));
+        assertFalse(index.getFilter().getKeyCount() == 0);
+    }
+
+    @Test
+    public void testStaleFilterWithSameCountIsRebuilt() {
+        TLongIntHashMap other = new TLongIntHashMap();
+        other.put(3, 1);
+        other.put(4, 1);
+        SplitBlockBloomFilter stale = SplitBlockBloomFilter.fromKeys(other);
+        BaseDFIndex index = new BaseDFIndex(0);
+        index.m_map.put(1, 1);
+        index.m_map.put(2, 1);
+        index.setFilter(stale);
+        assertFalse("Stale filter rejected", index.getFilter() == stale);
+        assertEquals(0, index.hasPhrase(1));
+        assertEquals(0, index.hasPhrase(2));
+        assertEquals(SplitBlockBloomFilter.checksum(index.m_map), index.getFilter().getKeyChecksum());
+    }
+}
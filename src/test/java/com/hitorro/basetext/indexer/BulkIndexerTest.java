@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2006-2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.hitorro.basetext.indexer;
+
+import com.hitorro.basetext.indexer.collector.Constants;
+import com.hitorro.basetext.indexer.collector.consuming.DocValuesResultCollector;
+import com.hitorro.basetext.indexer.collector.consuming.ResultConsumer;
+import com.hitorro.basetext.indexer.collector.meta.ExtendedFieldDoc;
+import com.hitorro.basetext.indexer.collector.meta.Ids;
+import org.apache.lucene.analysis.core.WhitespaceAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Documents fed through {@link BulkIndexer} come back with their own stored, tokenized and doc values fields.
+ */
+public class BulkIndexerTest {
+    private static final String Tag = "tag";
+    private static final String Body = "body";
+
+    private static class Item {
+        long id;
+        Date date;
+        String body;
+        String tags[];
+
+        Item(long id, Date date, String body, String... tags) {
+            this.id = id;
+            this.date = date;
+            this.body = body;
+            this.tags = tags;
+        }
+    }
+
+    private static class ItemBuilder implements BulkIndexer.DocumentBuilder<Item> {
+        private final IndexerFieldAdapter adapter = new IndexerFieldAdapter();
+
+        public boolean build(Item item, ReusableFields fields, List<IndexableField> doc) {
+            adapter.index(true, item.date, true, true, doc, Constants.PublishDate, true, false, null, fields);
+            adapter.index(false, Long.valueOf(item.id), true, true, doc, Ids.Guid.getLuceneFieldName(), true, false,
+                    null, fields);
+            adapter.index(false, item.body, true, true, doc, Body, false, false, null, fields);
+            for (String tag : item.tags) {
+                adapter.index(false, tag, true, true, doc, Tag, true, false, null, fields);
+            }
+            return true;
+        }
+    }
+
+    private static List<Item> items() {
+        List<Item> items = new ArrayList<Item>();
+        // the second document repeats the tag field fewer times than the first
+        items.add(new Item(100, new Date(1700000000000L), "alpha beta", "red", "green", "blue"));
+        items.add(new Item(101, new Date(1710000000000L), "gamma delta", "yellow"));
+        items.add(new Item(102, new Date(1720000000000L), "epsilon"));
+        items.add(new Item(103, new Date(1730000000000L), "zeta alpha", "red", "black"));
+        return items;
+    }
+
+    @Test
+    public void testFieldsComeBack() throws IOException {
+        List<Item> items = items();
+        ByteBuffersDirectory dir = new ByteBuffersDirectory();
+        IndexWriter writer = new IndexWriter(dir, new IndexWriterConfig(new WhitespaceAnalyzer()));
+        // a single worker so every document reuses the fields of the one before it
+        BulkIndexer<Item> indexer = new BulkIndexer<Item>(writer, new ItemBuilder(), 1);
+        assertEquals(items.size(), indexer.index(items.iterator()));
+        writer.close();
+
+        DirectoryReader reader = DirectoryReader.open(dir);
+        try {
+            IndexSearcher searcher = new IndexSearcher(reader);
+            for (Item item : items) {
+                Document doc = getDocument(searcher, item.id);
+                assertEquals(item.body, doc.get(Body));
+                assertArrayEquals(item.tags, doc.getValues(Tag));
+                assertEquals(1, doc.getValues(Body).length);
+            }
+
+            // tokenized body, literal tags
+            assertEquals(2, searcher.count(new TermQuery(new Term(Body, "alpha"))));
+            assertEquals(1, searcher.count(new TermQuery(new Term(Body, "delta"))));
+            assertEquals(0, searcher.count(new TermQuery(new Term(Body, "gamma delta"))));
+            assertEquals(2, searcher.count(new TermQuery(new Term(Tag, "red"))));
+            // the earlier document's extra tag values did not ride along with the shorter ones
+            assertEquals(1, searcher.count(new TermQuery(new Term(Tag, "green"))));
+            assertEquals(1, searcher.count(new TermQuery(new Term(Tag, "blue"))));
+
+            Map<Long, Integer> dates = getDates(searcher);
+            assertEquals(items.size(), dates.size());
+            for (Item item : items) {
+                assertEquals(IndexerFieldAdapter.getDateDocValue(item.date), (long) dates.get(item.id));
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test
+    public void testSeveralWorkers() throws IOException {
+        List<Item> items = new ArrayList<Item>();
+        for (int i = 0; i < 200; i++) {
+            String tags[] = new String[i % 4];
+            Arrays.fill(tags, "t" + i);
+            items.add(new Item(1000 + i, new Date(1700000000000L + i * 3600000L), "doc" + i, tags));
+        }
+        ByteBuffersDirectory dir = new ByteBuffersDirectory();
+        IndexWriter writer = new IndexWriter(dir, new IndexWriterConfig(new WhitespaceAnalyzer()));
+        BulkIndexer<Item> indexer = new BulkIndexer<Item>(writer, new ItemBuilder(), 4);
+        assertEquals(items.size(), indexer.index(items.iterator()));
+        assertEquals(items.size(), indexer.getIndexedCount());
+        writer.close();
+
+        DirectoryReader reader = DirectoryReader.open(dir);
+        try {
+            IndexSearcher searcher = new IndexSearcher(reader);
+            assertEquals(items.size(), reader.numDocs());
+            for (Item item : items) {
+                Document doc = getDocument(searcher, item.id);
+                assertEquals(item.body, doc.get(Body));
+                assertArrayEquals(item.tags, doc.getValues(Tag));
+            }
+            Map<Long, Integer> dates = getDates(searcher);
+            for (Item item : items) {
+                assertEquals(IndexerFieldAdapter.getDateDocValue(item.date), (long) dates.get(item.id));
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static Document getDocument(IndexSearcher searcher, long id) throws IOException {
+        TopDocs top = searcher.search(new TermQuery(new Term(Ids.Guid.getLuceneFieldName(), Long.toString(id))), 2);
+        assertEquals(1, top.totalHits.value);
+        return searcher.storedFields().document(top.scoreDocs[0].doc);
+    }
+
+    private static Map<Long, Integer> getDates(IndexSearcher searcher) throws IOException {
+        final Map<Long, Integer> dates = new HashMap<Long, Integer>();
+        DocValuesResultCollector collector = new DocValuesResultCollector(new ResultConsumer() {
+            public void consume(ExtendedFieldDoc[] docs, int max) {
+                for (int i = 0; i < max; i++) {
+                    dates.put(docs[i].payload.getId(Ids.Guid), docs[i].payload.publicationDate);
+                }
+            }
+        }, DocValuesResultCollector.DefaultBatchSize, false);
+        searcher.search(new MatchAllDocsQuery(), collector);
+        return dates;
+    }
+}
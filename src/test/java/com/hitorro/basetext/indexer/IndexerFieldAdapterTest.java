@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2006-2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.hitorro.basetext.indexer;
+
+import com.hitorro.basetext.indexer.collector.Constants;
+import com.hitorro.basetext.indexer.collector.consuming.DocValuesResultCollector;
+import com.hitorro.basetext.indexer.collector.consuming.ResultConsumer;
+import com.hitorro.basetext.indexer.collector.meta.ExtendedFieldDoc;
+import com.hitorro.basetext.indexer.collector.meta.Ids;
+import org.apache.lucene.analysis.core.WhitespaceAnalyzer;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Doc values written by {@link IndexerFieldAdapter} are what {@link DocValuesResultCollector} reads.
+ */
+public class IndexerFieldAdapterTest {
+
+    @Test
+    public void testDateAndIdDocValues() throws IOException {
+        Date first = new Date(1700000000000L);
+        Date second = new Date(1710000000000L);
+        IndexerFieldAdapter adapter = new IndexerFieldAdapter();
+        ReusableFields reuse = new ReusableFields();
+        List<IndexableField> doc = new ArrayList<IndexableField>();
+        ByteBuffersDirectory dir = new ByteBuffersDirectory();
+        IndexWriter writer = new IndexWriter(dir, new IndexWriterConfig(new WhitespaceAnalyzer()));
+        for (int i = 0; i < 2; i++) {
+            reuse.reset();
+            doc.clear();
+            Date d = i == 0 ? first : second;
+            adapter.index(true, d, true, true, doc, Constants.PublishDate, true, false, null, reuse);
+            // a second date in the same field, the earlier one is read back
+            adapter.index(true, new Date(d.getTime() + 86400000L), false, true, doc, Constants.PublishDate, true,
+                    false, null, reuse);
+            adapter.index(false, Long.valueOf(100 + i), true, true, doc, Ids.Guid.getLuceneFieldName(), true, false,
+                    null, reuse);
+            adapter.index(false, "text " + i, true, true, doc, "body", false, true, null, reuse);
+            writer.addDocument(doc);
+        }
+        writer.close();
+
+        final Map<Long, Integer> dates = new HashMap<Long, Integer>();
+        DirectoryReader reader = DirectoryReader.open(dir);
+        try {
+            DocValuesResultCollector collector = new DocValuesResultCollector(new ResultConsumer() {
+                public void consume(ExtendedFieldDoc[] docs, int max) {
+                    for (int i = 0; i < max; i++) {
+                        dates.put(docs[i].payload.getId(Ids.Guid), docs[i].payload.publicationDate);
+                    }
+                }
+            }, DocValuesResultCollector.DefaultBatchSize, false);
+            // no flush(), the partial batch is delivered at the end of the segment
+            new IndexSearcher(reader).search(new MatchAllDocsQuery(), collector);
+        } finally {
+            reader.close();
+        }
+        assertEquals(2, dates.size());
+        assertEquals(IndexerFieldAdapter.getDateDocValue(first), (long) dates.get(100L));
+        assertEquals(IndexerFieldAdapter.getDateDocValue(second), (long) dates.get(101L));
+    }
+}
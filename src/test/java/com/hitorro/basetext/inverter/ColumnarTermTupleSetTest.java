@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2006-2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.hitorro.basetext.inverter;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for the struct of arrays term set.
+ */
+public class ColumnarTermTupleSetTest {
+
+    private ColumnarTermTupleSet build(String section, long hashes[], int tfs[], String terms[]) {
+        ColumnarTermTupleSet set = new ColumnarTermTupleSet(2);
+        set.setSectionName(section);
+        int words = 0;
+        for (int i = 0; i < hashes.length; i++) {
+            set.add(hashes[i], tfs[i], terms[i]);
+            words += tfs[i];
+        }
+        set.setWordCount(words);
+        return set;
+    }
+
+    @Test
+    public void testSortByHashPermutesAllColumns() {
+        ColumnarTermTupleSet set = build("a", new long[]{30, -5, 10}, new int[]{3, 1, 2},
+                new String[]{"thirty", "minus", "ten"});
+        set.sortByHashAscend();
+        assertEquals("Smallest hash first", -5, set.getHash(0));
+        assertEquals("tf follows its hash", 1, set.getTF(0));
+        assertEquals("term follows its hash", "minus", set.getTerm(0));
+        assertEquals("Largest hash last", 30, set.getHash(2));
+        assertEquals("term follows its hash", "thirty", set.getTerm(2));
+    }
+
+    @Test
+    public void testArenaTermsAreMaterializedOnRequest() {
+        ColumnarTermTupleSet set = new ColumnarTermTupleSet();
+        char buf[] = "xxhelloxx".toCharArray();
+        set.add(7, 1, buf, 2, 5);
+        assertEquals("Term length from arena", 5, set.getTermLength(0));
+        assertEquals("Term text from arena", "hello", set.getTerm(0));
+    }
+
+    @Test
+    public void testMergeSumsCommonTerms() {
+        ColumnarTermTupleSet a = build("a", new long[]{1, 5, 9}, new int[]{1, 2, 3}, new String[]{"one", "five", "nine"});
+        ColumnarTermTupleSet b = build("b", new long[]{9, 2}, new int[]{4, 1}, new String[]{"nine", "two"});
+        ColumnarTermTupleSet m = a.mergeSet(b, "all");
+        assertEquals("Section name", "all", m.getSectionName());
+        assertEquals("Word count is summed", 11, m.getWordCount());
+        assertEquals("Union size", 4, m.size());
+        assertEquals("Result is in hash order", ColumnarTermTupleSet.Order.HashAscend, m.getOrder());
+        assertEquals("Hash order", 2, m.getHash(1));
+        assertEquals("Common term summed", 7, m.getTF(3));
+        assertEquals("Common term text", "nine", m.getTerm(3));
+    }
+
+    @Test
+    public void testMatchAndDiff() {
+        ColumnarTermTupleSet a = build("a", new long[]{1, 5, 9}, new int[]{1, 2, 3}, new String[]{"one", "five", "nine"});
+        ColumnarTermTupleSet b = build("b", new long[]{9, 2, 5}, new int[]{4, 1, 1}, new String[]{"nine", "two", "five"});
+        final List<String> seen = new ArrayList<String>();
+        a.matchByHash(new ColumnarTermTupleSetVisitor() {
+            public boolean visit(ColumnarTermTupleSet set, int row, ColumnarTermTupleSet otherSet, int otherRow,
+                                 TermTupleSetVisitor.Mode mode) {
+                seen.add(set.getTerm(row) + "=" + otherSet.getTerm(otherRow));
+                return true;
+            }
+        }, b);
+        assertEquals("Common terms", 2, seen.size());
+        assertEquals("Common terms in hash order", "five=five", seen.get(0));
+
+        final int counts[] = new int[3];
+        a.diffByHash(new ColumnarTermTupleSetVisitor() {
+            public boolean visit(ColumnarTermTupleSet set, int row, ColumnarTermTupleSet otherSet, int otherRow,
+                                 TermTupleSetVisitor.Mode mode) {
+                counts[mode.ordinal()]++;
+                return true;
+            }
+        }, b);
+        assertEquals("Left only", 1, counts[TermTupleSetVisitor.Mode.LeftAvailable.ordinal()]);
+        assertEquals("Right only", 1, counts[TermTupleSetVisitor.Mode.RightAvailable.ordinal()]);
+        assertEquals("Both", 2, counts[TermTupleSetVisitor.Mode.BothAvailable.ordinal()]);
+    }
+
+    @Test
+    public void testPruneKeepsOrderAndDropsBadTerms() {
+        ColumnarTermTupleSet set = build("a", new long[]{1, 2, 3, 4}, new int[]{1, 1, 1, 1},
+                new String[]{"a", "b", "c", "d"});
+        set.setMeasure(0, 5.0);
+        set.setMeasure(1, Double.NEGATIVE_INFINITY);
+        set.setMeasure(2, 0.5);
+        set.setMeasure(3, 3.0);
+        set.sortByMeasureDescend();
+        set.prune(1.0, 10);
+        assertEquals("Bad and low terms removed", 2, set.size());
+        assertEquals("Order kept", "a", set.getTerm(0));
+        assertEquals("Order kept", "d", set.getTerm(1));
+        set.prune(1.0, 1);
+        assertEquals("Trimmed to max terms", 1, set.size());
+    }
+
+    @Test
+    public void testDotAndCosineOverCommonHashes() {
+        ColumnarTermTupleSet a = build("a", new long[]{9, 1, 5}, new int[]{1, 1, 1}, new String[]{"nine", "one", "five"});
+        ColumnarTermTupleSet b = build("b", new long[]{5, 2, 9}, new int[]{1, 1, 1}, new String[]{"five", "two", "nine"});
+        // measures set by row before the sets are sorted, they must follow their hashes
+        a.setMeasure(0, 2.0);
+        a.setMeasure(1, 1.0);
+        a.setMeasure(2, 3.0);
+        b.setMeasure(0, 4.0);
+        b.setMeasure(1, 7.0);
+        b.setMeasure(2, 0.5);
+        double dot = 3.0 * 4.0 + 2.0 * 0.5;
+        assertEquals("Common hashes only", dot, a.dot(b), 1e-12);
+        assertEquals("Symmetric", dot, b.dot(a), 1e-12);
+        assertEquals("Sorted by hash for the join", ColumnarTermTupleSet.Order.HashAscend, a.getOrder());
+        double cos = dot / (Math.sqrt(4 + 1 + 9) * Math.sqrt(16 + 49 + 0.25));
+        assertEquals("Cosine", cos, a.cosine(b), 1e-9);
+        assertEquals("Self cosine", 1.0, a.cosine(a), 1e-9);
+        assertEquals("Empty set", 0, a.cosine(new ColumnarTermTupleSet()), 0);
+    }
+
+    @Test
+    public void testRoundTripThroughTupleSet() {
+        ColumnarTermTupleSet set = build("a", new long[]{11, 3}, new int[]{2, 2}, new String[]{"x", "y"});
+        TermTupleSet<TermTuple> tts = set.toTermTupleSet();
+        assertEquals("Tuple count", 2, tts.getTuplesList().size());
+        assertEquals("Hash kept, not rehashed", 11, tts.getTuplesList().get(0).m_hash);
+        ColumnarTermTupleSet back = ColumnarTermTupleSet.from(tts);
+        assertEquals("Size kept", 2, back.size());
+        assertEquals("Word count kept", 4, back.getWordCount());
+        assertEquals("Term kept", "y", back.getTerm(1));
+    }
+
+    @Test
+    public void testRoundTripKeepsMeasures() {
+        TermTupleSet<TermTuple> tts = new TermTupleSet<TermTuple>();
+        tts.setWordCount(3);
+        TermTuple good = new TermTuple();
+        good.set("x", 11, 2);
+        good.setTermMeasure(2.5);
+        good.setDF(7);
+        tts.add(good);
+        TermTuple bad = new TermTuple();
+        bad.set("y", 3, 1);
+        bad.isGoodValue = false;
+        bad.setTermMeasure(-Double.MAX_VALUE);
+        bad.setDF(9);
+        tts.add(bad);
+
+        ColumnarTermTupleSet c = ColumnarTermTupleSet.from(tts);
+        assertEquals("Measure copied", 2.5, c.getMeasure(0), 0);
+        assertEquals("DF copied", 7, c.getDF(0));
+        assertFalse("Bad term kept bad", c.isGood(1));
+
+        List<TermTuple> back = c.toTermTupleSet().getTuplesList();
+        assertTrue("Measure present", back.get(0).isTermMeasure);
+        assertEquals("Measure kept", 2.5, back.get(0).getMeasure(), 0);
+        assertEquals("DF kept", 7, back.get(0).m_df, 0);
+        assertTrue("Good term", back.get(0).isGood());
+        assertFalse("Bad term", back.get(1).isGood());
+        assertEquals("DF of bad term kept", 9, back.get(1).m_df, 0);
+    }
+
+    @Test
+    public void testRoundTripWithoutMeasures() {
+        ColumnarTermTupleSet set = build("a", new long[]{11}, new int[]{1}, new String[]{"x"});
+        assertFalse("No measure invented", set.toTermTupleSet().getTuplesList().get(0).isTermMeasure);
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2006-2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.hitorro.basetext.inverter;
+
+import com.hitorro.language.Iso639Table;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Parallel inversion through a {@link DocumentInverterPool} gives what one inverter gives sequentially.
+ */
+public class DocumentInverterPoolTest {
+    private static final String Filters = "WHITESPACE,CASE";
+
+    @Test
+    public void testInvertAllMatchesSequential() throws IOException {
+        Random r = new Random(23);
+        List<InverterDocument> docs = new ArrayList<InverterDocument>();
+        for (int d = 0; d < 200; d++) {
+            docs.add(new InverterDocument("doc" + d, new String[]{"title", "body"},
+                    new String[]{text(r, 5), text(r, 200)}, Iso639Table.english));
+        }
+        DocumentInverterPool pool = new DocumentInverterPool("body", Filters);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<TermTupleSetGroup> groups;
+        try {
+            groups = pool.invertAll(docs, null, null, executor);
+        } finally {
+            executor.shutdown();
+        }
+
+        DocumentInverter sequential = new DocumentInverter("body", Filters, null, null);
+        assertEquals(docs.size(), groups.size());
+        for (int d = 0; d < docs.size(); d++) {
+            InverterDocument doc = docs.get(d);
+            TermTupleSetGroup group = groups.get(d);
+            assertEquals("order kept", doc.getId(), group.getId());
+            for (int s = 0; s < doc.getSectionNames().length; s++) {
+                String section = doc.getSectionNames()[s];
+                TermTupleSet expected = sequential.setText(section, doc.getTexts()[s], doc.getLanguage());
+                TermTupleSet actual = group.getByName(section);
+                assertEquals(doc.getId() + " " + section, counts(expected), counts(actual));
+                assertEquals(expected.getWordCount(), actual.getWordCount());
+            }
+        }
+    }
+
+    @Test
+    public void testInverterIsPerThread() throws Exception {
+        final DocumentInverterPool pool = new DocumentInverterPool("body", Filters);
+        DocumentInverter mine = pool.get();
+        assertSame(mine, pool.get());
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<DocumentInverter> other = executor.submit(pool::get);
+            assertNotSame(mine, other.get());
+            assertSame(other.get(), executor.submit(pool::get).get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testSharedPools() {
+        assertSame(DocumentInverterPool.getPool("body", Filters), DocumentInverterPool.getPool("body", Filters));
+        assertSame(DocumentInverterPool.getPool("body", null), DocumentInverterPool.getPool("body", ""));
+        assertNotSame(DocumentInverterPool.getPool("body", Filters), DocumentInverterPool.getPool("title", Filters));
+    }
+
+    private static String text(Random r, int words) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            sb.append(i == 0 ? "" : " ").append(r.nextBoolean() ? "Word" : "word").append(r.nextInt(50));
+        }
+        return sb.toString();
+    }
+
+    private static Map<String, Integer> counts(TermTupleSet<? extends TermTuple> set) {
+        Map<String, Integer> m = new HashMap<String, Integer>();
+        for (TermTuple tt : set.getTuplesList()) {
+            m.put(tt.getTerm() + "/" + tt.m_hash, tt.tf);
+        }
+        return m;
+    }
+}
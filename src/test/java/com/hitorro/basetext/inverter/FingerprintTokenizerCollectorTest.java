@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2006-2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.hitorro.basetext.inverter;
+
+import com.hitorro.util.core.hash.FPHash64;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.core.WhitespaceTokenizer;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * DF lookups and persisted term sets hash terms with FPHash64.getFP(String), the collector hashes the term buffer.
+ */
+public class FingerprintTokenizerCollectorTest {
+    private static final String tokens[] = {
+            "a", "hello", "don't", "x1_2", // ASCII
+            "café", "naïve", "日本語", "Ελληνικά", "مرحبا", // BMP
+            "😀", "a😀b", "𝔘𝔫𝔦𝔠𝔬𝔡𝔢", "𠀀𠀁", // supplementary plane, surrogate pairs
+    };
+
+    @Test
+    public void testBufferFingerprintEqualsStringFingerprint() {
+        for (String t : tokens) {
+            char buf[] = (t + "trailing junk").toCharArray();
+            assertEquals(t, FPHash64.getFP(t), FPHash64.getFingerprint(buf, t.length()));
+        }
+    }
+
+    @Test
+    public void testCollectedHashesEqualStringFingerprint() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (String t : tokens) {
+            sb.append(t).append(' ').append(t).append(' ');
+        }
+        Tokenizer ts = new WhitespaceTokenizer();
+        ts.setReader(new StringReader(sb.toString()));
+        FingerprintTokenizerCollector col = new FingerprintTokenizerCollector();
+        int words = col.collect(ts);
+        assertEquals(tokens.length * 2, words);
+        assertEquals(tokens.length, col.size());
+        for (int slot = 0; slot < col.size(); slot++) {
+            String term = col.getTerm(slot);
+            assertEquals(term, FPHash64.getFP(term), col.getHash(slot));
+            assertEquals(term, 2, col.getCount(slot));
+        }
+    }
+
+    @Test
+    public void testTopTuplesCarryMeasuresWithoutRemeasuring() throws IOException {
+        Tokenizer ts = new WhitespaceTokenizer();
+        ts.setReader(new StringReader("a b b c c c d d d d e e e e e"));
+        FingerprintTokenizerCollector col = new FingerprintTokenizerCollector();
+        int words = col.collect(ts);
+        CountingFunction func = new CountingFunction();
+        TermTupleSet<TermTuple> set = new TermTupleSet<TermTuple>();
+        col.getTopTuples(set, words, func, new TopKTermSelector(3), 0);
+
+        assertEquals("each term measured once", col.size(), func.calls);
+        assertEquals(3, set.getTuplesList().size());
+        String expected[] = {"e", "d", "c"};
+        for (int i = 0; i < 3; i++) {
+            TermTuple tt = set.getTuplesList().get(i);
+            assertEquals(expected[i], tt.getTerm());
+            assertTrue(tt.isTermMeasure);
+            assertEquals(tt.tf * 10.0, tt.getMeasure(), 0);
+            assertEquals(tt.tf + 100.0, tt.m_df, 0);
+        }
+        assertFalse("already measured", set.computeTermMeasureIfNotAlready(func));
+    }
+
+    private static class CountingFunction extends TermMeasureFunction {
+        int calls = 0;
+
+        public boolean compute(TermTuple tt, TermTupleSet set) {
+            calls++;
+            tt.setDF(tt.tf + 100.0);
+            tt.setTermMeasure(tt.tf * 10.0);
+            return true;
+        }
+    }
+}
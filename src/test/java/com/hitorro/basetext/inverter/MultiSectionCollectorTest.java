@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2006-2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.hitorro.basetext.inverter;
+
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.core.WhitespaceTokenizer;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+public class MultiSectionCollectorTest {
+    private static final String texts[] = {"a b b c", "c c d", "", "a e"};
+
+    @Test
+    public void testSectionsAndWholeDocumentMatchSeparateCollection() throws IOException {
+        MultiSectionCollector multi = new MultiSectionCollector();
+        // a second document on the same instance must not see the first
+        multi.clear(2);
+        multi.collect(tokens("x y z"), 0);
+        multi.clear(texts.length);
+        StringBuilder all = new StringBuilder();
+        for (int i = 0; i < texts.length; i++) {
+            multi.collect(tokens(texts[i]), i);
+            all.append(texts[i]).append(' ');
+        }
+
+        FingerprintTokenizerCollector single = new FingerprintTokenizerCollector();
+        for (int i = 0; i < texts.length; i++) {
+            int words = single.collect(tokens(texts[i]));
+            assertEquals(words, multi.getWordCount(i));
+            assertEquals(single.size(), multi.size(i));
+            assertEquals(counts(single), counts(multi, i));
+        }
+        int words = single.collect(tokens(all.toString()));
+        assertEquals(words, multi.getWordCount());
+        assertEquals(single.size(), multi.size());
+        assertEquals(counts(single), counts(multi));
+
+        TermTupleSet set = new TermTupleSet(multi.size());
+        multi.getTuples(set);
+        assertEquals(words, set.getWordCount());
+        assertEquals(single.size(), set.getTuplesList().size());
+    }
+
+    private static Tokenizer tokens(String text) {
+        Tokenizer ts = new WhitespaceTokenizer();
+        ts.setReader(new StringReader(text));
+        return ts;
+    }
+
+    private static Map<String, Integer> counts(FingerprintTokenizerCollector col) {
+        Map<String, Integer> ret = new HashMap<String, Integer>();
+        for (int i = 0; i < col.size(); i++) {
+            ret.put(col.getTerm(i), col.getCount(i));
+        }
+        return ret;
+    }
+
+    private static Map<String, Integer> counts(MultiSectionCollector multi, int section) {
+        Map<String, Integer> ret = new HashMap<String, Integer>();
+        for (int i = 0; i < multi.size(); i++) {
+            if (multi.getCount(i, section) > 0) {
+                ret.put(multi.getTerm(i), multi.getCount(i, section));
+            }
+        }
+        return ret;
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2006-2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.hitorro.basetext.inverter;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for the compact term set encoding.
+ */
+public class TermTupleSetCodecTest {
+
+    private TermTupleSet<TermTuple> build(int terms, boolean measures) {
+        Random r = new Random(11);
+        TermTupleSet<TermTuple> set = new TermTupleSet<TermTuple>();
+        int words = 0;
+        for (int i = 0; i < terms; i++) {
+            TermTuple tt = new TermTuple();
+            int tf = 1 + r.nextInt(300);
+            tt.set("term" + i + "é", tf);
+            words += tf;
+            if (measures) {
+                if (i % 7 == 0) {
+                    tt.isGoodValue = false;
+                    tt.setTermMeasure(-Double.MAX_VALUE);
+                } else {
+                    tt.setTermMeasure(r.nextDouble() * 100);
+                }
+            }
+            set.add(tt);
+        }
+        set.setWordCount(words);
+        set.setSectionName("body");
+        return set;
+    }
+
+    @Test
+    public void testRoundTrip() {
+        TermTupleSet<TermTuple> set = build(1000, true);
+        byte bytes[] = TermTupleSetCodec.encode(set, true);
+        EncodedTermTupleSet e = new EncodedTermTupleSet(bytes);
+        assertEquals(1000, e.size());
+        assertEquals(set.getWordCount(), e.getWordCount());
+        assertEquals("body", e.getSectionName());
+        TermTupleSet<TermTuple> back = e.toTermTupleSet();
+        List<TermTuple> a = set.getTuplesList();
+        List<TermTuple> b = back.getTuplesList();
+        for (int i = 0; i < a.size(); i++) {
+            TermTuple x = a.get(i);
+            TermTuple y = b.get(i);
+            assertEquals(x.m_hash, y.m_hash);
+            assertEquals(x.tf, y.tf);
+            assertEquals(x.getTerm(), y.getTerm());
+            assertEquals(x.isGood(), y.isGood());
+            if (x.isGood()) {
+                assertEquals("Quantized measure", x.getMeasure(), y.getMeasure(), 100.0 / 65534);
+            }
+        }
+    }
+
+    @Test
+    public void testFindWithoutInflating() {
+        TermTupleSet<TermTuple> set = build(500, false);
+        EncodedTermTupleSet e = new EncodedTermTupleSet(TermTupleSetCodec.encode(set, false));
+        assertFalse(e.hasTerms());
+        assertFalse(e.hasMeasures());
+        List<TermTuple> l = set.getTuplesList();
+        for (int i = 0; i < l.size(); i++) {
+            TermTuple tt = l.get(i);
+            assertEquals(i, e.find(tt.m_hash));
+            assertEquals(tt.tf, e.getTF(tt.m_hash));
+            assertNull(e.getTerm(i));
+        }
+        Random r = new Random(1);
+        for (int i = 0; i < 1000; i++) {
+            long h = r.nextLong();
+            boolean present = false;
+            for (TermTuple tt : l) {
+                present |= tt.m_hash == h;
+            }
+            if (!present) {
+                assertEquals(-1, e.find(h));
+            }
+        }
+    }
+
+    @Test
+    public void testSmallerThanRawFields() {
+        TermTupleSet<TermTuple> set = build(1000, true);
+        byte bytes[] = TermTupleSetCodec.encode(set, false);
+        // raw (long hash, int tf, double measure) is 20 bytes a tuple, here at most 8 + 2 byte tf + 2 byte measure
+        int blocks = (1000 + TermTupleSetCodec.BlockSize - 1) / TermTupleSetCodec.BlockSize;
+        assertTrue("encoded " + bytes.length, bytes.length <= 1000 * 12 + blocks * 12 + 4 + 32);
+    }
+
+    @Test
+    public void testUniformHashesStoredWhole() {
+        // a per document sized set of fingerprints, the deltas would take 8 or 9 bytes each
+        TermTupleSet<TermTuple> set = build(200, false);
+        byte bytes[] = TermTupleSetCodec.encode(set, false);
+        EncodedTermTupleSet e = new EncodedTermTupleSet(bytes);
+        assertTrue(e.hasFixedHashes());
+        List<TermTuple> l = set.getTuplesList();
+        int blocks = (200 + TermTupleSetCodec.BlockSize - 1) / TermTupleSetCodec.BlockSize;
+        int deltaBytes = 0;
+        int tfBytes = 0;
+        for (int i = 0; i < l.size(); i++) {
+            tfBytes += TermTupleSetCodec.varLongSize(l.get(i).tf);
+            if (i % TermTupleSetCodec.BlockSize != 0) {
+                deltaBytes += TermTupleSetCodec.varLongSize(l.get(i).m_hash - l.get(i - 1).m_hash);
+            }
+            assertEquals(i, e.find(l.get(i).m_hash));
+        }
+        int hashBytes = (200 - blocks) * 8;
+        assertTrue("deltas " + deltaBytes, deltaBytes >= hashBytes);
+        assertTrue("encoded " + bytes.length, bytes.length <= hashBytes + tfBytes + blocks * 12 + 4 + 16);
+    }
+
+    @Test
+    public void testCloseHashesStoredAsDeltas() {
+        TermTupleSet<TermTuple> set = new TermTupleSet<TermTuple>();
+        for (int i = 0; i < 200; i++) {
+            TermTuple tt = new TermTuple();
+            tt.set(null, Long.MIN_VALUE + 1000L * i, 1);
+            set.add(tt);
+        }
+        byte bytes[] = TermTupleSetCodec.encode(set, false);
+        EncodedTermTupleSet e = new EncodedTermTupleSet(bytes);
+        assertFalse(e.hasFixedHashes());
+        // 2 byte delta and 1 byte tf
+        assertTrue("encoded " + bytes.length, bytes.length <= 200 * 3 + 7 * 12 + 4 + 16);
+        for (int i = 0; i < 200; i++) {
+            assertEquals(i, e.find(Long.MIN_VALUE + 1000L * i));
+        }
+        assertEquals(-1, e.find(Long.MIN_VALUE + 1));
+    }
+
+    @Test
+    public void testEmptySet() {
+        TermTupleSet<TermTuple> set = new TermTupleSet<TermTuple>();
+        EncodedTermTupleSet e = new EncodedTermTupleSet(TermTupleSetCodec.encode(set, true));
+        assertEquals(0, e.size());
+        assertNull(e.getSectionName());
+        assertEquals(-1, e.find(42));
+        assertFalse(e.cursor().next());
+    }
+}
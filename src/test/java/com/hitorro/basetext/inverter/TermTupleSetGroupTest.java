@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2006-2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.hitorro.basetext.inverter;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class TermTupleSetGroupTest {
+    @Test
+    public void testSectionIdsAreScopedToTheGroup() {
+        TermTupleSetGroup a = new TermTupleSetGroup((DocumentInverterPool) null, null, null);
+        TermTupleSetGroup b = new TermTupleSetGroup((DocumentInverterPool) null, null, null);
+        TermTupleSet title = section("title");
+        TermTupleSet body = section("body");
+        a.addTupleSet(title);
+        a.addTupleSet(body);
+        b.addTupleSet(section("body"));
+
+        assertEquals(0, a.getSectionId("title"));
+        assertEquals(1, a.getSectionId("body"));
+        assertEquals(0, b.getSectionId("body"));
+        assertEquals(-1, b.getSectionId("title"));
+        assertSame(body, a.getById(a.getSectionId("body")));
+        assertSame(title, a.getByNameAux("title"));
+
+        a.clear();
+        assertEquals(-1, a.getSectionId("title"));
+        assertNull(a.getByNameAux("body"));
+        TermTupleSet other = section("other");
+        a.addTupleSet(other);
+        assertEquals(0, a.getSectionId("other"));
+        assertSame(other, a.getById(0));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testSetsCannotBeAddedAroundTheIndex() {
+        TermTupleSetGroup group = new TermTupleSetGroup((DocumentInverterPool) null, null, null);
+        group.addTupleSet(section("title"));
+        assertEquals(1, group.getSets().size());
+        group.getSets().add(section("body"));
+    }
+
+    private static TermTupleSet section(String name) {
+        TermTupleSet set = new TermTupleSet();
+        set.setSectionName(name);
+        return set;
+    }
+}
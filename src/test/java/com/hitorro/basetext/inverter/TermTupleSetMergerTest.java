@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2006-2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.hitorro.basetext.inverter;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for the heap based N-way merge.
+ */
+public class TermTupleSetMergerTest {
+
+    private TermTupleSet<TermTuple> build(Random r, int terms) {
+        TermTupleSet<TermTuple> set = new TermTupleSet<TermTuple>();
+        int words = 0;
+        for (int i = 0; i < terms; i++) {
+            int t = r.nextInt(200);
+            int tf = 1 + r.nextInt(5);
+            boolean seen = false;
+            for (TermTuple tt : set.getTuplesList()) {
+                if (tt.getTerm().equals("t" + t)) {
+                    seen = true;
+                }
+            }
+            if (!seen) {
+                TermTuple tt = new TermTuple();
+                tt.set("t" + t, tf);
+                set.add(tt);
+                words += tf;
+            }
+        }
+        set.setWordCount(words);
+        return set;
+    }
+
+    @Test
+    public void testMatchesPairwiseMerge() {
+        Random r = new Random(5);
+        List<TermTupleSet> sets = new ArrayList<TermTupleSet>();
+        for (int i = 0; i < 20; i++) {
+            sets.add(build(r, 1 + r.nextInt(60)));
+        }
+        sets.add(new TermTupleSet<TermTuple>());
+        TermTupleSet pairwise = sets.get(0);
+        for (int i = 1; i < sets.size(); i++) {
+            pairwise = pairwise.mergeSet(sets.get(i), "all");
+        }
+        TermTupleSet<TermTuple> merged = TermTupleSetMerger.merge(sets, "all");
+        assertEquals("Word counts summed", pairwise.getWordCount(), merged.getWordCount());
+        List<TermTuple> a = pairwise.getTuplesList();
+        List<TermTuple> b = merged.getTuplesList();
+        assertEquals("Same distinct terms", a.size(), b.size());
+        for (int i = 0; i < a.size(); i++) {
+            assertEquals(a.get(i).m_hash, b.get(i).m_hash);
+            assertEquals(a.get(i).getTerm(), b.get(i).getTerm());
+            assertEquals(a.get(i).tf, b.get(i).tf);
+            assertEquals(a.get(i).getNormalizedTF(), b.get(i).getNormalizedTF(), 1e-9);
+        }
+    }
+
+    @Test
+    public void testColumnarOutput() {
+        Random r = new Random(9);
+        List<TermTupleSet> sets = new ArrayList<TermTupleSet>();
+        int total = 0;
+        for (int i = 0; i < 8; i++) {
+            TermTupleSet<TermTuple> s = build(r, 30);
+            for (TermTuple tt : s.getTuplesList()) {
+                total += tt.tf;
+            }
+            sets.add(s);
+        }
+        ColumnarTermTupleSet c = TermTupleSetMerger.mergeColumnar(sets, "all");
+        assertEquals(ColumnarTermTupleSet.Order.HashAscend, c.getOrder());
+        int sum = 0;
+        for (int i = 0; i < c.size(); i++) {
+            sum += c.getTF(i);
+            if (i > 0) {
+                assertTrue("Strictly ascending hashes", c.getHash(i - 1) < c.getHash(i));
+            }
+        }
+        assertEquals("No tf lost", total, sum);
+    }
+}
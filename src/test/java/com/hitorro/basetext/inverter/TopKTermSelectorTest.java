@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2006-2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.hitorro.basetext.inverter;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for the bounded top K heap.
+ */
+public class TopKTermSelectorTest {
+
+    @Test
+    public void testKeepsBestInDescendingOrder() {
+        Random r = new Random(3);
+        double all[] = new double[1000];
+        TopKTermSelector sel = new TopKTermSelector(50);
+        for (int i = 0; i < all.length; i++) {
+            all[i] = r.nextDouble();
+            sel.offer(i, all[i]);
+        }
+        sel.sortDescending();
+        double sorted[] = all.clone();
+        Arrays.sort(sorted);
+        assertEquals(50, sel.size());
+        for (int i = 0; i < 50; i++) {
+            assertEquals("Rank " + i, sorted[sorted.length - 1 - i], sel.getMeasure(i), 0);
+            assertEquals("Slot follows its measure", all[sel.getSlot(i)], sel.getMeasure(i), 0);
+        }
+    }
+
+    @Test
+    public void testFewerThanK() {
+        TopKTermSelector sel = new TopKTermSelector(10);
+        sel.offer(0, 1.0);
+        sel.offer(1, 3.0);
+        sel.offer(2, 2.0);
+        sel.sortDescending();
+        assertEquals(3, sel.size());
+        assertEquals(1, sel.getSlot(0));
+        assertEquals(2, sel.getSlot(1));
+        assertEquals(0, sel.getSlot(2));
+    }
+
+    @Test
+    public void testTiesKeepLowerSlot() {
+        TopKTermSelector sel = new TopKTermSelector(2);
+        for (int i = 0; i < 5; i++) {
+            sel.offer(i, 1.0);
+        }
+        sel.sortDescending();
+        assertEquals(0, sel.getSlot(0));
+        assertEquals(1, sel.getSlot(1));
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2006-2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.hitorro.basetext.inverter.vector;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * The kernels handed out by {@link TermKernels#get()}, vectorized when the module is enabled, against the scalar ones.
+ */
+public class TermKernelsTest {
+    private final TermKernels kernels = TermKernels.get();
+    private final TermKernels scalar = TermKernels.scalar();
+
+    @Test
+    public void testTFIDFMatchesScalar() {
+        Random r = new Random(7);
+        for (int n : new int[]{0, 1, 7, 64, 1001}) {
+            int tf[] = new int[n];
+            int df[] = new int[n];
+            for (int i = 0; i < n; i++) {
+                tf[i] = 1 + r.nextInt(20);
+                df[i] = r.nextInt(5000);
+            }
+            double a[] = new double[n];
+            double b[] = new double[n];
+            kernels.tfidf(tf, df, n, 500, 100000, 0.30, a);
+            scalar.tfidf(tf, df, n, 500, 100000, 0.30, b);
+            assertArrayEquals("n=" + n, b, a, 0);
+        }
+    }
+
+    @Test
+    public void testNormAndNormalize() {
+        Random r = new Random(9);
+        double v[] = new double[333];
+        for (int i = 0; i < v.length; i++) {
+            v[i] = r.nextGaussian();
+        }
+        assertEquals(scalar.norm(v, v.length), kernels.norm(v, v.length), 1e-9);
+        double w[] = v.clone();
+        kernels.normalize(w, w.length);
+        assertEquals(1.0, scalar.norm(w, w.length), 1e-12);
+        double zero[] = new double[5];
+        assertEquals(0, kernels.normalize(zero, zero.length), 0);
+    }
+
+    @Test
+    public void testDotMatchesScalar() {
+        Random r = new Random(13);
+        long ha[] = sortedHashes(r, 700);
+        long hb[] = sortedHashes(r, 300);
+        // share some hashes
+        for (int i = 0; i < hb.length; i += 3) {
+            hb[i] = ha[(i * 2) % ha.length];
+        }
+        Arrays.sort(hb);
+        hb = distinct(hb);
+        double va[] = values(r, ha.length);
+        double vb[] = values(r, hb.length);
+        double expected = 0;
+        for (int i = 0; i < ha.length; i++) {
+            int j = Arrays.binarySearch(hb, ha[i]);
+            if (j >= 0) {
+                expected += va[i] * vb[j];
+            }
+        }
+        assertEquals(expected, scalar.dot(ha, va, ha.length, hb, vb, hb.length), 1e-9);
+        assertEquals(scalar.dot(ha, va, ha.length, hb, vb, hb.length),
+                kernels.dot(ha, va, ha.length, hb, vb, hb.length), 0);
+        assertEquals(scalar.cosine(ha, va, ha.length, hb, vb, hb.length),
+                kernels.cosine(ha, va, ha.length, hb, vb, hb.length), 1e-9);
+    }
+
+    private static long[] sortedHashes(Random r, int n) {
+        long h[] = new long[n];
+        for (int i = 0; i < n; i++) {
+            h[i] = r.nextLong();
+        }
+        Arrays.sort(h);
+        return distinct(h);
+    }
+
+    private static long[] distinct(long h[]) {
+        int fill = 0;
+        for (int i = 0; i < h.length; i++) {
+            if (fill == 0 || h[fill - 1] != h[i]) {
+                h[fill++] = h[i];
+            }
+        }
+        return Arrays.copyOf(h, fill);
+    }
+
+    private static double[] values(Random r, int n) {
+        double v[] = new double[n];
+        for (int i = 0; i < n; i++) {
+            v[i] = r.nextDouble();
+        }
+        return v;
+    }
+}
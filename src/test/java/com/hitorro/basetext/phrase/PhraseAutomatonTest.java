@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2006-2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.hitorro.basetext.phrase;
+
+import com.hitorro.util.core.hash.FPHash64;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for the token fingerprint phrase automaton.
+ */
+public class PhraseAutomatonTest {
+
+    private static long phraseFP(String phrase) {
+        long fp = 0;
+        for (String part : phrase.split(" ")) {
+            long curr = FPHash64.getFP(part);
+            fp = fp == 0 ? curr : FPHash64.combineFingerPrints(fp, curr);
+        }
+        return fp;
+    }
+
+    private PhraseAutomaton build(String... phrases) {
+        PhraseAutomaton pa = new PhraseAutomaton(4);
+        for (String p : phrases) {
+            pa.add(p);
+        }
+        pa.build();
+        return pa;
+    }
+
+    private List<String> match(PhraseAutomaton pa, String text) {
+        final List<String> found = new ArrayList<>();
+        AutomatonPhraseContext ctx = new AutomatonPhraseContext(pa, true) {
+            public void phraseMatch(long fingerPrint, int startPosition, int size, String txt,
+                                    long val, int layer, int charStartOffset, int charEndOffset) {
+                assertEquals("fingerprint matches PhraseIndex", phraseFP(txt), fingerPrint);
+                found.add(startPosition + ":" + txt);
+            }
+        };
+        ctx.reset();
+        int offset = 0;
+        for (String tok : text.split(" ")) {
+            ctx.add(tok.toCharArray(), tok.length(), offset, offset + tok.length());
+            offset += tok.length() + 1;
+        }
+        ctx.end();
+        return found;
+    }
+
+    @Test
+    public void testTrieWalk() {
+        PhraseAutomaton pa = build("new york", "new york city");
+        int s = pa.child(PhraseAutomaton.Root, FPHash64.getFP("new"));
+        assertNotEquals(PhraseAutomaton.NoState, s);
+        assertFalse(pa.isTerminal(s));
+        s = pa.child(s, FPHash64.getFP("york"));
+        assertTrue(pa.isTerminal(s));
+        assertEquals(2, pa.getDepth(s));
+        assertEquals(phraseFP("new york"), pa.getPhraseFingerprint(s));
+        assertEquals(PhraseAutomaton.NoState, pa.child(s, FPHash64.getFP("state")));
+        assertEquals(3, pa.getMaxDepth());
+        assertEquals(2, pa.getPhraseCount());
+    }
+
+    @Test
+    public void testAllMatchesIncludingOverlaps() {
+        PhraseAutomaton pa = build("new york", "new york city", "york", "city hall", "hall");
+        List<String> found = match(pa, "i love new york city hall");
+        assertEquals(5, found.size());
+        assertTrue(found.contains("2:new york"));
+        assertTrue(found.contains("3:york"));
+        assertTrue(found.contains("2:new york city"));
+        assertTrue(found.contains("4:city hall"));
+        assertTrue(found.contains("5:hall"));
+        assertTrue(found.contains("4:city hall") && found.indexOf("4:city hall") < found.indexOf("5:hall"));
+    }
+
+    @Test
+    public void testFailLinkRecovery() {
+        // "a a b" must still be found after the partial "a a a" path fails
+        PhraseAutomaton pa = build("a a b", "a b c");
+        List<String> found = match(pa, "a a a b c");
+        assertEquals(2, found.size());
+        assertEquals("1:a a b", found.get(0));
+        assertEquals("2:a b c", found.get(1));
+    }
+
+    @Test
+    public void testValueAccumulates() {
+        PhraseAutomaton pa = new PhraseAutomaton();
+        pa.add("big apple");
+        int s = pa.add("big apple");
+        pa.build();
+        assertEquals(2, pa.getValue(s));
+        assertEquals(1, pa.getPhraseCount());
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2006-2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.hitorro.basetext.phrase;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Spilled runs of a {@link PhraseCombiner} add up to the counts of the uncombined occurrences.
+ */
+public class PhraseCombinerTest {
+
+    @Test
+    public void testSpilledTotalsEqualUncombined() throws IOException {
+        Random r = new Random(19);
+        Map<String, Integer> expected = new HashMap<String, Integer>();
+        // small budget, many spills
+        CapturingCombiner combiner = new CapturingCombiner(4096);
+        long occurrences = 0;
+        for (int i = 0; i < 50000; i++) {
+            String phrase = "w" + r.nextInt(300) + " w" + r.nextInt(5);
+            int freq = 1 + (i % 10 == 0 ? r.nextInt(4) : 0);
+            if (freq == 1) {
+                combiner.add(phrase);
+            } else {
+                combiner.add(phrase, freq);
+            }
+            expected.merge(phrase, freq, Integer::sum);
+            occurrences += freq;
+        }
+        combiner.flush();
+
+        assertEquals(0, combiner.size());
+        assertEquals(occurrences, combiner.getOccurrences());
+        assertTrue("spilled more than once", combiner.getSpillCount() > 1);
+        assertTrue("combined", combiner.getSpilledRecords() < occurrences);
+        assertEquals(combiner.getSpilledRecords(), combiner.records);
+        assertEquals(expected, combiner.totals);
+        assertTrue("runs sorted", combiner.sorted);
+    }
+
+    @Test
+    public void testFlushWithoutSpill() throws IOException {
+        CapturingCombiner combiner = new CapturingCombiner(1L << 30);
+        combiner.add("a b");
+        combiner.add("a b", 2);
+        combiner.add("c");
+        assertEquals(0, combiner.records);
+        combiner.flush();
+        assertEquals(1, combiner.getSpillCount());
+        assertEquals(2, combiner.records);
+        assertEquals(Integer.valueOf(3), combiner.totals.get("a b"));
+        assertEquals(Integer.valueOf(1), combiner.totals.get("c"));
+        combiner.flush();
+        assertEquals(1, combiner.getSpillCount());
+    }
+
+    private static class CapturingCombiner extends PhraseCombiner {
+        final Map<String, Integer> totals = new HashMap<String, Integer>();
+        final List<PhraseElement> run = new ArrayList<PhraseElement>();
+        long records = 0;
+        boolean sorted = true;
+        int lastSpill = 0;
+
+        CapturingCombiner(long budget) {
+            super(null, budget);
+        }
+
+        @Override
+        protected void emit(PhraseElement pe) {
+            if (getSpillCount() != lastSpill) {
+                run.clear();
+                lastSpill = getSpillCount();
+            }
+            if (!run.isEmpty() && PhraseComparator.pc.compare(run.get(run.size() - 1), pe) > 0) {
+                sorted = false;
+            }
+            run.add(pe);
+            totals.merge(pe.getPhrase(), pe.getFrequency(), Integer::sum);
+            records++;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2006-2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.hitorro.basetext.phrase;
+
+import com.hitorro.obj.core.FilterContext;
+import com.hitorro.obj.core.FingerprintAttribute;
+import com.hitorro.obj.core.FingerprintFilter;
+import com.hitorro.util.core.hash.FPHash64;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.core.LowerCaseFilter;
+import org.apache.lucene.analysis.core.WhitespaceTokenizer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The phrase filters read the FingerprintAttribute when the chain carries one, they must behave exactly as they did
+ * hashing the terms themselves.
+ */
+public class PhraseFingerprintTest {
+    private static final String Text = "I love New York City hall and new york pizza";
+
+    private static TokenStream chain(boolean fingerprint) {
+        Tokenizer tok = new WhitespaceTokenizer();
+        tok.setReader(new StringReader(Text));
+        TokenStream ts = new LowerCaseFilter(tok);
+        return fingerprint ? new FingerprintFilter(ts) : ts;
+    }
+
+    private static List<String> phrase2(boolean fingerprint) throws IOException {
+        final List<String> emitted = new ArrayList<String>();
+        FilterContext fc = new FilterContext();
+        fc.fpPhraseContext = new FPPhraseContext(3, null, true) {
+            public void phraseEmit(long fingerPrint, int startPosition, int size, String txt, int charStartOffset,
+                                   int charEndOffset) {
+                emitted.add(fingerPrint + ":" + startPosition + ":" + size + ":" + txt + ":" + charStartOffset + ":" +
+                        charEndOffset);
+            }
+        };
+        TokenStream ts = new Phrase2(chain(fingerprint), fc);
+        ts.reset();
+        while (ts.incrementToken()) {
+        }
+        ts.end();
+        ts.close();
+        return emitted;
+    }
+
+    @Test
+    public void testPhrase2SameWithAndWithoutAttribute() throws IOException {
+        List<String> hashed = phrase2(false);
+        assertFalse(hashed.isEmpty());
+        assertEquals(hashed, phrase2(true));
+        assertTrue(hashed.get(0).startsWith(FPHash64.getFP("i") + ":0:1:i:"));
+    }
+
+    private static List<String> phraseFilter(boolean fingerprint) throws IOException {
+        PhraseAutomaton pa = new PhraseAutomaton(4);
+        pa.add("new york");
+        pa.add("new york city");
+        pa.add("city hall");
+        pa.build();
+        TokenStream ts = new PhraseFilter(chain(fingerprint), pa, 3, 1);
+        CharTermAttribute termAtt = ts.addAttribute(CharTermAttribute.class);
+        FingerprintAttribute fpAtt = ts.getAttribute(FingerprintAttribute.class);
+        List<String> terms = new ArrayList<String>();
+        ts.reset();
+        while (ts.incrementToken() && terms.size() < 1000) {
+            String term = termAtt.toString();
+            if (fpAtt != null) {
+                assertEquals(term, FPHash64.getFP(term), fpAtt.getFingerprint());
+            }
+            terms.add(term);
+        }
+        ts.end();
+        ts.close();
+        return terms;
+    }
+
+    @Test
+    public void testPhraseFilterSameWithAndWithoutAttribute() throws IOException {
+        List<String> hashed = phraseFilter(false);
+        assertFalse(hashed.isEmpty());
+        assertEquals(hashed, phraseFilter(true));
+    }
+}
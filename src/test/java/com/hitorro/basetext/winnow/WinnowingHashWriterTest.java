@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2006-2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.hitorro.basetext.winnow;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * The winnowed output is persisted, it must stay what the original O(n*w) scan produced.
+ */
+public class WinnowingHashWriterTest {
+
+    @Test
+    public void testMatchesOriginalScan() {
+        Random r = new Random(3);
+        for (int round = 0; round < 200; round++) {
+            int n = r.nextInt(300);
+            int window = 1 + r.nextInt(20);
+            // a small range gives plenty of ties
+            int range = round % 2 == 0 ? 5 : Integer.MAX_VALUE;
+            int hashes[] = new int[n];
+            for (int i = 0; i < n; i++) {
+                hashes[i] = range == Integer.MAX_VALUE ? r.nextInt() : r.nextInt(range);
+            }
+            assertEquals("n " + n + " window " + window, originalScan(hashes, window), winnow(hashes, window));
+        }
+    }
+
+    @Test
+    public void testFirstPositionSelectedFirstIsNotWritten() {
+        // the original scan starts with position 0 as the previous selection
+        assertEquals(originalScan(new int[]{1, 5, 6, 7, 0}, 3), winnow(new int[]{1, 5, 6, 7, 0}, 3));
+        assertEquals(2, winnow(new int[]{1, 5, 6, 7, 0}, 3).size());
+    }
+
+    private static List<String> winnow(int hashes[], int window) {
+        Collector c = new Collector();
+        WinnowingHashWriter w = new WinnowingHashWriter(c, hashes.length, window);
+        for (int i = 0; i < hashes.length; i++) {
+            w.write(hashes[i], i);
+        }
+        w.close();
+        return c.out;
+    }
+
+    private static List<String> originalScan(int hashes[], int windowSize) {
+        List<String> out = new ArrayList<String>();
+        int min = Integer.MAX_VALUE;
+        int pos = 0;
+        int prev_pos = 0;
+        for (int i = 0; i < hashes.length - windowSize + 1; i++) {
+            for (int j = 0; j < windowSize; j++) {
+                if (hashes[i + j] <= min) {
+                    pos = i + j;
+                    min = hashes[pos];
+                }
+            }
+            if (pos != prev_pos) {
+                out.add(hashes[pos] + "@" + pos);
+                prev_pos = pos;
+            }
+            min = Integer.MAX_VALUE;
+        }
+        return out;
+    }
+
+    private static class Collector implements HashWriter {
+        final List<String> out = new ArrayList<String>();
+
+        public boolean write(int hash, int position) {
+            out.add(hash + "@" + position);
+            return true;
+        }
+
+        public boolean close() {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2006-2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.hitorro.basetext.winnow.streaming;
+
+import com.hitorro.basetext.winnow.HashWriter;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the rolling hash winnower against a brute force k-gram hash and robust winnowing.
+ */
+public class RollingHashWinnowerTest {
+
+    private static class Collector implements HashWriter {
+        List<int[]> out = new ArrayList<int[]>();
+
+        public boolean write(int hash, int position) {
+            out.add(new int[]{hash, position});
+            return true;
+        }
+
+        public boolean close() {
+            return true;
+        }
+    }
+
+    private static int[] bruteHashes(String s, int k, int base) {
+        int n = s.length() - k + 1;
+        int h[] = new int[Math.max(n, 0)];
+        for (int i = 0; i < n; i++) {
+            int v = 0;
+            for (int j = 0; j < k; j++) {
+                int w = 1;
+                for (int p = 0; p < k - 1 - j; p++) {
+                    w *= base;
+                }
+                v += s.charAt(i + j) * w;
+            }
+            h[i] = v;
+        }
+        return h;
+    }
+
+    private static List<int[]> bruteWinnow(int h[], int w) {
+        List<int[]> out = new ArrayList<int[]>();
+        int prev = -1;
+        for (int s = 0; s + w <= h.length; s++) {
+            int min = Integer.MAX_VALUE;
+            for (int i = s; i < s + w; i++) {
+                min = Math.min(min, h[i]);
+            }
+            if (prev >= s && h[prev] == min) {
+                continue;
+            }
+            int sel = -1;
+            for (int i = s; i < s + w; i++) {
+                if (h[i] == min) {
+                    sel = i;
+                }
+            }
+            out.add(new int[]{min, sel});
+            prev = sel;
+        }
+        return out;
+    }
+
+    private static String randomText(Random r, int len, String alphabet) {
+        StringBuilder sb = new StringBuilder(len);
+        for (int i = 0; i < len; i++) {
+            sb.append(alphabet.charAt(r.nextInt(alphabet.length())));
+        }
+        return sb.toString();
+    }
+
+    private static void assertSame(List<int[]> expected, List<int[]> actual) {
+        assertEquals("Fingerprint count", expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals("Hash " + i, expected.get(i)[0], actual.get(i)[0]);
+            assertEquals("Position " + i, expected.get(i)[1], actual.get(i)[1]);
+        }
+    }
+
+    @Test
+    public void testMatchesBruteForceWithTies() throws IOException {
+        Random r = new Random(42);
+        for (int round = 0; round < 50; round++) {
+            String text = randomText(r, 300, round % 2 == 0 ? "ab" : "the quick brown fox");
+            int k = 1 + r.nextInt(8);
+            int w = 1 + r.nextInt(10);
+            Collector c = new Collector();
+            new RollingHashWinnower(k, w, 2, c).winnow(new StringReader(text));
+            assertSame(bruteWinnow(bruteHashes(text, k, 2), w), c.out);
+        }
+    }
+
+    @Test
+    public void testWideBaseWrapsLikeIntArithmetic() {
+        Random r = new Random(7);
+        String text = randomText(r, 500, "abcdefghijklmnopqrstuvwxyz ");
+        Collector c = new Collector();
+        new RollingHashWinnower(17, 11, 31, c).winnow(CharBuffer.wrap(text));
+        assertSame(bruteWinnow(bruteHashes(text, 17, 31), 11), c.out);
+    }
+
+    @Test
+    public void testShortInputEmitsNothing() {
+        Collector c = new Collector();
+        int count = new RollingHashWinnower(5, 4, c).winnow(CharBuffer.wrap("abcdef"));
+        assertEquals("Fewer k-grams than the window", 0, count);
+    }
+
+    @Test
+    public void testHashBaseRollingMatchesFullHash() throws IOException {
+        final List<Integer> got = new ArrayList<Integer>();
+        HashBase hb = new HashBase(12, new SetHash() {
+            public void setHash(int hash) {
+                got.add(hash);
+            }
+
+            public void reset() {
+                got.clear();
+            }
+        });
+        String text = randomText(new Random(3), 2000, "lorem ipsum dolor sit amet");
+        hb.read(new StringReader(text));
+        int expected[] = bruteHashes(text, 12, 2);
+        assertEquals("One hash per k-gram", expected.length, got.size());
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals("Hash " + i, expected[i], got.get(i).intValue());
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2006-2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.hitorro.obj.core;
+
+import com.hitorro.language.Iso639Table;
+import org.apache.lucene.analysis.TokenFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class AnalysisProfilerTest {
+
+    @After
+    public void tearDown() {
+        AnalysisProfiler.getProfiler().setEnabled(false);
+        AnalysisProfiler.getProfiler().reset();
+    }
+
+    private static void consume(GenericAnalyzer ga, String text) throws IOException {
+        TokenStream ts = ga.tokenStream("body", text);
+        ts.reset();
+        while (ts.incrementToken()) {
+        }
+        ts.end();
+        ts.close();
+    }
+
+    @Test
+    public void testToggleAppliesToCachedComponents() throws IOException {
+        GenericAnalyzer ga = new GenericAnalyzer("WHITESPACE,CASE", Iso639Table.english, GenericAnalyzer.Mode.Index);
+        AnalysisProfiler p = AnalysisProfiler.getProfiler();
+        p.setEnabled(false);
+        p.reset();
+        // components are built and cached for this thread while disabled
+        consume(ga, "one two three");
+        assertEquals(0, p.getTokens(ga.getChainSpec(), 0));
+        p.setEnabled(true);
+        consume(ga, "four five");
+        assertEquals("Cached chain recorded once enabled", 2, p.getTokens(ga.getChainSpec(), 0));
+        p.setEnabled(false);
+        consume(ga, "six seven eight");
+        assertEquals("Stops recording when disabled", 2, p.getTokens(ga.getChainSpec(), 0));
+    }
+
+    @Test
+    public void testDisabledChainHasNoProfilingStages() throws Exception {
+        GenericAnalyzer ga = new GenericAnalyzer("WHITESPACE,CASE", Iso639Table.english, GenericAnalyzer.Mode.Index);
+        AnalysisProfiler p = AnalysisProfiler.getProfiler();
+        p.setEnabled(false);
+        TokenStream disabled = ga.tokenStream("body", "one two");
+        assertEquals(0, profilingStages(disabled));
+        drain(disabled);
+        assertSame("Cached while the flag is unchanged", disabled, ga.tokenStream("body", "three"));
+        drain(disabled);
+
+        p.setEnabled(true);
+        TokenStream enabled = ga.tokenStream("body", "four five");
+        assertNotSame("Rebuilt on the toggle", disabled, enabled);
+        assertEquals(ga.getChainSpec().split(",").length, profilingStages(enabled));
+        drain(enabled);
+
+        p.setEnabled(false);
+        TokenStream again = ga.tokenStream("body", "six");
+        assertEquals(0, profilingStages(again));
+        drain(again);
+    }
+
+    private static void drain(TokenStream ts) throws IOException {
+        ts.reset();
+        while (ts.incrementToken()) {
+        }
+        ts.end();
+        ts.close();
+    }
+
+    private static int profilingStages(TokenStream ts) throws Exception {
+        Field input = TokenFilter.class.getDeclaredField("input");
+        input.setAccessible(true);
+        int n = 0;
+        while (ts instanceof TokenFilter) {
+            if (ts instanceof ProfilingTokenFilter) {
+                n++;
+            }
+            ts = (TokenStream) input.get(ts);
+        }
+        return n;
+    }
+}
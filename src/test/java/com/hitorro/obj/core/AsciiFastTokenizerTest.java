@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2006-2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.hitorro.obj.core;
+
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.OffsetAttribute;
+import org.apache.lucene.analysis.tokenattributes.PositionIncrementAttribute;
+import org.apache.lucene.analysis.tokenattributes.TypeAttribute;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Parity of {@link AsciiFastTokenizer} against {@link StandardTokenizer}.
+ */
+public class AsciiFastTokenizerTest {
+    private static final String ascii[] = {
+            "",
+            "   ",
+            "The quick brown fox jumped over the lazy dog.",
+            "2024-01-15 12:34:56,789 ERROR [main] c.h.Foo - failed to open /var/log/app.log",
+            "don't can't O'Reilly rock'n'roll 'quoted' trailing' 'leading",
+            "1,000,000 3.14159 1;2 1.a a.1 a1.2 1a.b v2.0.1 192.168.0.1",
+            "snake_case _leading trailing_ __ ___a a__b a_1 1_ _1 _ _._",
+            "a:b http://www.example.com/path?q=1&r=two#frag user@example.com",
+            "a.b. .a ..b a..b 1..2 a.,b 1,.2 a'b'c 1'000",
+            "tabs\tand\nnewlines\r\nand CRLF",
+            "#hashtag @mention $100 50% (parens) [brackets] {braces} <tags> \"quotes\"",
+            "MiXeD CaSe WoRdS ABC123def 123abc456",
+    };
+
+    private static final String mixed[] = {
+            "café naïve résumé",
+            "日本語のテキスト and english",
+            "Ελληνικά words, 123 και 456.",
+            "emoji 😀 test 👍🏽 done",
+            "a-­b soft­hyphen",
+            "x=é.b 1.٣ مرحبا بالعالم",
+            "צה\"ל אמר ש\"ח, \"צה\"ל\"",
+            "keycaps #️⃣ *️⃣ 1️⃣ #\u20E3 a#️⃣b",
+            "\u0301 a \u0301b \"\u0301 ,\u200D",
+    };
+
+    @Test
+    public void testAsciiParity() throws IOException {
+        for (String text : ascii) {
+            assertEquals(text, tokens(new StandardTokenizer(), text), tokens(new AsciiFastTokenizer(), text));
+        }
+    }
+
+    @Test
+    public void testNonAsciiFallbackParity() throws IOException {
+        for (String text : mixed) {
+            assertEquals(text, tokens(new StandardTokenizer(), text), tokens(new AsciiFastTokenizer(), text));
+        }
+    }
+
+    @Test
+    public void testLongTokens() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 600; i++) {
+            sb.append((char) ('a' + i % 26));
+        }
+        sb.append(" tail");
+        String text = sb.toString();
+        StandardTokenizer st = new StandardTokenizer();
+        st.setMaxTokenLength(255);
+        AsciiFastTokenizer at = new AsciiFastTokenizer();
+        at.setMaxTokenLength(255);
+        assertEquals(tokens(st, text), tokens(at, text));
+    }
+
+    @Test
+    public void testChunkedInput() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; sb.length() < 20000; i++) {
+            sb.append(ascii[i % ascii.length]).append(' ').append(mixed[i % mixed.length]).append(' ');
+        }
+        String text = sb.toString();
+        assertEquals(tokens(new StandardTokenizer(), text), tokens(new AsciiFastTokenizer(), text));
+        assertEquals(tokens(new StandardTokenizer(), text), tokens(new AsciiFastTokenizer(), new TrickleReader(text)));
+    }
+
+    @Test
+    public void testReuse() throws IOException {
+        AsciiFastTokenizer at = new AsciiFastTokenizer();
+        StandardTokenizer st = new StandardTokenizer();
+        for (String text : ascii) {
+            assertEquals(text, tokens(st, text), tokens(at, text));
+        }
+        for (String text : mixed) {
+            assertEquals(text, tokens(st, text), tokens(at, text));
+        }
+    }
+
+    private static List<String> tokens(Tokenizer tokenizer, String text) throws IOException {
+        return tokens(tokenizer, new StringReader(text));
+    }
+
+    private static List<String> tokens(Tokenizer tokenizer, Reader reader) throws IOException {
+        List<String> ret = new ArrayList<String>();
+        tokenizer.setReader(reader);
+        CharTermAttribute term = tokenizer.addAttribute(CharTermAttribute.class);
+        OffsetAttribute offset = tokenizer.addAttribute(OffsetAttribute.class);
+        TypeAttribute type = tokenizer.addAttribute(TypeAttribute.class);
+        PositionIncrementAttribute posInc = tokenizer.addAttribute(PositionIncrementAttribute.class);
+        tokenizer.reset();
+        while (tokenizer.incrementToken()) {
+            ret.add(term.toString() + "/" + offset.startOffset() + "-" + offset.endOffset() + "/" + type.type()
+                    + "/" + posInc.getPositionIncrement());
+        }
+        tokenizer.end();
+        ret.add("end " + offset.endOffset());
+        tokenizer.close();
+        return ret;
+    }
+
+    /**
+     * Hands out a few chars per read so segments straddle the chunks.
+     */
+    private static class TrickleReader extends Reader {
+        private final String text;
+        private int pos = 0;
+
+        TrickleReader(String text) {
+            this.text = text;
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) {
+            if (pos == text.length()) {
+                return -1;
+            }
+            int n = Math.min(Math.min(len, 1 + pos % 7), text.length() - pos);
+            text.getChars(pos, pos + n, cbuf, off);
+            pos += n;
+            return n;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
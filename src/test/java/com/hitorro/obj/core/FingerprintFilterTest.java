@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2006-2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.hitorro.obj.core;
+
+import com.hitorro.language.Iso639Table;
+import com.hitorro.util.core.hash.FPHash64;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.core.WhitespaceTokenizer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class FingerprintFilterTest {
+
+    @Test
+    public void testPlacedAfterLastTermMutatingFilter() {
+        FilterEnum chain[] = {FilterEnum.LOWERCASE, FilterEnum.PORTER_STEM, FilterEnum.STOP, FilterEnum.LENGTH};
+        assertArrayEquals(new FilterEnum[]{FilterEnum.LOWERCASE, FilterEnum.PORTER_STEM, FilterEnum.FINGERPRINT,
+                FilterEnum.STOP, FilterEnum.LENGTH}, FilterEnum.withFingerprint(chain));
+        // one already present is moved, not duplicated
+        FilterEnum early[] = {FilterEnum.FINGERPRINT, FilterEnum.LOWERCASE, FilterEnum.PORTER_STEM};
+        assertArrayEquals(new FilterEnum[]{FilterEnum.LOWERCASE, FilterEnum.PORTER_STEM, FilterEnum.FINGERPRINT},
+                FilterEnum.withFingerprint(early));
+        assertArrayEquals(new FilterEnum[]{FilterEnum.FINGERPRINT, FilterEnum.STOP},
+                FilterEnum.withFingerprint(new FilterEnum[]{FilterEnum.STOP}));
+        assertArrayEquals(new FilterEnum[]{FilterEnum.FINGERPRINT}, FilterEnum.withFingerprint(null));
+    }
+
+    @Test
+    public void testAttributeIsFingerprintOfFinalTerm() throws IOException {
+        GenericAnalyzer ga = new GenericAnalyzer("WHITESPACE,CASE,PORTERSTEM", Iso639Table.english,
+                GenericAnalyzer.Mode.Index, true);
+        TokenStream ts = ga.tokenStream("body", "Running JUMPED cafés 😀 Connections");
+        List<String> terms = new ArrayList<String>();
+        try {
+            CharTermAttribute termAtt = ts.addAttribute(CharTermAttribute.class);
+            FingerprintAttribute fpAtt = ts.getAttribute(FingerprintAttribute.class);
+            assertNotNull(fpAtt);
+            ts.reset();
+            while (ts.incrementToken()) {
+                String term = termAtt.toString();
+                terms.add(term);
+                assertEquals(term, FPHash64.getFP(term), fpAtt.getFingerprint());
+            }
+            ts.end();
+        } finally {
+            ts.close();
+        }
+        // stemmed before the fingerprint was taken
+        assertEquals(Arrays.asList("run", "jump", "café", "😀", "connect"), terms);
+    }
+
+    @Test
+    public void testInterceptorSeesEachTerm() throws IOException {
+        Tokenizer tok = new WhitespaceTokenizer();
+        tok.setReader(new StringReader("alpha a-much-longer-token-than-the-initial-buffer b"));
+        InterceptorTokenFilter itf = new InterceptorTokenFilter(tok);
+        CharTermAttribute termAtt = itf.getAttribute(CharTermAttribute.class);
+        assertNull(itf.getLastToken());
+        itf.reset();
+        List<String> seen = new ArrayList<String>();
+        while (itf.incrementToken()) {
+            assertEquals(termAtt.toString(), itf.getLastToken());
+            // asking again returns the same token
+            assertEquals(itf.getLastToken(), itf.getLastToken());
+            seen.add(itf.getLastToken());
+        }
+        itf.end();
+        itf.close();
+        assertEquals(Arrays.asList("alpha", "a-much-longer-token-than-the-initial-buffer", "b"), seen);
+        assertEquals("b", itf.getLastToken());
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2006-2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.hitorro.obj.core;
+
+import com.hitorro.language.Iso639Table;
+import com.hitorro.language.IsoLanguage;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class GenericAnalyzerRegistryTest {
+    private static final String Chain = "WHITESPACE,CASE";
+
+    @Before
+    public void setUp() {
+        GenericAnalyzerRegistry.clear();
+    }
+
+    @Test
+    public void testSameKeySameInstance() {
+        GenericAnalyzer a = GenericAnalyzerRegistry.get(Chain, Iso639Table.english, GenericAnalyzer.Mode.Index);
+        GenericAnalyzer b = GenericAnalyzerRegistry.get(Chain, Iso639Table.english, GenericAnalyzer.Mode.Index);
+        assertSame(a, b);
+        assertTrue(a.isShared());
+        assertEquals(1, GenericAnalyzerRegistry.size());
+    }
+
+    @Test
+    public void testModeAndLanguageAreKeyed() {
+        IsoLanguage german = Iso639Table.getInstance().getRow("de");
+        GenericAnalyzer index = GenericAnalyzerRegistry.get(Chain, Iso639Table.english, GenericAnalyzer.Mode.Index);
+        GenericAnalyzer query = GenericAnalyzerRegistry.get(Chain, Iso639Table.english, GenericAnalyzer.Mode.Query);
+        GenericAnalyzer de = GenericAnalyzerRegistry.get(Chain, german, GenericAnalyzer.Mode.Index);
+        assertNotSame(index, query);
+        assertNotSame(index, de);
+        assertNotSame(query, de);
+        assertEquals(GenericAnalyzer.Mode.Query, query.getMode());
+        assertEquals(german, de.getLanguage());
+        assertEquals(3, GenericAnalyzerRegistry.size());
+    }
+
+    @Test
+    public void testFingerprintIsKeyed() {
+        GenericAnalyzer with = GenericAnalyzerRegistry.get(Chain, Iso639Table.english, GenericAnalyzer.Mode.Index);
+        GenericAnalyzer without = GenericAnalyzerRegistry.get(Chain, Iso639Table.english, GenericAnalyzer.Mode.Index, false);
+        assertNotSame(with, without);
+        assertSame(without, GenericAnalyzerRegistry.get(Chain, Iso639Table.english, GenericAnalyzer.Mode.Index, false));
+        assertTrue(with.getChainSpec().contains(FilterEnum.FINGERPRINT.getName()));
+        assertFalse(without.getChainSpec().contains(FilterEnum.FINGERPRINT.getName()));
+    }
+
+    @Test
+    public void testConcurrentAnalysisThroughSharedAnalyzer() throws Exception {
+        final GenericAnalyzer ga = GenericAnalyzerRegistry.get(Chain, Iso639Table.english, GenericAnalyzer.Mode.Index);
+        final String texts[] = {"The Quick brown FOX", "jumps Over the lazy dog", "A B C d e f", ""};
+        final List<String> expected = new ArrayList<String>();
+        for (String text : texts) {
+            expected.addAll(terms(ga, text));
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+            for (int t = 0; t < 2; t++) {
+                results.add(pool.submit(new Callable<Boolean>() {
+                    public Boolean call() throws IOException {
+                        for (int i = 0; i < 500; i++) {
+                            List<String> got = new ArrayList<String>();
+                            for (String text : texts) {
+                                got.addAll(terms(ga, text));
+                            }
+                            if (!expected.equals(got)) {
+                                return false;
+                            }
+                        }
+                        return true;
+                    }
+                }));
+            }
+            for (Future<Boolean> f : results) {
+                assertTrue("Tokens differ across threads", f.get());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testTypeSystemFactoryGetsPrivateAnalyzer() {
+        GenericAnalyzer shared = GenericAnalyzerRegistry.get(Chain, Iso639Table.english, GenericAnalyzer.Mode.Index);
+        Analyzer a = new GenericaAnalyzerFactory().get(Chain, Iso639Table.english, GenericAnalyzer.Mode.Index);
+        assertTrue(a instanceof GenericAnalyzer);
+        GenericAnalyzer ga = (GenericAnalyzer) a;
+        assertNotSame(shared, ga);
+        assertFalse(ga.isShared());
+        // a private analyzer takes contexts, the shared one refuses them
+        ga.setFilterContext(null);
+        ga.setTSInterceptorContext(null);
+        try {
+            shared.setFilterContext(null);
+            fail("shared analyzer accepted a filter context");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+    private static List<String> terms(GenericAnalyzer ga, String text) throws IOException {
+        List<String> ret = new ArrayList<String>();
+        TokenStream ts = ga.tokenStream("body", text);
+        try {
+            CharTermAttribute termAtt = ts.addAttribute(CharTermAttribute.class);
+            ts.reset();
+            while (ts.incrementToken()) {
+                ret.add(termAtt.toString());
+            }
+            ts.end();
+        } finally {
+            ts.close();
+        }
+        return ret;
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2006-2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.hitorro.obj.core;
+
+import com.hitorro.language.Iso639Table;
+import com.hitorro.util.core.hash.FPHash64;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class GenericTokenizer2HashlongMapperTest {
+
+    @Test
+    public void testPhraseHashCombinesTokenHashes() {
+        GenericTokenizer2HashlongMapper mapper = new GenericTokenizer2HashlongMapper("WHITESPACE,CASE", Iso639Table.english);
+        long expected = FPHash64.combineFingerPrints(FPHash64.combineFingerPrints(FPHash64.getFPViaChars("new"),
+                FPHash64.getFPViaChars("york")), FPHash64.getFPViaChars("city"));
+        assertEquals(expected, (long) mapper.apply("New York  CITY"));
+        // the packed tokens are reused between calls
+        assertEquals(FPHash64.getFPViaChars("one"), (long) mapper.apply("one"));
+        assertEquals(expected, (long) mapper.apply("new york city"));
+        assertEquals(0, (long) mapper.apply(""));
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2006-2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.hitorro.obj.core;
+
+import org.apache.lucene.analysis.core.WhitespaceAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Paging of {@link LuceneResultIterator}.
+ */
+public class LuceneResultIteratorTest {
+    private static final int Docs = 5000;
+
+    @Test
+    public void testPagesGrowGeometrically() throws IOException {
+        ByteBuffersDirectory dir = new ByteBuffersDirectory();
+        IndexWriter writer = new IndexWriter(dir, new IndexWriterConfig(new WhitespaceAnalyzer()));
+        for (int i = 0; i < Docs; i++) {
+            Document doc = new Document();
+            doc.add(new StringField("type", "t", Field.Store.NO));
+            doc.add(new StoredField("n", i));
+            writer.addDocument(doc);
+        }
+        writer.close();
+        DirectoryReader reader = DirectoryReader.open(dir);
+        try {
+            CountingSearcher searcher = new CountingSearcher(reader);
+            LuceneResultIterator<Integer> it = new LuceneResultIterator<Integer>(
+                    (score, doc) -> doc.getField("n").numericValue().intValue(), 0, 0, searcher,
+                    new MatchAllDocsQuery(), 10);
+            boolean seen[] = new boolean[Docs];
+            int count = 0;
+            while (it.hasNext()) {
+                seen[it.next()] = true;
+                count++;
+            }
+            assertEquals(Docs, count);
+            for (boolean b : seen) {
+                assertTrue(b);
+            }
+            // 10, 20, 40 ... 5120 covers 5000 hits in 9 searches rather than 500
+            assertTrue("searches " + searcher.searches, searcher.searches <= 10);
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static class CountingSearcher extends IndexSearcher {
+        int searches = 0;
+
+        CountingSearcher(IndexReader reader) {
+            super(reader);
+        }
+
+        @Override
+        public TopDocs searchAfter(ScoreDoc after, Query query, int n) throws IOException {
+            searches++;
+            return super.searchAfter(after, query, n);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2006-2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.hitorro.obj.core;
+
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.core.WhitespaceTokenizer;
+import org.apache.lucene.analysis.en.PorterStemFilter;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.OffsetAttribute;
+import org.apache.lucene.analysis.tokenattributes.PositionIncrementAttribute;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MemoizingTokenFilterTest {
+    private static final String Text = "running runs running jumped jumping runs  ";
+
+    private static List<String> tokens(TokenStream ts) throws IOException {
+        List<String> ret = new ArrayList<String>();
+        CharTermAttribute term = ts.addAttribute(CharTermAttribute.class);
+        OffsetAttribute offset = ts.addAttribute(OffsetAttribute.class);
+        PositionIncrementAttribute posInc = ts.addAttribute(PositionIncrementAttribute.class);
+        ts.reset();
+        while (ts.incrementToken()) {
+            ret.add(term + "/" + offset.startOffset() + "-" + offset.endOffset() + "/" + posInc.getPositionIncrement());
+        }
+        ts.end();
+        ret.add("end " + offset.startOffset() + "-" + offset.endOffset());
+        ts.close();
+        return ret;
+    }
+
+    @Test
+    public void testMatchesUnmemoizedChain() throws IOException {
+        Tokenizer plain = new WhitespaceTokenizer();
+        plain.setReader(new StringReader(Text));
+        Tokenizer memo = new WhitespaceTokenizer();
+        memo.setReader(new StringReader(Text));
+        MemoizingTokenFilter m = new MemoizingTokenFilter(memo, PorterStemFilter::new, 64);
+        assertEquals(tokens(new PorterStemFilter(plain)), tokens(m));
+        assertTrue("Repeated terms come from the cache", m.getHits() > 0);
+    }
+
+    @Test
+    public void testFinalOffsetAfterEnd() throws IOException {
+        Tokenizer t = new WhitespaceTokenizer();
+        t.setReader(new StringReader(Text));
+        TokenStream ts = new MemoizingTokenFilter(t, PorterStemFilter::new, 64);
+        OffsetAttribute offset = ts.addAttribute(OffsetAttribute.class);
+        ts.reset();
+        while (ts.incrementToken()) {
+        }
+        ts.end();
+        assertEquals("Final offset is the text length", Text.length(), offset.endOffset());
+        assertEquals(Text.length(), offset.startOffset());
+        ts.close();
+    }
+}
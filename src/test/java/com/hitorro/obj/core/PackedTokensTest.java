@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2006-2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.hitorro.obj.core;
+
+import com.hitorro.language.Iso639Table;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.FlagsAttribute;
+import org.apache.lucene.analysis.tokenattributes.KeywordAttribute;
+import org.apache.lucene.analysis.tokenattributes.OffsetAttribute;
+import org.apache.lucene.analysis.tokenattributes.PositionIncrementAttribute;
+import org.apache.lucene.analysis.tokenattributes.TypeAttribute;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class PackedTokensTest {
+
+    private static GenericAnalyzer analyzer() {
+        return new GenericAnalyzer("STANDARD,CASE,PORTERSTEM", Iso639Table.english, GenericAnalyzer.Mode.Index, true);
+    }
+
+    private static String longText() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 300; i++) {
+            sb.append("word").append(i).append(" running ");
+        }
+        return sb.toString();
+    }
+
+    @Test
+    public void testBatchMatchesTokenStream() throws IOException {
+        GenericAnalyzer ga = analyzer();
+        List<String> texts = Arrays.asList("Running 42 dogs", "", null, "Café über 3.14 JUMPED", longText());
+        // small initial capacity so the arrays and the arena grow
+        PackedTokens pt = ga.analyzeBatch("body", texts, new PackedTokens(16));
+
+        assertEquals(texts.size(), pt.getTextCount());
+        assertEquals(0, pt.getTextStart(0));
+        assertEquals(pt.size(), pt.getTextEnd(texts.size() - 1));
+        for (int t = 0; t < texts.size(); t++) {
+            if (t > 0) {
+                assertEquals(pt.getTextEnd(t - 1), pt.getTextStart(t));
+            }
+            assertText(ga, texts.get(t) == null ? "" : texts.get(t), pt, t);
+        }
+    }
+
+    private static void assertText(GenericAnalyzer ga, String text, PackedTokens pt, int t) throws IOException {
+        TokenStream ts = ga.tokenStream("body", text);
+        int i = pt.getTextStart(t);
+        try {
+            CharTermAttribute termAtt = ts.addAttribute(CharTermAttribute.class);
+            OffsetAttribute offsetAtt = ts.addAttribute(OffsetAttribute.class);
+            PositionIncrementAttribute posIncAtt = ts.addAttribute(PositionIncrementAttribute.class);
+            TypeAttribute typeAtt = ts.addAttribute(TypeAttribute.class);
+            FingerprintAttribute fpAtt = ts.getAttribute(FingerprintAttribute.class);
+            KeywordAttribute keywordAtt = ts.getAttribute(KeywordAttribute.class);
+            FlagsAttribute flagsAtt = ts.getAttribute(FlagsAttribute.class);
+            assertNotNull(fpAtt);
+            ts.reset();
+            while (ts.incrementToken()) {
+                assertTrue("more tokens than packed for text " + t, i < pt.getTextEnd(t));
+                String term = termAtt.toString();
+                assertEquals(term, new String(pt.getTermBuffer(), pt.getTermStart(i), pt.getTermLength(i)));
+                assertEquals(term, pt.getTerm(i));
+                assertEquals(term, offsetAtt.startOffset(), pt.getStartOffset(i));
+                assertEquals(term, offsetAtt.endOffset(), pt.getEndOffset(i));
+                assertEquals(term, posIncAtt.getPositionIncrement(), pt.getPositionIncrement(i));
+                assertEquals(term, typeAtt.type(), pt.getType(i));
+                assertEquals(term, fpAtt.getFingerprint(), pt.getFingerprint(i));
+                assertEquals(term, keywordAtt != null && keywordAtt.isKeyword(), pt.isKeyword(i));
+                assertEquals(term, flagsAtt == null ? 0 : flagsAtt.getFlags(), pt.getFlags(i) >>> PackedTokens.FlagsShift);
+                i++;
+            }
+            ts.end();
+        } finally {
+            ts.close();
+        }
+        assertEquals("fewer tokens than packed for text " + t, pt.getTextEnd(t), i);
+    }
+
+    @Test
+    public void testReusedTokensAreCleared() throws IOException {
+        GenericAnalyzer ga = analyzer();
+        PackedTokens pt = ga.analyzeBatch("body", Arrays.asList("first text here", longText()));
+        int before = pt.size();
+        PackedTokens again = ga.analyzeBatch("body", Arrays.asList("dogs"), pt);
+        assertSame(again, pt);
+        assertTrue(before > 1);
+        assertEquals(1, pt.getTextCount());
+        assertEquals(1, pt.size());
+        assertEquals(0, pt.getTextStart(0));
+        assertEquals(1, pt.getTextEnd(0));
+        assertEquals("dog", pt.getTerm(0));
+        assertEquals(0, pt.getTermStart(0));
+        assertEquals(0, pt.getStartOffset(0));
+    }
+
+    @Test
+    public void testKeywordAndFlagBits() {
+        PackedTokens pt = new PackedTokens();
+        pt.startText();
+        pt.add("abc".toCharArray(), 3, 0, 3, 1, 7L, "word", PackedTokens.KeywordFlag | (5 << PackedTokens.FlagsShift));
+        pt.add("12xx".toCharArray(), 2, 4, 6, 2, 9L, "<NUM>", 0);
+        pt.endText();
+        assertTrue(pt.isKeyword(0));
+        assertEquals(5, pt.getFlags(0) >>> PackedTokens.FlagsShift);
+        assertFalse(pt.isKeyword(1));
+        assertEquals(0, pt.getFlags(1));
+        assertEquals("12", pt.getTerm(1));
+        assertEquals(2, pt.getPositionIncrement(1));
+        assertEquals("<NUM>", pt.getType(1));
+        assertNotEquals(pt.getTypeId(0), pt.getTypeId(1));
+        assertEquals("word", pt.getTypeName(pt.getTypeId(0)));
+    }
+}
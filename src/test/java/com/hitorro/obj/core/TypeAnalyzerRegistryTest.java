@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2006-2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.hitorro.obj.core;
+
+import com.hitorro.language.Iso639Table;
+import com.hitorro.language.IsoLanguage;
+import com.hitorro.util.core.opers.AlwaysTrueOperator;
+import com.hitorro.util.typesystem.Type;
+import com.hitorro.util.typesystem.TypeManager;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Runs against the configured type system, skipped when it defines no types.
+ */
+public class TypeAnalyzerRegistryTest {
+    private static final IsoLanguage english = Iso639Table.english;
+    private Type type;
+
+    @Before
+    public void setUp() {
+        List<Type> types = TypeManager.getTypeManager().getTypesMatchingConstraint(new AlwaysTrueOperator());
+        Assume.assumeTrue(types != null && !types.isEmpty());
+        type = types.get(0);
+    }
+
+    @Test
+    public void testConcurrentLookupsBuildOnce() throws Exception {
+        final TypeAnalyzerRegistry registry = new TypeAnalyzerRegistry();
+        final CountDownLatch start = new CountDownLatch(1);
+        int threads = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<AnalyzerPerLanguage>> results = new ArrayList<Future<AnalyzerPerLanguage>>();
+            for (int i = 0; i < threads; i++) {
+                results.add(pool.submit(new Callable<AnalyzerPerLanguage>() {
+                    public AnalyzerPerLanguage call() throws InterruptedException {
+                        start.await();
+                        return registry.getPerLanguage(type, GenericAnalyzer.Mode.Index);
+                    }
+                }));
+            }
+            start.countDown();
+            AnalyzerPerLanguage first = results.get(0).get();
+            for (Future<AnalyzerPerLanguage> f : results) {
+                assertSame(first, f.get());
+            }
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(1, registry.getBuildCount());
+        assertEquals(threads, registry.getLookupCount());
+    }
+
+    @Test
+    public void testBuildAllPrepopulates() {
+        TypeAnalyzerRegistry registry = new TypeAnalyzerRegistry();
+        registry.buildAll(Collections.singletonList(english));
+        long builds = registry.getBuildCount();
+        registry.get(type, english, GenericAnalyzer.Mode.Index);
+        registry.get(type, english, GenericAnalyzer.Mode.Query);
+        registry.getAllTypes(english, true);
+        registry.getAllTypes(english, false);
+        assertEquals("First lookups built nothing", builds, registry.getBuildCount());
+        assertEquals(4, registry.getLookupCount());
+    }
+
+    @Test
+    public void testInvalidateSwapsSnapshot() throws IOException {
+        TypeAnalyzerRegistry registry = new TypeAnalyzerRegistry();
+        AnalyzerPerLanguage before = registry.getPerLanguage(type, GenericAnalyzer.Mode.Index);
+        Analyzer handedOut = before.getForLanguage(english);
+        Analyzer allBefore = registry.getAllTypes(english, true);
+        long builds = registry.getBuildCount();
+
+        registry.invalidate();
+        assertEquals(1, registry.getInvalidationCount());
+        AnalyzerPerLanguage after = registry.getPerLanguage(type, GenericAnalyzer.Mode.Index);
+        assertNotSame(before, after);
+        assertNotSame(handedOut, after.getForLanguage(english));
+        assertNotSame(allBefore, registry.getAllTypes(english, true));
+        assertEquals(builds + 2, registry.getBuildCount());
+        assertSame("Rebuilt once", after, registry.getPerLanguage(type, GenericAnalyzer.Mode.Index));
+
+        // analyzers from the old snapshot keep working, an unmapped field goes to the StandardAnalyzer default
+        TokenStream ts = handedOut.tokenStream("unmapped_field", "still usable after invalidate");
+        try {
+            ts.reset();
+            int n = 0;
+            while (ts.incrementToken()) {
+                n++;
+            }
+            ts.end();
+            assertEquals(4, n);
+        } finally {
+            ts.close();
+        }
+    }
+}